@@ -1,15 +1,79 @@
 package org.example;
 
 import org.example.client.CLIClient;
+import org.example.client.ClusterSimulationClient;
+import org.example.client.InvariantStressClient;
+import org.example.client.NetworkLoadClient;
 import org.example.client.PerformanceClient;
+import org.example.client.ReplayClient;
+import org.example.client.ReplicationClient;
+import org.example.client.StressClient;
+import org.example.lease.LeaseCoordinatorServer;
+import org.example.lease.LocalLeaseCoordinator;
+import org.example.replay.Workload;
+import org.example.server.TicketShopServer;
 import org.example.utils.IDServiceParallel;
 
+import java.io.FileReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
 public class Main {
 
-    public static void main(String[] args) throws InterruptedException {
+    public static void main(String[] args) throws Exception {
         long startTime = System.currentTimeMillis();
+        if (args.length >= 2 && args[0].equals("--coordinator")) {
+            // Hands out ID ranges to nodes started with -Deva.ids.<service>=leased, optionally surviving restarts.
+            LocalLeaseCoordinator coordinator = args.length > 2
+                    ? new LocalLeaseCoordinator(IDServiceParallel.LOWER_BOUND, Path.of(args[2]))
+                    : new LocalLeaseCoordinator(IDServiceParallel.LOWER_BOUND);
+            LeaseCoordinatorServer server = new LeaseCoordinatorServer(coordinator, new InetSocketAddress(Integer.parseInt(args[1])));
+            System.out.println("Lease coordinator listening on port " + server.getPort());
+            server.join();
+            return;
+        }
         IDServiceParallel idService = new IDServiceParallel(10000);
         TicketShop ticketShop = new TicketShop(idService);
+        if (args.length == 2 && args[0].equals("--server")) {
+            TicketShopServer server = new TicketShopServer(ticketShop, new InetSocketAddress(Integer.parseInt(args[1])), 1024);
+            server.start();
+            System.out.println("Listening on port " + server.getPort());
+            server.join();
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("--batch")) {
+            // Reads the script from the given file, or from stdin when none is given.
+            try (Reader script = args.length > 1 ? new FileReader(args[1], StandardCharsets.UTF_8)
+                    : new InputStreamReader(System.in, StandardCharsets.UTF_8)) {
+                new CLIClient(ticketShop).runBatch(script, new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            }
+            return;
+        }
+        if (args.length == 2 && args[0].equals("--record")) {
+            new ReplayClient(ticketShop).record(100, 1000, 4, 10000).write(Path.of(args[1]));
+            return;
+        }
+        if (args.length == 2 && args[0].equals("--replay")) {
+            System.exit(new ReplayClient(ticketShop).compare(Workload.read(Path.of(args[1]))) ? 0 : 1);
+        }
+        if (args.length == 3 && args[0].equals("--simulate")) {
+            System.exit(new ReplayClient(ticketShop).simulate(Long.parseLong(args[1]), Integer.parseInt(args[2])) ? 0 : 1);
+        }
+        if (args.length == 2 && args[0].equals("--stress")) {
+            System.exit(new InvariantStressClient(ticketShop).run(Integer.parseInt(args[1])) ? 0 : 1);
+        }
+        if (args.length >= 2 && args[0].equals("--bench")) {
+            bench(ticketShop, args[1], args);
+            System.out.println("Total time " + (System.currentTimeMillis() - startTime) + "ms");
+            return;
+        }
 //        CLIClient CLIClient = new CLIClient(ticketShop);
 //        CLIClient.start();
         PerformanceClient performanceClient = new PerformanceClient(ticketShop);
@@ -20,4 +84,88 @@ public class Main {
         performanceClient.buyTickets(2);
         System.out.println("Total time " + (System.currentTimeMillis() - startTime) + "ms");
     }
+
+    // Runs one benchmark by name. Arguments after the name override its parameters in order; the
+    // defaults are the sizes the numbers in the history were measured with.
+    private static void bench(TicketShop ticketShop, String name, String[] args) throws Exception {
+        PerformanceClient performanceClient = new PerformanceClient(ticketShop);
+        switch (name) {
+            case "burst":
+                performanceClient.burstThroughWaitingRoom(arg(args, 0, 10000), arg(args, 1, 5000));
+                break;
+            case "readWriteMix":
+                performanceClient.createEvents(100, 1000);
+                performanceClient.readWriteMix(arg(args, 0, 8), arg(args, 1, 100000));
+                break;
+            case "bulk":
+                performanceClient.createEvents(100, 1000);
+                performanceClient.createCustomers(1000);
+                performanceClient.buyTickets(1);
+                performanceClient.bulkRoundTrip(args.length > 2 ? Path.of(args[2]) : Files.createTempDirectory("bulk"));
+                break;
+            case "changeFeed":
+                performanceClient.changeFeedFanOut(args.length > 2 ? Path.of(args[2]) : Files.createTempFile("changes", ".log"),
+                        arg(args, 1, 8), arg(args, 2, 10000));
+                break;
+            case "upcoming":
+                performanceClient.upcomingEventQueries(arg(args, 0, 100000), arg(args, 1, 1000));
+                break;
+            case "typeahead":
+                performanceClient.typeaheadSearch(arg(args, 0, 1000000), arg(args, 1, 100000));
+                break;
+            case "idRecycling":
+                performanceClient.idRecycling(arg(args, 0, 10000), arg(args, 1, 4000000), arg(args, 2, 0));
+                break;
+            case "idAllocators":
+                performanceClient.compareIdAllocators(arg(args, 0, 8), arg(args, 1, 100000));
+                break;
+            case "idBursts":
+                performanceClient.idBursts(arg(args, 0, 8), arg(args, 1, 3000), arg(args, 2, 150), arg(args, 3, 1000));
+                break;
+            case "cancelEvent":
+                performanceClient.cancelEvent(arg(args, 0, 100000));
+                break;
+            case "purchaseLimits":
+                performanceClient.purchaseLimits(arg(args, 0, 80), arg(args, 1, 2000), arg(args, 2, 100));
+                break;
+            case "rateLimiting":
+                performanceClient.rateLimiting(arg(args, 0, 2000), arg(args, 1, 8), arg(args, 2, 5000));
+                break;
+            case "duplicates":
+                new StressClient(ticketShop).duplicateRegistrations(arg(args, 0, 8), arg(args, 1, 1000));
+                break;
+            case "salesReport":
+                new StressClient(ticketShop).salesReportConsistency(arg(args, 0, 8), arg(args, 1, 10000), arg(args, 2, 42));
+                break;
+            case "faults":
+                new StressClient(ticketShop).purchaseWithFaults(arg(args, 0, 8), arg(args, 1, 10000), arg(args, 2, 42));
+                break;
+            case "network":
+                // Serves one event from an in-process server on a free loopback port.
+                long eventId = ticketShop.getEventServiceInterface().add("Network", "Uni", LocalDateTime.now().plusDays(1), 100).getId();
+                TicketShopServer server = new TicketShopServer(ticketShop, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+                server.start();
+                try {
+                    new NetworkLoadClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()))
+                            .run(arg(args, 0, 8), arg(args, 1, 16), arg(args, 2, 100000), eventId);
+                } finally {
+                    server.close();
+                }
+                break;
+            case "cluster":
+                new ClusterSimulationClient().run(arg(args, 0, 8), arg(args, 1, 4), arg(args, 2, 250000), arg(args, 3, 10000),
+                        arg(args, 4, 1) != 0, arg(args, 5, 50));
+                break;
+            case "replication":
+                new ReplicationClient(ticketShop).run(arg(args, 0, 1000), arg(args, 1, 1000), arg(args, 2, 10000), arg(args, 3, 8),
+                        arg(args, 4, 100000), arg(args, 5, 1000));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown benchmark: " + name);
+        }
+    }
+
+    private static int arg(String[] args, int index, int fallback) {
+        return args.length > index + 2 ? Integer.parseInt(args[index + 2]) : fallback;
+    }
 }
\ No newline at end of file
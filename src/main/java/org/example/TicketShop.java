@@ -4,19 +4,52 @@ import org.example.customer.CustomerService;
 import org.example.customer.CustomerServiceInterface;
 import org.example.event.EventService;
 import org.example.event.EventServiceInterface;
+import org.example.report.SalesReport;
+import org.example.report.SalesReportInterface;
+import org.example.ticket.CancellationService;
+import org.example.ticket.CancellationServiceInterface;
+import org.example.ticket.PurchaseLimitEngine;
+import org.example.ticket.PurchaseLimitEngineInterface;
+import org.example.ticket.PurchaseRateLimiter;
+import org.example.ticket.PurchaseRateLimiterInterface;
+import org.example.ticket.ReservationService;
+import org.example.ticket.ReservationServiceInterface;
 import org.example.ticket.TicketService;
 import org.example.ticket.TicketServiceInterface;
-import org.example.utils.IDServiceParallel;
+import org.example.utils.IdAllocator;
 
 public class TicketShop {
     private final CustomerServiceInterface customerServiceInterface;
     private final EventServiceInterface eventServiceInterface;
     private final TicketServiceInterface ticketServiceInterface;
+    private final ReservationServiceInterface reservationServiceInterface;
+    private final SalesReportInterface salesReportInterface;
+    private final CancellationServiceInterface cancellationServiceInterface;
+    private final PurchaseLimitEngineInterface purchaseLimitEngineInterface;
+    private final PurchaseRateLimiterInterface purchaseRateLimiterInterface;
 
-    public TicketShop(IDServiceParallel idService) throws InterruptedException {
+    public TicketShop(IdAllocator idService) throws InterruptedException {
         this.customerServiceInterface = CustomerService.getInstance();
         this.eventServiceInterface = EventService.getInstance();
         this.ticketServiceInterface = TicketService.getInstance();
+        this.reservationServiceInterface = ReservationService.getInstance();
+        this.salesReportInterface = SalesReport.getInstance();
+        this.cancellationServiceInterface = CancellationService.getInstance();
+        this.purchaseLimitEngineInterface = PurchaseLimitEngine.getInstance();
+        this.purchaseRateLimiterInterface = PurchaseRateLimiter.getInstance();
+    }
+
+    // Same shop with the event, customer and ticket services swapped, e.g. for decorators that record calls.
+    public TicketShop(TicketShop base, EventServiceInterface eventService, CustomerServiceInterface customerService,
+                      TicketServiceInterface ticketService) {
+        this.customerServiceInterface = customerService;
+        this.eventServiceInterface = eventService;
+        this.ticketServiceInterface = ticketService;
+        this.reservationServiceInterface = base.reservationServiceInterface;
+        this.salesReportInterface = base.salesReportInterface;
+        this.cancellationServiceInterface = base.cancellationServiceInterface;
+        this.purchaseLimitEngineInterface = base.purchaseLimitEngineInterface;
+        this.purchaseRateLimiterInterface = base.purchaseRateLimiterInterface;
     }
 
     public CustomerServiceInterface getCustomerServiceInterface() {
@@ -30,4 +63,24 @@ public class TicketShop {
     public TicketServiceInterface getTicketServiceInterface() {
         return ticketServiceInterface;
     }
+
+    public ReservationServiceInterface getReservationServiceInterface() {
+        return reservationServiceInterface;
+    }
+
+    public SalesReportInterface getSalesReportInterface() {
+        return salesReportInterface;
+    }
+
+    public CancellationServiceInterface getCancellationServiceInterface() {
+        return cancellationServiceInterface;
+    }
+
+    public PurchaseLimitEngineInterface getPurchaseLimitEngineInterface() {
+        return purchaseLimitEngineInterface;
+    }
+
+    public PurchaseRateLimiterInterface getPurchaseRateLimiterInterface() {
+        return purchaseRateLimiterInterface;
+    }
 }
@@ -0,0 +1,105 @@
+package org.example.bulk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+class BinaryRecordReader extends RecordReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private byte[] scratch = new byte[256];
+
+    BinaryRecordReader(Path file, RecordSchema schema) throws IOException {
+        super(schema);
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer.flip();
+        if (!ensure(2 * Integer.BYTES) || buffer.getInt() != BinaryRecordWriter.MAGIC) {
+            channel.close();
+            throw new IOException("Not an EVA binary file: " + file);
+        }
+        int fields = buffer.getInt();
+        if (fields != schema.size()) {
+            channel.close();
+            throw new IOException("Expected " + schema.size() + " fields per record but file has " + fields);
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        if (!ensure(1)) {
+            return false;
+        }
+        if (buffer.get() != BinaryRecordWriter.RECORD) {
+            throw new IOException("Corrupt record marker");
+        }
+        for (int i = 0; i < schema.size(); i++) {
+            switch (schema.getType(i)) {
+                case LONG:
+                    require(Long.BYTES);
+                    longs[i] = buffer.getLong();
+                    break;
+                case INT:
+                    require(Integer.BYTES);
+                    longs[i] = buffer.getInt();
+                    break;
+                case STRING:
+                    strings[i] = readString();
+                    break;
+                case DATE_TIME:
+                    require(Long.BYTES + Integer.BYTES);
+                    dates[i] = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+                    break;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private String readString() throws IOException {
+        require(Integer.BYTES);
+        int length = buffer.getInt();
+        if (length < 0) {
+            throw new IOException("Corrupt string length " + length);
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        int offset = 0;
+        while (offset < length) {
+            require(1);
+            int chunk = Math.min(buffer.remaining(), length - offset);
+            buffer.get(scratch, offset, chunk);
+            offset += chunk;
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void require(int bytes) throws IOException {
+        if (!ensure(bytes)) {
+            throw new IOException("Truncated record");
+        }
+    }
+
+    private boolean ensure(int bytes) throws IOException {
+        while (buffer.remaining() < bytes) {
+            buffer.compact();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.bulk;
+
+import org.example.TicketShop;
+import org.example.customer.CustomerServiceInterface;
+import org.example.event.EventServiceInterface;
+import org.example.ticket.TicketServiceInterface;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Writes straight from the services' maps while iterating, so nothing is copied into an array first.
+public class BulkExporter {
+    private final EventServiceInterface eventService;
+    private final CustomerServiceInterface customerService;
+    private final TicketServiceInterface ticketService;
+
+    public BulkExporter(TicketShop ticketShop) {
+        this.eventService = ticketShop.getEventServiceInterface();
+        this.customerService = ticketShop.getCustomerServiceInterface();
+        this.ticketService = ticketShop.getTicketServiceInterface();
+    }
+
+    // Writes every event's remaining seats. Imported tickets are restored without taking seats again.
+    public long exportEvents(Path file, BulkFormat format) throws IOException {
+        AtomicLong written = new AtomicLong();
+        try (RecordWriter writer = format.openWriter(file, RecordSchema.EVENT)) {
+            eventService.forEach(event -> {
+                try {
+                    writer.writeLong(event.getId());
+                    writer.writeString(event.getName());
+                    writer.writeString(event.getLocation());
+                    writer.writeDateTime(event.getDate());
+                    writer.writeInt(event.getNmbTickets());
+                    writer.endRecord();
+                    written.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return written.get();
+    }
+
+    public long exportCustomers(Path file, BulkFormat format) throws IOException {
+        AtomicLong written = new AtomicLong();
+        try (RecordWriter writer = format.openWriter(file, RecordSchema.CUSTOMER)) {
+            customerService.forEach(customer -> {
+                try {
+                    writer.writeLong(customer.getId());
+                    writer.writeString(customer.getUsername());
+                    writer.writeString(customer.getEmail());
+                    writer.writeDateTime(customer.getBirthday());
+                    writer.endRecord();
+                    written.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return written.get();
+    }
+
+    public long exportTickets(Path file, BulkFormat format) throws IOException {
+        AtomicLong written = new AtomicLong();
+        try (RecordWriter writer = format.openWriter(file, RecordSchema.TICKET)) {
+            ticketService.forEach(ticket -> {
+                try {
+                    writer.writeLong(ticket.getId());
+                    writer.writeDateTime(ticket.getPurchaseDate());
+                    writer.writeLong(ticket.getCustomerId());
+                    writer.writeLong(ticket.getEventId());
+                    writer.endRecord();
+                    written.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return written.get();
+    }
+}
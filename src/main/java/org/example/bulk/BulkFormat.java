@@ -0,0 +1,17 @@
+package org.example.bulk;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public enum BulkFormat {
+    CSV,
+    BINARY;
+
+    public RecordReader openReader(Path file, RecordSchema schema) throws IOException {
+        return this == CSV ? new CsvRecordReader(file, schema) : new BinaryRecordReader(file, schema);
+    }
+
+    public RecordWriter openWriter(Path file, RecordSchema schema) throws IOException {
+        return this == CSV ? new CsvRecordWriter(file, schema) : new BinaryRecordWriter(file, schema);
+    }
+}
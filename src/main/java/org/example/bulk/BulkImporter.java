@@ -0,0 +1,260 @@
+package org.example.bulk;
+
+import org.example.TicketShop;
+import org.example.customer.Customer;
+import org.example.customer.CustomerData;
+import org.example.customer.CustomerServiceInterface;
+import org.example.event.Event;
+import org.example.event.EventData;
+import org.example.event.EventServiceInterface;
+import org.example.ticket.TicketServiceInterface;
+import org.example.utils.LongLongHashMap;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Streams records from a file and inserts them in parallel batches. At most maxBatchesInFlight
+// batches are parsed but not yet inserted, which bounds memory regardless of file size.
+// IDs in the file are mapped to the IDs assigned here, so tickets imported later by the same
+// importer point at the imported events and customers. Tickets whose customer or event wasn't
+// imported by this importer are skipped rather than attached to whatever has that ID here.
+public class BulkImporter implements AutoCloseable {
+    private static final int BATCH_SIZE = 10_000;
+    private static final long UNMAPPED = -1;
+
+    private final EventServiceInterface eventService;
+    private final CustomerServiceInterface customerService;
+    private final TicketServiceInterface ticketService;
+    private final ExecutorService workers;
+    private final Semaphore inFlight;
+    private final int maxBatchesInFlight;
+    private final LongLongHashMap eventIds = new LongLongHashMap(1024);
+    private final LongLongHashMap customerIds = new LongLongHashMap(1024);
+    // First unexpected failure of a batch, thrown to the caller once all batches are done.
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public BulkImporter(TicketShop ticketShop, int threads) {
+        this.eventService = ticketShop.getEventServiceInterface();
+        this.customerService = ticketShop.getCustomerServiceInterface();
+        this.ticketService = ticketShop.getTicketServiceInterface();
+        this.workers = Executors.newFixedThreadPool(threads);
+        this.maxBatchesInFlight = threads * 2;
+        this.inFlight = new Semaphore(maxBatchesInFlight);
+    }
+
+    public ImportResult importEvents(Path file, BulkFormat format) throws IOException, InterruptedException {
+        long startTime = System.currentTimeMillis();
+        AtomicLong imported = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        try (RecordReader reader = format.openReader(file, RecordSchema.EVENT)) {
+            long[] fileIds = new long[BATCH_SIZE];
+            List<EventData> rows = new ArrayList<>(BATCH_SIZE);
+            while (reader.next()) {
+                fileIds[rows.size()] = reader.getLong(0);
+                rows.add(new EventData(reader.getString(1), reader.getString(2), reader.getDateTime(3), reader.getInt(4)));
+                if (rows.size() == BATCH_SIZE) {
+                    submitEvents(fileIds, rows, imported, skipped);
+                    fileIds = new long[BATCH_SIZE];
+                    rows = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!rows.isEmpty()) {
+                submitEvents(fileIds, rows, imported, skipped);
+            }
+        } finally {
+            awaitBatches();
+        }
+        return new ImportResult(imported.get(), skipped.get(), System.currentTimeMillis() - startTime);
+    }
+
+    public ImportResult importCustomers(Path file, BulkFormat format) throws IOException, InterruptedException {
+        long startTime = System.currentTimeMillis();
+        AtomicLong imported = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        try (RecordReader reader = format.openReader(file, RecordSchema.CUSTOMER)) {
+            long[] fileIds = new long[BATCH_SIZE];
+            List<CustomerData> rows = new ArrayList<>(BATCH_SIZE);
+            while (reader.next()) {
+                fileIds[rows.size()] = reader.getLong(0);
+                rows.add(new CustomerData(reader.getString(1), reader.getString(2), reader.getDateTime(3)));
+                if (rows.size() == BATCH_SIZE) {
+                    submitCustomers(fileIds, rows, imported, skipped);
+                    fileIds = new long[BATCH_SIZE];
+                    rows = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!rows.isEmpty()) {
+                submitCustomers(fileIds, rows, imported, skipped);
+            }
+        } finally {
+            awaitBatches();
+        }
+        return new ImportResult(imported.get(), skipped.get(), System.currentTimeMillis() - startTime);
+    }
+
+    // Tickets are restored under their IDs rather than bought again, so neither the rate limiter nor the
+    // purchase date check applies and no seats are taken; the exported events already lack them. The
+    // per-event purchase limit still does. Tickets whose ID is in use here are skipped.
+    public ImportResult importTickets(Path file, BulkFormat format) throws IOException, InterruptedException {
+        long startTime = System.currentTimeMillis();
+        AtomicLong imported = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        try (RecordReader reader = format.openReader(file, RecordSchema.TICKET)) {
+            int size = 0;
+            long[] ids = new long[BATCH_SIZE];
+            LocalDateTime[] purchaseDates = new LocalDateTime[BATCH_SIZE];
+            long[] customers = new long[BATCH_SIZE];
+            long[] events = new long[BATCH_SIZE];
+            while (reader.next()) {
+                ids[size] = reader.getLong(0);
+                purchaseDates[size] = reader.getDateTime(1);
+                customers[size] = reader.getLong(2);
+                events[size] = reader.getLong(3);
+                if (++size == BATCH_SIZE) {
+                    submitTickets(ids, purchaseDates, customers, events, size, imported, skipped);
+                    size = 0;
+                    ids = new long[BATCH_SIZE];
+                    purchaseDates = new LocalDateTime[BATCH_SIZE];
+                    customers = new long[BATCH_SIZE];
+                    events = new long[BATCH_SIZE];
+                }
+            }
+            if (size > 0) {
+                submitTickets(ids, purchaseDates, customers, events, size, imported, skipped);
+            }
+        } finally {
+            awaitBatches();
+        }
+        return new ImportResult(imported.get(), skipped.get(), System.currentTimeMillis() - startTime);
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+
+    private void submitEvents(long[] fileIds, List<EventData> rows, AtomicLong imported, AtomicLong skipped)
+            throws InterruptedException {
+        submit(() -> {
+            Event[] added;
+            try {
+                added = eventService.addAll(rows);
+            } catch (IllegalArgumentException e) {
+                added = new Event[rows.size()];
+                for (int i = 0; i < rows.size(); i++) {
+                    EventData row = rows.get(i);
+                    if (!Event.isValid(row.getName(), row.getLocation(), row.getDate(), row.getNmbTickets())) {
+                        skipped.incrementAndGet();
+                        continue;
+                    }
+                    try {
+                        added[i] = eventService.add(row.getName(), row.getLocation(), row.getDate(), row.getNmbTickets());
+                    } catch (IllegalArgumentException rowError) {
+                        skipped.incrementAndGet();
+                    }
+                }
+            }
+            synchronized (eventIds) {
+                for (int i = 0; i < added.length; i++) {
+                    if (added[i] != null) {
+                        eventIds.put(fileIds[i], added[i].getId());
+                        imported.incrementAndGet();
+                    }
+                }
+            }
+        });
+    }
+
+    private void submitCustomers(long[] fileIds, List<CustomerData> rows, AtomicLong imported, AtomicLong skipped)
+            throws InterruptedException {
+        submit(() -> {
+            Customer[] added;
+            try {
+                added = customerService.addAll(rows);
+            } catch (IllegalArgumentException e) {
+                added = new Customer[rows.size()];
+                for (int i = 0; i < rows.size(); i++) {
+                    CustomerData row = rows.get(i);
+                    try {
+                        added[i] = customerService.add(row.getUsername(), row.getEmail(), row.getBirthday());
+                    } catch (RuntimeException rowError) {
+                        skipped.incrementAndGet();
+                    }
+                }
+            }
+            synchronized (customerIds) {
+                for (int i = 0; i < added.length; i++) {
+                    if (added[i] != null) {
+                        customerIds.put(fileIds[i], added[i].getId());
+                        imported.incrementAndGet();
+                    }
+                }
+            }
+        });
+    }
+
+    private void submitTickets(long[] ids, LocalDateTime[] purchaseDates, long[] customers, long[] events, int size,
+                               AtomicLong imported, AtomicLong skipped) throws InterruptedException {
+        submit(() -> {
+            synchronized (customerIds) {
+                for (int i = 0; i < size; i++) {
+                    customers[i] = customerIds.get(customers[i], UNMAPPED);
+                }
+            }
+            synchronized (eventIds) {
+                for (int i = 0; i < size; i++) {
+                    events[i] = eventIds.get(events[i], UNMAPPED);
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                if (customers[i] == UNMAPPED || events[i] == UNMAPPED) {
+                    skipped.incrementAndGet();
+                    continue;
+                }
+                try {
+                    ticketService.restore(ids[i], purchaseDates[i], customers[i], events[i]);
+                    imported.incrementAndGet();
+                } catch (RuntimeException e) {
+                    skipped.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    private void submit(Batch batch) throws InterruptedException {
+        inFlight.acquire();
+        workers.execute(() -> {
+            try {
+                batch.run();
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, e);
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void awaitBatches() throws InterruptedException {
+        inFlight.acquire(maxBatchesInFlight);
+        inFlight.release(maxBatchesInFlight);
+        Throwable failed = failure.getAndSet(null);
+        if (failed != null) {
+            throw new RuntimeException("Import batch failed: " + failed.getMessage(), failed);
+        }
+    }
+
+    private interface Batch {
+        void run() throws InterruptedException;
+    }
+}
@@ -0,0 +1,171 @@
+package org.example.bulk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+// Comma separated, one record per line, first line is the header. Fields containing commas,
+// quotes or line breaks are quoted and embedded quotes are doubled.
+class CsvRecordReader extends RecordReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final int[] fieldStart;
+    private final int[] fieldEnd;
+    private final boolean[] fieldQuoted;
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private long lineNumber;
+    private boolean endOfInput;
+
+    CsvRecordReader(Path file, RecordSchema schema) throws IOException {
+        super(schema);
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fieldStart = new int[schema.size()];
+        this.fieldEnd = new int[schema.size()];
+        this.fieldQuoted = new boolean[schema.size()];
+        buffer.flip();
+        readLine();
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        do {
+            if (!readLine()) {
+                return false;
+            }
+        } while (lineLength == 0);
+        split();
+        for (int i = 0; i < schema.size(); i++) {
+            try {
+                parse(i);
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid " + schema.getName(i) + " in line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void parse(int field) {
+        switch (schema.getType(field)) {
+            case LONG:
+            case INT:
+                longs[field] = Long.parseLong(text(field));
+                break;
+            case STRING:
+                strings[field] = text(field);
+                break;
+            case DATE_TIME:
+                dates[field] = LocalDateTime.parse(text(field));
+                break;
+        }
+    }
+
+    private String text(int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if (!fieldQuoted[field]) {
+            return new String(line, start, end - start, StandardCharsets.UTF_8);
+        }
+        byte[] unquoted = new byte[end - start];
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            unquoted[length++] = line[i];
+            if (line[i] == '"') {
+                i++;
+            }
+        }
+        return new String(unquoted, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void split() throws IOException {
+        int field = 0;
+        int i = 0;
+        while (true) {
+            if (field == schema.size()) {
+                throw new IOException("Too many fields in line " + lineNumber);
+            }
+            if (i < lineLength && line[i] == '"') {
+                int start = ++i;
+                while (i < lineLength && !(line[i] == '"' && (i + 1 == lineLength || line[i + 1] != '"'))) {
+                    i += line[i] == '"' ? 2 : 1;
+                }
+                fieldStart[field] = start;
+                fieldEnd[field] = i;
+                fieldQuoted[field] = true;
+                i++;
+            } else {
+                int start = i;
+                while (i < lineLength && line[i] != ',') {
+                    i++;
+                }
+                fieldStart[field] = start;
+                fieldEnd[field] = i;
+                fieldQuoted[field] = false;
+            }
+            field++;
+            if (i >= lineLength) {
+                break;
+            }
+            if (line[i] != ',') {
+                throw new IOException("Malformed quoted field in line " + lineNumber);
+            }
+            i++;
+        }
+        if (field != schema.size()) {
+            throw new IOException("Expected " + schema.size() + " fields in line " + lineNumber + " but got " + field);
+        }
+    }
+
+    // Reads up to the next line break outside of quotes. Returns false once the input is exhausted.
+    private boolean readLine() throws IOException {
+        lineLength = 0;
+        boolean quoted = false;
+        boolean readAny = false;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                if (endOfInput || !fill()) {
+                    lineNumber++;
+                    return readAny;
+                }
+            }
+            byte b = buffer.get();
+            readAny = true;
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (!quoted && b == '\n') {
+                if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                    lineLength--;
+                }
+                lineNumber++;
+                return true;
+            }
+            if (lineLength == line.length) {
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[lineLength++] = b;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read = channel.read(buffer);
+        buffer.flip();
+        if (read <= 0) {
+            endOfInput = true;
+            return false;
+        }
+        return true;
+    }
+}
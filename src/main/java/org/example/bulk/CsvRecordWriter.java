@@ -0,0 +1,108 @@
+package org.example.bulk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+class CsvRecordWriter extends RecordWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private boolean firstField = true;
+
+    CsvRecordWriter(Path file, RecordSchema schema) throws IOException {
+        super(schema);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        for (int i = 0; i < schema.size(); i++) {
+            writeString(schema.getName(i));
+        }
+        endRecord();
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException {
+        writeRaw(Long.toString(value));
+    }
+
+    @Override
+    public void writeInt(int value) throws IOException {
+        writeRaw(Integer.toString(value));
+    }
+
+    @Override
+    public void writeString(String value) throws IOException {
+        if (!needsQuotes(value)) {
+            writeRaw(value);
+            return;
+        }
+        writeRaw('"' + value.replace("\"", "\"\"") + '"');
+    }
+
+    @Override
+    public void writeDateTime(LocalDateTime value) throws IOException {
+        writeRaw(value.toString());
+    }
+
+    @Override
+    public void endRecord() throws IOException {
+        put((byte) '\n');
+        firstField = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeRaw(String value) throws IOException {
+        if (!firstField) {
+            put((byte) ',');
+        }
+        firstField = false;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void put(byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put(b);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.bulk;
+
+public enum FieldType {
+    LONG,
+    INT,
+    STRING,
+    DATE_TIME
+}
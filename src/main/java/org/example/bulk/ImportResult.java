@@ -0,0 +1,30 @@
+package org.example.bulk;
+
+public class ImportResult {
+    private final long imported;
+    private final long skipped;
+    private final long millis;
+
+    ImportResult(long imported, long skipped, long millis) {
+        this.imported = imported;
+        this.skipped = skipped;
+        this.millis = millis;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    @Override
+    public String toString() {
+        return "imported " + imported + ", skipped " + skipped + " in " + millis + "ms";
+    }
+}
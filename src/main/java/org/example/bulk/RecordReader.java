@@ -0,0 +1,38 @@
+package org.example.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+// Reads one record at a time into reusable per-field slots; values are only valid until the next call.
+public abstract class RecordReader implements Closeable {
+    protected final RecordSchema schema;
+    protected final long[] longs;
+    protected final String[] strings;
+    protected final LocalDateTime[] dates;
+
+    protected RecordReader(RecordSchema schema) {
+        this.schema = schema;
+        this.longs = new long[schema.size()];
+        this.strings = new String[schema.size()];
+        this.dates = new LocalDateTime[schema.size()];
+    }
+
+    public abstract boolean next() throws IOException;
+
+    public long getLong(int field) {
+        return longs[field];
+    }
+
+    public int getInt(int field) {
+        return (int) longs[field];
+    }
+
+    public String getString(int field) {
+        return strings[field];
+    }
+
+    public LocalDateTime getDateTime(int field) {
+        return dates[field];
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.bulk;
+
+// Column layout shared by the CSV header and the binary field order.
+public final class RecordSchema {
+    public static final RecordSchema EVENT = new RecordSchema(
+            new String[]{"id", "name", "location", "date", "nmbTickets"},
+            new FieldType[]{FieldType.LONG, FieldType.STRING, FieldType.STRING, FieldType.DATE_TIME, FieldType.INT});
+    public static final RecordSchema CUSTOMER = new RecordSchema(
+            new String[]{"id", "username", "email", "birthday"},
+            new FieldType[]{FieldType.LONG, FieldType.STRING, FieldType.STRING, FieldType.DATE_TIME});
+    public static final RecordSchema TICKET = new RecordSchema(
+            new String[]{"id", "purchaseDate", "customerId", "eventId"},
+            new FieldType[]{FieldType.LONG, FieldType.DATE_TIME, FieldType.LONG, FieldType.LONG});
+
+    private final String[] names;
+    private final FieldType[] types;
+
+    private RecordSchema(String[] names, FieldType[] types) {
+        this.names = names;
+        this.types = types;
+    }
+
+    public int size() {
+        return types.length;
+    }
+
+    public String getName(int field) {
+        return names[field];
+    }
+
+    public FieldType getType(int field) {
+        return types[field];
+    }
+}
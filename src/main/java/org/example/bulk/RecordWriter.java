@@ -0,0 +1,24 @@
+package org.example.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+// Fields are written in schema order and a record is completed with endRecord().
+public abstract class RecordWriter implements Closeable {
+    protected final RecordSchema schema;
+
+    protected RecordWriter(RecordSchema schema) {
+        this.schema = schema;
+    }
+
+    public abstract void writeLong(long value) throws IOException;
+
+    public abstract void writeInt(int value) throws IOException;
+
+    public abstract void writeString(String value) throws IOException;
+
+    public abstract void writeDateTime(LocalDateTime value) throws IOException;
+
+    public abstract void endRecord() throws IOException;
+}
@@ -2,17 +2,34 @@ package org.example.client;
 
 import org.example.TicketShop;
 import org.example.customer.Customer;
+import org.example.customer.CustomerData;
 import org.example.customer.CustomerServiceInterface;
 import org.example.event.Event;
+import org.example.event.EventData;
 import org.example.event.EventServiceInterface;
 import org.example.ticket.Ticket;
 import org.example.ticket.TicketServiceInterface;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
 
 public class CLIClient {
+    private static final int BATCH_SIZE = 1024;
+
     private final Scanner scanner;
     private final EventServiceInterface eventService;
     private final CustomerServiceInterface customerService;
@@ -235,17 +252,15 @@ public class CLIClient {
     }
 
     private void showEvents() {
-        Event[] events = eventService.getAll();
-        for (Event event : events) {
-            System.out.println(event);
-        }
+        StringBuilder output = new StringBuilder();
+        eventService.forEach(event -> output.append(event).append(System.lineSeparator()));
+        System.out.print(output);
     }
 
     private void showCustomers() {
-        Customer[] customers = customerService.getAll();
-        for (Customer customer : customers) {
-            System.out.println(customer);
-        }
+        StringBuilder output = new StringBuilder();
+        customerService.forEach(customer -> output.append(customer).append(System.lineSeparator()));
+        System.out.print(output);
     }
 
     private void newTicket() {
@@ -286,10 +301,281 @@ public class CLIClient {
     }
 
     private void getAllTickets() {
-        Ticket[] tickets = ticketService.getAll();
-        for (Ticket ticket : tickets) {
-            System.out.println(ticket);
+        StringBuilder output = new StringBuilder();
+        ticketService.forEach(ticket -> output.append(ticket).append(System.lineSeparator()));
+        System.out.print(output);
+    }
+
+    // Non-interactive mode: one command per line with its arguments inline, e.g. "nt <customer> <event>"
+    // or "n \"Summer Fest\" Berlin 2030-07-01 500". Lines are read and executed in batches, all output
+    // goes through one buffered writer and a timing summary per command follows at the end. Consecutive
+    // n and nc lines, and nt lines for the same customer and event, go to the services as one bulk call.
+    public void runBatch(Reader input, Writer output) throws IOException {
+        BufferedReader reader = new BufferedReader(input, 1 << 16);
+        BufferedWriter writer = new BufferedWriter(output, 1 << 16);
+        Map<String, long[]> timings = new TreeMap<>();
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        List<List<String>> commands = new ArrayList<>(BATCH_SIZE);
+        int[] lineNumbers = new int[BATCH_SIZE];
+        int lineNumber = 0;
+        long startTime = System.nanoTime();
+        boolean quit = false;
+        while (!quit) {
+            batch.clear();
+            String line;
+            while (batch.size() < BATCH_SIZE && (line = reader.readLine()) != null) {
+                batch.add(line);
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+            commands.clear();
+            for (String command : batch) {
+                lineNumber++;
+                List<String> args = tokenize(command);
+                if (args.isEmpty() || args.get(0).startsWith("#")) {
+                    continue;
+                }
+                String action = args.get(0).toLowerCase(Locale.ROOT);
+                if (action.equals("q") || action.equals("quit") || action.equals("exit")) {
+                    quit = true;
+                    break;
+                }
+                args.set(0, action);
+                lineNumbers[commands.size()] = lineNumber;
+                commands.add(args);
+            }
+            int end;
+            for (int start = 0; start < commands.size(); start = end) {
+                end = start + 1;
+                while (end < commands.size() && groupable(commands.get(start), commands.get(end))) {
+                    end++;
+                }
+                if (end - start > 1 && executeGroup(commands.subList(start, end), writer, timings)) {
+                    continue;
+                }
+                // Single lines, and groups with an invalid line, run one by one so each line reports its own outcome.
+                for (int i = start; i < end; i++) {
+                    executeLine(lineNumbers[i], commands.get(i), writer, timings);
+                }
+            }
+            writer.flush();
+        }
+        writer.write(String.format("%-6s %10s %12s %10s%n", "cmd", "count", "total ms", "avg us"));
+        for (Map.Entry<String, long[]> entry : timings.entrySet()) {
+            long[] timing = entry.getValue();
+            writer.write(String.format("%-6s %10d %12.1f %10.1f%n", entry.getKey(), timing[0],
+                    timing[1] / 1e6, timing[1] / 1e3 / timing[0]));
+        }
+        writer.write(lineNumber + " lines in " + (System.nanoTime() - startTime) / 1_000_000 + "ms");
+        writer.newLine();
+        writer.flush();
+    }
+
+    private static boolean groupable(List<String> first, List<String> next) {
+        String action = first.get(0);
+        if (!action.equals(next.get(0))) {
+            return false;
+        }
+        if (action.equals("n") || action.equals("nc")) {
+            return true;
+        }
+        return action.equals("nt") && first.size() >= 3 && next.size() >= 3
+                && first.get(1).equals(next.get(1)) && first.get(2).equals(next.get(2));
+    }
+
+    private void executeLine(int lineNumber, List<String> args, BufferedWriter writer, Map<String, long[]> timings)
+            throws IOException {
+        String action = args.get(0);
+        long commandStart = System.nanoTime();
+        try {
+            if (!execute(action, args, writer)) {
+                writer.write("line " + lineNumber + ": unknown command '" + action + "'");
+                writer.newLine();
+                return;
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException | DateTimeParseException e) {
+            writer.write("line " + lineNumber + ": invalid arguments for '" + action + "'");
+            writer.newLine();
+        } catch (Exception e) {
+            writer.write("line " + lineNumber + ": " + e.getClass().getSimpleName() + ": " + e.getMessage());
+            writer.newLine();
+        }
+        record(timings, action, 1, System.nanoTime() - commandStart);
+    }
+
+    // Runs the lines as one addAll call, or one multi-seat purchase for nt. The bulk calls apply all rows
+    // or none, and the output is only written once they succeeded, so a failed group can be run again
+    // line by line.
+    private boolean executeGroup(List<List<String>> group, BufferedWriter writer, Map<String, long[]> timings) {
+        String action = group.get(0).get(0);
+        long commandStart = System.nanoTime();
+        String[] created;
+        try {
+            switch (action) {
+                case "n": {
+                    List<EventData> rows = new ArrayList<>(group.size());
+                    for (List<String> args : group) {
+                        rows.add(new EventData(args.get(1), args.get(2), parseDate(args.get(3)),
+                                Integer.parseInt(args.get(4))));
+                    }
+                    created = ids("Event created with ID: ", eventService.addAll(rows), Event::getId);
+                    break;
+                }
+                case "nc": {
+                    List<CustomerData> rows = new ArrayList<>(group.size());
+                    for (List<String> args : group) {
+                        rows.add(new CustomerData(args.get(1), args.get(2), parseDate(args.get(3))));
+                    }
+                    created = ids("Customer created with ID: ", customerService.addAll(rows), Customer::getId);
+                    break;
+                }
+                default: {
+                    List<String> args = group.get(0);
+                    created = ids("Ticket created with ID: ", ticketService.addAll(LocalDateTime.now(),
+                            Long.parseLong(args.get(1)), Long.parseLong(args.get(2)), group.size()), Ticket::getId);
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RuntimeException e) {
+            return false;
+        }
+        for (String line : created) {
+            writeLine(writer, line);
+        }
+        record(timings, action, group.size(), System.nanoTime() - commandStart);
+        return true;
+    }
+
+    private static <T> String[] ids(String prefix, T[] added, ToLongFunction<T> id) {
+        String[] lines = new String[added.length];
+        for (int i = 0; i < added.length; i++) {
+            lines[i] = prefix + id.applyAsLong(added[i]);
+        }
+        return lines;
+    }
+
+    private static void record(Map<String, long[]> timings, String action, int count, long nanos) {
+        long[] timing = timings.computeIfAbsent(action, k -> new long[2]);
+        timing[0] += count;
+        timing[1] += nanos;
+    }
+
+    private boolean execute(String action, List<String> args, BufferedWriter writer) throws Exception {
+        switch (action) {
+            case "n":
+                writeLine(writer, "Event created with ID: " + eventService.add(args.get(1), args.get(2),
+                        parseDate(args.get(3)), Integer.parseInt(args.get(4))).getId());
+                break;
+            case "g":
+                writeLine(writer, eventService.get(Long.parseLong(args.get(1))));
+                break;
+            case "c":
+                eventService.update(Long.parseLong(args.get(1)), args.get(2), args.get(3), parseDate(args.get(4)),
+                        Integer.parseInt(args.get(5)));
+                break;
+            case "d":
+                eventService.delete(Long.parseLong(args.get(1)));
+                break;
+            case "a":
+                eventService.forEach(event -> writeLine(writer, event));
+                break;
+            case "da":
+                eventService.deleteAll();
+                break;
+            case "nc":
+                writeLine(writer, "Customer created with ID: " + customerService.add(args.get(1), args.get(2),
+                        parseDate(args.get(3))).getId());
+                break;
+            case "gc":
+                writeLine(writer, customerService.get(Long.parseLong(args.get(1))));
+                break;
+            case "cc":
+                customerService.update(Long.parseLong(args.get(1)), args.get(2), args.get(3), parseDate(args.get(4)));
+                break;
+            case "dc":
+                customerService.delete(Long.parseLong(args.get(1)));
+                break;
+            case "ac":
+                customerService.forEach(customer -> writeLine(writer, customer));
+                break;
+            case "dac":
+                customerService.deleteAll();
+                break;
+            case "nt":
+                writeLine(writer, "Ticket created with ID: " + ticketService.add(LocalDateTime.now(),
+                        Long.parseLong(args.get(1)), Long.parseLong(args.get(2))).getId());
+                break;
+            case "gt":
+                writeLine(writer, ticketService.get(Long.parseLong(args.get(1))));
+                break;
+            case "dt":
+                ticketService.delete(Long.parseLong(args.get(1)));
+                break;
+            case "gat":
+                ticketService.forEach(ticket -> writeLine(writer, ticket));
+                break;
+            case "dat":
+                ticketService.deleteAll();
+                break;
+            default:
+                return false;
+        }
+        return true;
+    }
+
+    private static void writeLine(BufferedWriter writer, Object value) {
+        try {
+            writer.write(String.valueOf(value));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Accepts 2030-07-01 as well as 2030-07-01T20:00.
+    private static LocalDateTime parseDate(String value) {
+        return value.indexOf('T') < 0 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+    }
+
+    // Splits on whitespace; double quotes group words and "" inside quotes is a literal quote.
+    private static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    token.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    token.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                inToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken) {
+            tokens.add(token.toString());
         }
+        return tokens;
     }
 
     public void start() {
@@ -0,0 +1,100 @@
+package org.example.client;
+
+import org.example.lease.LeaseCoordinator;
+import org.example.lease.LeaseCoordinatorServer;
+import org.example.lease.LeasedIdAllocator;
+import org.example.lease.LocalLeaseCoordinator;
+import org.example.lease.RemoteLeaseCoordinator;
+import org.example.utils.IDServiceParallel;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Runs several allocator "nodes" in one JVM against one coordinator, either in-process or over
+// loopback TCP, while the coordinator repeatedly goes down, and checks that no ID was handed out twice.
+public class ClusterSimulationClient {
+    private final LocalLeaseCoordinator coordinator = new LocalLeaseCoordinator(IDServiceParallel.LOWER_BOUND);
+
+    public void run(int nmbOfNodes, int threadsPerNode, int idsPerThread, int leaseSize, boolean overSocket,
+                    long outageMillis) throws IOException, InterruptedException {
+        LeaseCoordinatorServer server = overSocket
+                ? new LeaseCoordinatorServer(coordinator, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                : null;
+        LeasedIdAllocator[] nodes = new LeasedIdAllocator[nmbOfNodes];
+        for (int n = 0; n < nmbOfNodes; n++) {
+            LeaseCoordinator client = overSocket
+                    ? new RemoteLeaseCoordinator(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()), 1000)
+                    : coordinator;
+            nodes[n] = new LeasedIdAllocator(client, "node-" + n, leaseSize);
+        }
+
+        // Takes the coordinator down for outageMillis out of every 4 * outageMillis while the nodes allocate.
+        Thread chaos = new Thread(() -> {
+            try {
+                while (outageMillis > 0) {
+                    Thread.sleep(3 * outageMillis);
+                    coordinator.setAvailable(false);
+                    Thread.sleep(outageMillis);
+                    coordinator.setAvailable(true);
+                }
+            } catch (InterruptedException e) {
+                coordinator.setAvailable(true);
+            }
+        });
+        chaos.start();
+
+        long[][] issued = new long[nmbOfNodes * threadsPerNode][];
+        List<Thread> threads = new ArrayList<>();
+        long startTime = System.nanoTime();
+        for (int n = 0; n < nmbOfNodes; n++) {
+            for (int t = 0; t < threadsPerNode; t++) {
+                LeasedIdAllocator node = nodes[n];
+                int slot = n * threadsPerNode + t;
+                Thread thread = new Thread(() -> {
+                    long[] ids = new long[idsPerThread];
+                    try {
+                        for (int i = 0; i < idsPerThread; i++) {
+                            ids[i] = node.getNew();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    issued[slot] = ids;
+                });
+                threads.add(thread);
+                thread.start();
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - startTime;
+        chaos.interrupt();
+        chaos.join();
+
+        long[] all = Arrays.stream(issued).flatMapToLong(Arrays::stream).sorted().toArray();
+        int duplicates = 0;
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) {
+                duplicates++;
+            }
+        }
+        long leases = 0;
+        long failures = 0;
+        for (LeasedIdAllocator node : nodes) {
+            leases += node.getLeases();
+            failures += node.getFailures();
+            node.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+        System.out.println(all.length + " IDs from " + nmbOfNodes + " nodes " + (overSocket ? "over TCP" : "in-process")
+                + " in " + elapsed / 1_000_000 + "ms (" + all.length * 1_000_000_000L / Math.max(1, elapsed) + " IDs/s): "
+                + leases + " leases, " + failures + " failed lease attempts, " + duplicates + " duplicates");
+    }
+}
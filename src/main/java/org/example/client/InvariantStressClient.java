@@ -0,0 +1,353 @@
+package org.example.client;
+
+import org.example.TicketShop;
+import org.example.customer.Customer;
+import org.example.customer.CustomerServiceInterface;
+import org.example.event.Event;
+import org.example.event.EventServiceInterface;
+import org.example.ticket.CancellationServiceInterface;
+import org.example.ticket.PurchaseLimitEngineInterface;
+import org.example.ticket.Ticket;
+import org.example.ticket.TicketServiceInterface;
+import org.example.utils.IDServiceParallel;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Races a handful of actors against fresh state many times over and tallies the final states, in the
+// manner of jcstress: every scenario lists which states it observed and how often, and marks those
+// that break an invariant as FORBIDDEN. Covered are inventory conservation when buying the last
+// seats, refunds and event cancellations racing purchases, the per-event purchase limit, and the
+// uniqueness of IDs handed out by IDServiceParallel while its refill threads run.
+public class InvariantStressClient {
+    private static final String FORBIDDEN = "FORBIDDEN ";
+    private static final int MAX_ACTORS = 4;
+
+    private final EventServiceInterface eventService;
+    private final CustomerServiceInterface customerService;
+    private final TicketServiceInterface ticketService;
+    private final CancellationServiceInterface cancellationService;
+    private final PurchaseLimitEngineInterface purchaseLimits;
+    private final AtomicInteger names = new AtomicInteger();
+
+    public InvariantStressClient(TicketShop ticketShop) {
+        this.eventService = ticketShop.getEventServiceInterface();
+        this.customerService = ticketShop.getCustomerServiceInterface();
+        this.ticketService = ticketShop.getTicketServiceInterface();
+        this.cancellationService = ticketShop.getCancellationServiceInterface();
+        this.purchaseLimits = ticketShop.getPurchaseLimitEngineInterface();
+    }
+
+    // Returns whether no scenario ever reached a forbidden state.
+    public boolean run(int iterations) throws InterruptedException {
+        Scenario[] scenarios = {new LastSeats(), new RefundVsBuy(), new LimitRace(), new CancelVsBuy(), new IdPool()};
+        ExecutorService actors = Executors.newFixedThreadPool(MAX_ACTORS);
+        boolean passed = true;
+        try {
+            for (Scenario scenario : scenarios) {
+                Map<String, Integer> outcomes = new TreeMap<>();
+                long startTime = System.currentTimeMillis();
+                for (int i = 0; i < iterations; i++) {
+                    scenario.setup();
+                    race(actors, scenario.actors());
+                    outcomes.merge(scenario.arbiter(), 1, Integer::sum);
+                }
+                boolean ok = outcomes.keySet().stream().noneMatch(outcome -> outcome.startsWith(FORBIDDEN));
+                passed &= ok;
+                System.out.println((ok ? "[OK] " : "[FAILED] ") + scenario.getClass().getSimpleName() + ", " + iterations
+                        + " iterations in " + (System.currentTimeMillis() - startTime) + "ms");
+                for (Map.Entry<String, Integer> outcome : outcomes.entrySet()) {
+                    System.out.println(String.format("    %-60s %8d", outcome.getKey(), outcome.getValue()));
+                }
+            }
+        } finally {
+            actors.shutdown();
+            ticketService.deleteAll();
+            customerService.deleteAll();
+            eventService.deleteAll();
+        }
+        return passed;
+    }
+
+    // Releases all actors at once, so they overlap as much as the scheduler allows, and waits for them.
+    private static void race(ExecutorService executor, Actor[] actors) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(actors.length);
+        CountDownLatch done = new CountDownLatch(actors.length);
+        AtomicBoolean go = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (Actor actor : actors) {
+            executor.execute(() -> {
+                ready.countDown();
+                while (!go.get()) {
+                    Thread.yield();
+                }
+                try {
+                    actor.run();
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        ready.await();
+        go.set(true);
+        done.await();
+        if (failure.get() != null) {
+            throw new IllegalStateException("Actor failed", failure.get());
+        }
+    }
+
+    private Event event(int seats) throws InterruptedException {
+        return eventService.add("Stress " + names.incrementAndGet(), "Arena", LocalDateTime.now().plusDays(1), seats);
+    }
+
+    private Customer[] customers(int count) throws InterruptedException {
+        Customer[] customers = new Customer[count];
+        for (int i = 0; i < count; i++) {
+            int name = names.incrementAndGet();
+            customers[i] = customerService.add("stress" + name, "stress" + name + "@email.de", LocalDateTime.now().minusYears(30));
+        }
+        return customers;
+    }
+
+    private boolean buy(Customer customer, Event event) throws InterruptedException {
+        try {
+            ticketService.add(LocalDateTime.now(), customer.getId(), event.getId());
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private interface Actor {
+        void run() throws InterruptedException;
+    }
+
+    private abstract static class Scenario {
+        abstract void setup() throws InterruptedException;
+
+        abstract Actor[] actors();
+
+        // Describes the final state, prefixed with FORBIDDEN if it breaks an invariant.
+        abstract String arbiter();
+
+        static String check(boolean holds, String outcome) {
+            return holds ? outcome : FORBIDDEN + outcome;
+        }
+    }
+
+    // Four buyers, two seats: exactly two tickets are sold and none are left.
+    private class LastSeats extends Scenario {
+        private Event event;
+        private Customer[] customers;
+        private final AtomicInteger sold = new AtomicInteger();
+
+        @Override
+        void setup() throws InterruptedException {
+            event = event(2);
+            customers = customers(4);
+            sold.set(0);
+        }
+
+        @Override
+        Actor[] actors() {
+            Actor[] actors = new Actor[4];
+            for (int i = 0; i < actors.length; i++) {
+                Customer customer = customers[i];
+                actors[i] = () -> {
+                    if (buy(customer, event)) {
+                        sold.incrementAndGet();
+                    }
+                };
+            }
+            return actors;
+        }
+
+        @Override
+        String arbiter() {
+            int remaining = event.getNmbTickets();
+            return check(sold.get() == 2 && remaining == 0, "sold=" + sold.get() + " remaining=" + remaining);
+        }
+    }
+
+    // The only seat is refunded while two others try to buy it: at most one of them gets it and the
+    // seat is never counted twice.
+    private class RefundVsBuy extends Scenario {
+        private Event event;
+        private Customer[] customers;
+        private Ticket ticket;
+        private final AtomicInteger bought = new AtomicInteger();
+
+        @Override
+        void setup() throws InterruptedException {
+            event = event(1);
+            customers = customers(3);
+            ticket = ticketService.add(LocalDateTime.now(), customers[0].getId(), event.getId());
+            bought.set(0);
+        }
+
+        @Override
+        Actor[] actors() {
+            return new Actor[]{
+                    () -> ticketService.delete(ticket.getId()),
+                    () -> {
+                        if (buy(customers[1], event)) {
+                            bought.incrementAndGet();
+                        }
+                    },
+                    () -> {
+                        if (buy(customers[2], event)) {
+                            bought.incrementAndGet();
+                        }
+                    }};
+        }
+
+        @Override
+        String arbiter() {
+            int remaining = event.getNmbTickets();
+            return check(bought.get() + remaining == 1, "bought=" + bought.get() + " remaining=" + remaining);
+        }
+    }
+
+    // One customer buys on four threads against a limit of two.
+    private class LimitRace extends Scenario {
+        private Event event;
+        private Customer customer;
+        private final AtomicInteger sold = new AtomicInteger();
+
+        @Override
+        void setup() throws InterruptedException {
+            if (event != null) {
+                purchaseLimits.resetLimit(event.getId());
+            }
+            event = event(10);
+            purchaseLimits.setLimit(event.getId(), 2);
+            customer = customers(1)[0];
+            sold.set(0);
+        }
+
+        @Override
+        Actor[] actors() {
+            Actor[] actors = new Actor[4];
+            for (int i = 0; i < actors.length; i++) {
+                actors[i] = () -> {
+                    if (buy(customer, event)) {
+                        sold.incrementAndGet();
+                    }
+                };
+            }
+            return actors;
+        }
+
+        @Override
+        String arbiter() {
+            int remaining = event.getNmbTickets();
+            int count = purchaseLimits.getCount(customer.getId(), event.getId());
+            return check(sold.get() == 2 && count == 2 && remaining == 8,
+                    "sold=" + sold.get() + " count=" + count + " remaining=" + remaining);
+        }
+    }
+
+    // An event with two of three seats sold is cancelled while someone buys the last one. Whatever
+    // the interleaving, every seat is either in a live ticket or back in the inventory.
+    private class CancelVsBuy extends Scenario {
+        private Event event;
+        private Customer[] customers;
+        private final AtomicInteger cancelled = new AtomicInteger();
+        private final AtomicBoolean bought = new AtomicBoolean();
+
+        @Override
+        void setup() throws InterruptedException {
+            event = event(3);
+            customers = customers(2);
+            for (int i = 0; i < 2; i++) {
+                ticketService.add(LocalDateTime.now(), customers[0].getId(), event.getId());
+            }
+            cancelled.set(0);
+            bought.set(false);
+        }
+
+        @Override
+        Actor[] actors() {
+            return new Actor[]{
+                    () -> cancelled.set(cancellationService.cancelEvent(event.getId())),
+                    () -> bought.set(buy(customers[1], event))};
+        }
+
+        @Override
+        String arbiter() {
+            int remaining = event.getNmbTickets();
+            int live = 2 + (bought.get() ? 1 : 0) - cancelled.get();
+            int held = purchaseLimits.getCount(customers[0].getId(), event.getId())
+                    + purchaseLimits.getCount(customers[1].getId(), event.getId());
+            return check(live + remaining == 3 && held == live && cancelled.get() >= 2,
+                    "cancelled=" + cancelled.get() + " bought=" + bought.get() + " remaining=" + remaining);
+        }
+    }
+
+    // Four threads take and give back IDs from a pool small enough that refills run all the time;
+    // no ID may be live twice and the pool's count must match. The pool is shared by all iterations,
+    // so the arbiter hands everything back afterwards.
+    private static class IdPool extends Scenario {
+        private IDServiceParallel pool;
+        private final List<List<Long>> live = new ArrayList<>();
+
+        @Override
+        void setup() throws InterruptedException {
+            if (pool == null) {
+                pool = new IDServiceParallel(8, 0);
+            }
+            live.clear();
+            for (int i = 0; i < 4; i++) {
+                live.add(new ArrayList<>());
+            }
+        }
+
+        @Override
+        Actor[] actors() {
+            Actor[] actors = new Actor[4];
+            for (int a = 0; a < actors.length; a++) {
+                List<Long> mine = live.get(a);
+                boolean batches = a % 2 == 0;
+                actors[a] = () -> {
+                    for (int round = 0; round < 10; round++) {
+                        if (batches) {
+                            for (long id : pool.getNew(4)) {
+                                mine.add(id);
+                            }
+                        } else {
+                            for (int i = 0; i < 4; i++) {
+                                mine.add(pool.getNew());
+                            }
+                        }
+                        pool.delete(mine.remove(mine.size() - 1));
+                    }
+                };
+            }
+            return actors;
+        }
+
+        @Override
+        String arbiter() {
+            long distinct = live.stream().flatMap(List::stream).distinct().count();
+            long total = live.stream().mapToLong(List::size).sum();
+            int active = pool.activeCount();
+            for (List<Long> ids : live) {
+                for (long id : ids) {
+                    pool.delete(id);
+                }
+            }
+            return check(distinct == total && active == total, "live=" + total + " distinct=" + distinct + " active=" + active);
+        }
+    }
+}
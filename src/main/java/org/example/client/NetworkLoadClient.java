@@ -0,0 +1,96 @@
+package org.example.client;
+
+import org.example.server.Protocol;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Drives a TicketShopServer over loopback with several connections, each keeping
+// pipelineDepth EVENT_GET requests in flight, and reports throughput and tail latency.
+public class NetworkLoadClient {
+    private final InetSocketAddress address;
+
+    public NetworkLoadClient(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    public void run(int nmbOfConnections, int pipelineDepth, int requestsPerConnection, long eventId) throws Exception {
+        long[][] latencies = new long[nmbOfConnections][];
+        List<Thread> threads = new ArrayList<>();
+        Exception[] failure = new Exception[1];
+        long startTime = System.nanoTime();
+        for (int c = 0; c < nmbOfConnections; c++) {
+            int connection = c;
+            Thread thread = new Thread(() -> {
+                try {
+                    latencies[connection] = drive(pipelineDepth, requestsPerConnection, eventId);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        long took = System.nanoTime() - startTime;
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.println(all.length + " requests over " + nmbOfConnections + " connections with pipeline depth "
+                + pipelineDepth + ": " + (all.length * 1_000_000_000L / Math.max(1, took)) + " req/s"
+                + ", p50 " + all[all.length / 2] / 1000 + "us"
+                + ", p99 " + all[(int) (all.length * 0.99)] / 1000 + "us"
+                + ", p99.9 " + all[(int) (all.length * 0.999)] / 1000 + "us");
+    }
+
+    private long[] drive(int pipelineDepth, int requests, long eventId) throws IOException {
+        long[] sentAt = new long[requests];
+        long[] latencies = new long[requests];
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            channel.socket().setTcpNoDelay(true);
+            ByteBuffer out = ByteBuffer.allocateDirect(pipelineDepth * (Protocol.HEADER_BYTES + Long.BYTES));
+            ByteBuffer in = ByteBuffer.allocateDirect(1 << 16);
+            int sent = 0;
+            int received = 0;
+            while (received < requests) {
+                out.clear();
+                while (sent < requests && sent - received < pipelineDepth) {
+                    out.putInt(Protocol.HEADER_BYTES - Integer.BYTES + Long.BYTES);
+                    out.putLong(sent);
+                    out.put(Protocol.EVENT_GET);
+                    out.putLong(eventId);
+                    sentAt[sent++] = System.nanoTime();
+                }
+                out.flip();
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+                if (channel.read(in) < 0) {
+                    throw new IOException("Server closed the connection");
+                }
+                in.flip();
+                while (in.remaining() >= Integer.BYTES && in.remaining() >= Integer.BYTES + in.getInt(in.position())) {
+                    int length = in.getInt();
+                    int frameEnd = in.position() + length;
+                    int requestId = (int) in.getLong();
+                    if (in.get() != Protocol.OK) {
+                        throw new IOException("Request " + requestId + " failed");
+                    }
+                    latencies[requestId] = System.nanoTime() - sentAt[requestId];
+                    received++;
+                    in.position(frameEnd);
+                }
+                in.compact();
+            }
+        }
+        return latencies;
+    }
+}
@@ -1,20 +1,58 @@
 package org.example.client;
 
 import org.example.TicketShop;
+import org.example.bulk.BulkExporter;
+import org.example.bulk.BulkFormat;
+import org.example.bulk.BulkImporter;
 import org.example.customer.Customer;
+import org.example.customer.CustomerData;
 import org.example.customer.CustomerServiceInterface;
 import org.example.event.Event;
+import org.example.event.EventData;
 import org.example.event.EventServiceInterface;
+import org.example.event.EventSnapshot;
+import org.example.feed.ChangeFeed;
+import org.example.feed.ChangeLogFile;
+import org.example.feed.ChangeType;
+import org.example.feed.OverflowPolicy;
+import org.example.feed.Subscription;
+import org.example.ticket.PurchaseLimitEngine;
+import org.example.ticket.PurchaseLimitEngineInterface;
+import org.example.ticket.PurchaseRateLimiter;
+import org.example.ticket.PurchaseRateLimiterInterface;
+import org.example.ticket.QueuedBuyer;
+import org.example.ticket.ThrottledCustomer;
+import org.example.ticket.ThrottledException;
+import org.example.ticket.Ticket;
 import org.example.ticket.TicketServiceInterface;
+import org.example.ticket.WaitingRoom;
+import org.example.utils.IDServiceParallel;
+import org.example.utils.IdAllocator;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 public class PerformanceClient {
+    private final TicketShop ticketShop;
     private final EventServiceInterface eventService;
     private final CustomerServiceInterface customerService;
     private final TicketServiceInterface ticketService;
 
     public PerformanceClient(TicketShop ticketShop) {
+        this.ticketShop = ticketShop;
         this.eventService = ticketShop.getEventServiceInterface();
         this.customerService = ticketShop.getCustomerServiceInterface();
         this.ticketService = ticketShop.getTicketServiceInterface();
@@ -36,6 +74,17 @@ public class PerformanceClient {
         System.out.println("Creating " + nmbOfCustomers + " Customers took " + (System.currentTimeMillis() - startTime) + "ms");
     }
 
+    public void bulkCreateCustomers(int nmbOfCustomers) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        LocalDateTime birthday = LocalDateTime.now().minusYears(18);
+        List<CustomerData> rows = new ArrayList<>(nmbOfCustomers);
+        for (int i = 0; i < nmbOfCustomers; i++) {
+            rows.add(new CustomerData("BulkCustomer" + i, "bulkcustomer" + i + "@email.de", birthday));
+        }
+        customerService.addAll(rows);
+        System.out.println("Bulk creating " + nmbOfCustomers + " Customers took " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+
     public void buyTickets(int amount) throws InterruptedException {
         long startTime = System.currentTimeMillis();
         for (Customer customer: customerService.getAll()) {
@@ -50,4 +99,512 @@ public class PerformanceClient {
         }
         System.out.println("Buying " + amount + " ticket for every customer for every event took " + (System.currentTimeMillis() - startTime) + "ms");
     }
+
+    public void burstThroughWaitingRoom(int nmbOfBuyers, double admitsPerSecond) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        Event event = eventService.add("Burst", "Uni", LocalDateTime.now().plusDays(1), nmbOfBuyers / 2);
+        Customer[] customers = customerService.getAll();
+        if (customers.length == 0) {
+            customers = TestCustomers.add(customerService, "Burst", nmbOfBuyers);
+        }
+        WaitingRoom waitingRoom = new WaitingRoom(ticketService, eventService, admitsPerSecond, 10, nmbOfBuyers, 4);
+        long[] latencies = new long[nmbOfBuyers];
+        List<CompletableFuture<?>> results = new ArrayList<>();
+        int shed = 0;
+        for (int i = 0; i < nmbOfBuyers; i++) {
+            int index = i;
+            try {
+                QueuedBuyer buyer = waitingRoom.enter(customers[i % customers.length].getId(), event.getId());
+                results.add(buyer.getResult().handle((ticket, e) -> {
+                    if (e == null) {
+                        latencies[index] = System.nanoTime() - buyer.getAdmittedAtNanos();
+                    }
+                    return null;
+                }));
+            } catch (RuntimeException e) {
+                shed++;
+            }
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+        waitingRoom.close();
+        long[] admitted = Arrays.stream(latencies).filter(latency -> latency > 0).sorted().toArray();
+        System.out.println("Burst of " + nmbOfBuyers + " buyers: sold " + admitted.length + ", shed at the door " + shed
+                + ", admitted latency p50 " + percentile(admitted, 0.50) / 1000 + "us"
+                + ", p99 " + percentile(admitted, 0.99) / 1000 + "us"
+                + ", took " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    // 95% snapshot reads, 5% versioned updates. Name and location always carry the same counter,
+    // so a reader that sees them disagree has observed a half-applied update.
+    public void readWriteMix(int nmbOfThreads, int operationsPerThread) throws InterruptedException {
+        Event[] events = eventService.getAll();
+        for (Event event : events) {
+            eventService.update(event.getId(), "Event-0", "Venue-0", event.getDate(), event.getNmbTickets());
+        }
+        AtomicLong reads = new AtomicLong();
+        AtomicLong writes = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        AtomicLong torn = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        long startTime = System.currentTimeMillis();
+        for (int t = 0; t < nmbOfThreads; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < operationsPerThread; i++) {
+                    Event event = events[random.nextInt(events.length)];
+                    EventSnapshot snapshot = eventService.getSnapshot(event.getId());
+                    if (random.nextInt(100) < 95) {
+                        if (!snapshot.getName().substring(6).equals(snapshot.getLocation().substring(6))) {
+                            torn.incrementAndGet();
+                        }
+                        reads.incrementAndGet();
+                        continue;
+                    }
+                    long next = snapshot.getVersion() + 1;
+                    if (eventService.compareAndUpdate(event.getId(), snapshot.getVersion(), "Event-" + next,
+                            "Venue-" + next, snapshot.getDate(), event.getNmbTickets())) {
+                        writes.incrementAndGet();
+                    } else {
+                        conflicts.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long took = Math.max(1, System.currentTimeMillis() - startTime);
+        System.out.println("95/5 read/write mix on " + nmbOfThreads + " threads: " + reads + " reads, " + writes
+                + " writes, " + conflicts + " version conflicts, " + torn + " torn reads, "
+                + ((reads.get() + writes.get() + conflicts.get()) * 1000 / took) + " ops/s");
+    }
+
+    // Exports everything in both formats, then imports the events and customers back as new entities.
+    public void bulkRoundTrip(Path directory) throws IOException, InterruptedException {
+        BulkExporter exporter = new BulkExporter(ticketShop);
+        try (BulkImporter importer = new BulkImporter(ticketShop, Runtime.getRuntime().availableProcessors())) {
+            for (BulkFormat format : BulkFormat.values()) {
+                String suffix = "." + format.name().toLowerCase();
+                long startTime = System.currentTimeMillis();
+                long rows = exporter.exportEvents(directory.resolve("events" + suffix), format)
+                        + exporter.exportCustomers(directory.resolve("customers" + suffix), format)
+                        + exporter.exportTickets(directory.resolve("tickets" + suffix), format);
+                System.out.println("Exporting " + rows + " rows as " + format + " took " + (System.currentTimeMillis() - startTime) + "ms");
+                System.out.println("Importing events from " + format + ": " + importer.importEvents(directory.resolve("events" + suffix), format));
+                System.out.println("Importing customers from " + format + ": " + importer.importCustomers(directory.resolve("customers" + suffix), format));
+            }
+        }
+    }
+
+    // Buys tickets while a lossless file sink and a deliberately slow dropping subscriber follow the
+    // change feed, then replays the log and checks that it saw every sale.
+    public void changeFeedFanOut(Path logFile, int nmbOfThreads, int ticketsPerThread) throws IOException, InterruptedException {
+        ChangeFeed feed = ChangeFeed.getInstance();
+        Event event = eventService.add("Feed", "Uni", LocalDateTime.now().plusDays(1), nmbOfThreads * ticketsPerThread);
+        int ticketsPerCustomer = 5;
+        Customer[] customers = TestCustomers.add(customerService, "Feed", nmbOfThreads * ticketsPerThread / ticketsPerCustomer + 1);
+        Files.deleteIfExists(logFile);
+        ChangeLogFile sink = new ChangeLogFile(logFile);
+        Subscription lossless = feed.subscribe(OverflowPolicy.BLOCK);
+        Subscription slow = feed.subscribe(OverflowPolicy.DROP);
+        AtomicLong seenBySlow = new AtomicLong();
+        lossless.start(sink, "feed-file-sink");
+        slow.start(record -> {
+            seenBySlow.incrementAndGet();
+            LockSupport.parkNanos(200_000);
+        }, "feed-slow-subscriber");
+
+        List<Thread> threads = new ArrayList<>();
+        long startTime = System.currentTimeMillis();
+        for (int t = 0; t < nmbOfThreads; t++) {
+            int offset = t * ticketsPerThread;
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < ticketsPerThread; i++) {
+                        Customer customer = customers[(offset + i) / ticketsPerCustomer];
+                        ticketService.add(LocalDateTime.now(), customer.getId(), event.getId());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long took = System.currentTimeMillis() - startTime;
+        lossless.close();
+        slow.close();
+        sink.close();
+
+        long[] sold = new long[1];
+        long replayed = ChangeLogFile.replay(logFile, 0, record -> {
+            if (record.getType() == ChangeType.TICKET_SOLD && record.getEventId() == event.getId()) {
+                sold[0]++;
+            }
+        });
+        System.out.println("Selling " + nmbOfThreads * ticketsPerThread + " tickets on " + nmbOfThreads
+                + " threads with the change feed attached took " + took + "ms; log replayed " + replayed
+                + " changes with " + sold[0] + " sales, slow subscriber saw " + seenBySlow + " and dropped "
+                + slow.getDropped());
+    }
+
+    // Compares the date index against scanning getAll() for "next 10 events" and "events next week".
+    public void upcomingEventQueries(int nmbOfEvents, int nmbOfQueries) throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        List<EventData> rows = new ArrayList<>(nmbOfEvents);
+        for (int i = 0; i < nmbOfEvents; i++) {
+            rows.add(new EventData("Dated" + i, "Uni", now.plusMinutes(1 + ThreadLocalRandom.current().nextInt(525_600)), 100));
+        }
+        eventService.addAll(rows);
+        long found = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < nmbOfQueries; i++) {
+            found += eventService.getUpcoming(10).length;
+            found += eventService.getBetween(now.plusDays(7), now.plusDays(14)).length;
+        }
+        long indexed = System.nanoTime() - startTime;
+        startTime = System.nanoTime();
+        for (int i = 0; i < nmbOfQueries; i++) {
+            LocalDateTime from = LocalDateTime.now();
+            found -= Arrays.stream(eventService.getAll()).filter(event -> !event.getDate().isBefore(from))
+                    .sorted(Comparator.comparing(Event::getDate)).limit(10).count();
+            LocalDateTime weekFrom = now.plusDays(7);
+            LocalDateTime weekTo = now.plusDays(14);
+            found -= Arrays.stream(eventService.getAll())
+                    .filter(event -> !event.getDate().isBefore(weekFrom) && event.getDate().isBefore(weekTo)).count();
+        }
+        long scanned = System.nanoTime() - startTime;
+        System.out.println(nmbOfQueries + " upcoming/next-week query pairs over " + eventService.getAll().length
+                + " events: index " + indexed / 1000 / nmbOfQueries + "us, full scan " + scanned / 1000 / nmbOfQueries
+                + "us per pair" + (found == 0 ? "" : ", results differ by " + found));
+    }
+
+    // Loads events with generated names and venues, then times typeahead queries of one or two
+    // partially typed words against the search index.
+    public void typeaheadSearch(int nmbOfEvents, int nmbOfQueries) throws InterruptedException {
+        String[] words = {"summer", "winter", "jazz", "rock", "opera", "festival", "night", "open", "air", "classic",
+                "techno", "comedy", "theatre", "gala", "concert", "derby", "final", "cup", "tour", "live"};
+        String[] venues = {"Berlin Arena", "Hamburg Hall", "Munich Dome", "Cologne Stage", "Leipzig Park",
+                "Dresden Garden", "Bremen Club", "Hanover Expo"};
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime date = LocalDateTime.now().plusYears(1);
+        long startTime = System.currentTimeMillis();
+        List<EventData> rows = new ArrayList<>(nmbOfEvents);
+        for (int i = 0; i < nmbOfEvents; i++) {
+            String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + i;
+            rows.add(new EventData(name, venues[random.nextInt(venues.length)], date, 100));
+        }
+        eventService.addAll(rows);
+        System.out.println("Indexing " + nmbOfEvents + " events took " + (System.currentTimeMillis() - startTime) + "ms");
+
+        // The first pass only warms up the JIT, the second one is measured.
+        long[] latencies = new long[nmbOfQueries];
+        long results = 0;
+        for (int i = 0; i < 2 * nmbOfQueries; i++) {
+            if (i == nmbOfQueries) {
+                results = 0;
+            }
+            String word = words[random.nextInt(words.length)];
+            String query = word.substring(0, 1 + random.nextInt(word.length()));
+            if (random.nextBoolean()) {
+                String venue = venues[random.nextInt(venues.length)];
+                query = query + " " + venue.substring(0, 1 + random.nextInt(3));
+            }
+            long queryStart = System.nanoTime();
+            results += eventService.search(query, 10).length;
+            latencies[i % nmbOfQueries] = System.nanoTime() - queryStart;
+        }
+        Arrays.sort(latencies);
+        System.out.println(nmbOfQueries + " typeahead queries over " + nmbOfEvents + " events returned " + results
+                + " results: p50 " + percentile(latencies, 0.5) / 1000 + "us, p99 " + percentile(latencies, 0.99) / 1000
+                + "us, p99.9 " + percentile(latencies, 0.999) / 1000 + "us");
+    }
+
+    // Keeps liveIds allocated and replaces them round-robin, so every ID goes through delete, quarantine
+    // and reuse. The footprint should stay flat however many cycles run.
+    public void idRecycling(int liveIds, int cycles, long quarantineMillis) throws InterruptedException {
+        if (liveIds <= 0) {
+            throw new IllegalArgumentException("At least one live ID is needed");
+        }
+        IDServiceParallel idService = new IDServiceParallel(liveIds, quarantineMillis);
+        long[] live = idService.getNew(liveIds);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < cycles; i++) {
+            int slot = i % liveIds;
+            idService.delete(live[slot]);
+            live[slot] = idService.getNew();
+            if ((i + 1) % Math.max(1, cycles / 4) == 0) {
+                System.out.println("After " + (i + 1) + " cycles: " + idService.activeCount() + " active, "
+                        + idService.quarantinedCount() + " quarantined, " + idService.recycledCount() + " recycled, "
+                        + idService.footprintBytes() / 1024 + " KiB");
+            }
+        }
+        long elapsed = System.nanoTime() - startTime;
+        System.out.println(cycles + " delete/getNew cycles took " + elapsed / 1_000_000 + "ms ("
+                + elapsed / Math.max(1, cycles) + "ns per cycle)");
+    }
+
+    // Startup is the constructor cost, the prime pool pre-generates the same 10000 IDs the services ask for.
+    public void compareIdAllocators(int nmbOfThreads, int idsPerThread) throws InterruptedException {
+        for (String strategy : new String[]{"prime", "snowflake", "block"}) {
+            long startTime = System.nanoTime();
+            IdAllocator allocator = IdAllocator.create(strategy, 10000);
+            long startup = System.nanoTime() - startTime;
+            List<Thread> threads = new ArrayList<>();
+            startTime = System.nanoTime();
+            for (int t = 0; t < nmbOfThreads; t++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < idsPerThread; i++) {
+                            allocator.getNew();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long elapsed = System.nanoTime() - startTime;
+            long total = (long) nmbOfThreads * idsPerThread;
+            System.out.println(strategy + ": startup " + startup / 1_000_000 + "ms, " + total + " IDs on " + nmbOfThreads
+                    + " threads in " + elapsed / 1_000_000 + "ms (" + total * 1_000_000_000L / Math.max(1, elapsed)
+                    + " IDs/s), " + allocator.activeCount() + " active");
+        }
+    }
+
+    // On-sales of idsPerBurst IDs spread over burstMillis, nmbOfBursts times with pauseMillis in between,
+    // against the fixed refills and the adaptive ones, followed by a long quiet spell. Every stall is a
+    // caller that found the pool empty and had to wait for primes.
+    public void idBursts(int nmbOfBursts, int idsPerBurst, long burstMillis, long pauseMillis) throws InterruptedException {
+        for (double headroomSeconds : new double[]{0, IDServiceParallel.DEFAULT_HEADROOM_SECONDS}) {
+            long startTime = System.nanoTime();
+            IDServiceParallel idService = new IDServiceParallel(idsPerBurst, IDServiceParallel.DEFAULT_QUARANTINE_MILLIS,
+                    headroomSeconds);
+            long startup = System.nanoTime() - startTime;
+            String mode = headroomSeconds == 0 ? "fixed" : "adaptive (" + headroomSeconds + "s headroom)";
+            System.out.println(mode + ": startup " + startup / 1_000_000 + "ms");
+            idService.getNew();
+            Thread.sleep(pauseMillis);
+            long perMilli = Math.max(1, idsPerBurst / Math.max(1, burstMillis));
+            for (int burst = 1; burst <= nmbOfBursts; burst++) {
+                long stalls = idService.stallCount();
+                long stallNanos = idService.stallNanos();
+                long maxLatency = 0;
+                startTime = System.nanoTime();
+                for (int i = 0; i < idsPerBurst; i++) {
+                    long start = System.nanoTime();
+                    idService.getNew();
+                    maxLatency = Math.max(maxLatency, System.nanoTime() - start);
+                    if ((i + 1) % perMilli == 0) {
+                        long due = startTime + (i + 1) / perMilli * 1_000_000;
+                        long wait = due - System.nanoTime();
+                        if (wait > 0) {
+                            Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                        }
+                    }
+                }
+                long elapsed = System.nanoTime() - startTime;
+                System.out.println(String.format("  burst %d: %d IDs in %dms, %d stalls (%dms), max latency %.2fms;"
+                                + " rate %.0f/s, primes %.0f/s, low water %d, refill %d, %d in stock",
+                        burst, idsPerBurst, elapsed / 1_000_000, idService.stallCount() - stalls,
+                        (idService.stallNanos() - stallNanos) / 1_000_000, maxLatency / 1e6, idService.allocationRate(),
+                        idService.generationRate(), idService.lowWaterMark(), idService.refillBatch(),
+                        idService.freshCount() + idService.recycledCount()));
+                Thread.sleep(pauseMillis);
+            }
+            Thread.sleep(10 * pauseMillis);
+            idService.getNew();
+            System.out.println(String.format("  next call after %dms idle: rate %.0f/s, low water %d, refill %d;"
+                            + " %d refills in total", 11 * pauseMillis, idService.allocationRate(), idService.lowWaterMark(),
+                    idService.refillBatch(), idService.refillCount()));
+        }
+    }
+
+    // Sells out an event with nmbOfTickets seats, five tickets per customer, then calls it off.
+    public void cancelEvent(int nmbOfTickets) throws InterruptedException {
+        Event event = eventService.add("Cancelled", "Arena", LocalDateTime.now().plusMonths(1), nmbOfTickets);
+        Customer[] customers = TestCustomers.add(customerService, "Cancel", (nmbOfTickets + 4) / 5);
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < nmbOfTickets; i++) {
+            ticketService.add(LocalDateTime.now(), customers[i / 5].getId(), event.getId());
+        }
+        System.out.println("Selling " + nmbOfTickets + " tickets took " + (System.currentTimeMillis() - startTime) + "ms");
+
+        long start = System.nanoTime();
+        int cancelled = ticketShop.getCancellationServiceInterface().cancelEvent(event.getId());
+        long elapsed = System.nanoTime() - start;
+        int stillLinked = 0;
+        for (Customer customer : customers) {
+            if (ticketShop.getPurchaseLimitEngineInterface().getCount(customer.getId(), event.getId()) > 0) {
+                stillLinked++;
+            }
+        }
+        System.out.println("Cancelling " + cancelled + " tickets took " + elapsed / 1_000_000 + "ms ("
+                + cancelled * 1_000_000_000L / Math.max(1, elapsed) + " tickets/s): " + event.getNmbTickets() + "/"
+                + nmbOfTickets + " seats back, " + stillLinked + " customers still linked");
+    }
+
+    // Races nmbOfThreads buyers of one customer against a lowered per-event limit, then has
+    // nmbOfCustomers customers buy one ticket for each of eventsPerCustomer events and compares the
+    // engine's tables with the nested per-customer maps the same purchases used to need.
+    public void purchaseLimits(int nmbOfThreads, int nmbOfCustomers, int eventsPerCustomer) throws InterruptedException {
+        PurchaseLimitEngineInterface limits = ticketShop.getPurchaseLimitEngineInterface();
+        LocalDateTime date = LocalDateTime.now().plusMonths(1);
+        Event contested = eventService.add("Limited", "Arena", date, 1000);
+        limits.setLimit(contested.getId(), 3);
+        Customer buyer = TestCustomers.add(customerService, "Limit", 1)[0];
+        AtomicLong bought = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < nmbOfThreads; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10; i++) {
+                    try {
+                        ticketService.add(LocalDateTime.now(), buyer.getId(), contested.getId());
+                        bought.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (RuntimeException e) {
+                        // Limit reached.
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println(nmbOfThreads * 10 + " concurrent purchases against a limit of " + limits.getLimit(contested.getId())
+                + ": " + bought.get() + " succeeded, count " + limits.getCount(buyer.getId(), contested.getId()));
+
+        List<EventData> events = new ArrayList<>();
+        for (int i = 0; i < eventsPerCustomer; i++) {
+            events.add(new EventData("Limits " + i, "Arena", date, nmbOfCustomers));
+        }
+        Event[] added = eventService.addAll(events);
+        Customer[] customers = TestCustomers.add(customerService, "Limits", nmbOfCustomers);
+        long startTime = System.nanoTime();
+        for (Customer customer : customers) {
+            for (Event event : added) {
+                ticketService.add(LocalDateTime.now(), customer.getId(), event.getId());
+            }
+        }
+        long elapsed = System.nanoTime() - startTime;
+        long purchases = (long) nmbOfCustomers * eventsPerCustomer;
+        System.out.println(purchases + " limited purchases took " + elapsed / 1_000_000 + "ms ("
+                + elapsed / purchases + "ns per purchase)");
+
+        PurchaseLimitEngine engine = PurchaseLimitEngine.getInstance();
+        Ticket[] sold = ticketService.getAll();
+        long before = usedMemory();
+        Map<Long, HashMap<Long, HashSet<Long>>> nested = new HashMap<>();
+        for (Ticket ticket : sold) {
+            nested.computeIfAbsent(ticket.getCustomerId(), id -> new HashMap<>())
+                    .computeIfAbsent(ticket.getEventId(), id -> new HashSet<>()).add(ticket.getId());
+        }
+        long nestedBytes = usedMemory() - before;
+        System.out.println(engine.size() + " (customer, event) counts take " + engine.memoryBytes() / 1024
+                + " KiB in the engine, the nested maps for " + nested.size() + " customers took " + nestedBytes / 1024 + " KiB");
+    }
+
+    // Measures what the rate limiter adds to a purchase attempt, then lets nmbOfBots customers hammer a
+    // hot event while nmbOfCustomers others buy at a human pace, and reports who got throttled.
+    public void rateLimiting(int nmbOfCustomers, int nmbOfBots, int attemptsPerBot) throws InterruptedException {
+        PurchaseRateLimiter limiter = PurchaseRateLimiter.getInstance();
+        PurchaseRateLimiterInterface metrics = ticketShop.getPurchaseRateLimiterInterface();
+        int calls = 10_000_000;
+        long[] keys = new long[1 << 14];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = IDServiceParallel.LOWER_BOUND + i;
+        }
+        metrics.configure(0, 1);
+        long disabled = timeAcquires(limiter, keys, calls);
+        metrics.configure(1_000_000, 1000);
+        long enabled = timeAcquires(limiter, keys, calls);
+        System.out.println("Rate check per attempt: " + disabled + "ns disabled, " + enabled + "ns enabled over "
+                + keys.length + " customers");
+
+        metrics.configure(2, 5);
+        metrics.resetMetrics();
+        Event hot = eventService.add("Hot", "Arena", LocalDateTime.now().plusMonths(1), nmbOfCustomers + nmbOfBots * 5);
+        Customer[] customers = TestCustomers.add(customerService, "Rate", nmbOfCustomers + nmbOfBots);
+        AtomicLong humansThrottled = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int b = 0; b < nmbOfBots; b++) {
+            long botId = customers[nmbOfCustomers + b].getId();
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < attemptsPerBot; i++) {
+                    try {
+                        ticketService.add(LocalDateTime.now(), botId, hot.getId());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (RuntimeException e) {
+                        // Throttled, limited or sold out.
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (int i = 0; i < nmbOfCustomers; i++) {
+            try {
+                ticketService.add(LocalDateTime.now(), customers[i].getId(), hot.getId());
+            } catch (ThrottledException e) {
+                humansThrottled.incrementAndGet();
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println(nmbOfBots + " bots made " + (long) nmbOfBots * attemptsPerBot + " attempts: " + metrics.getAllowed()
+                + " allowed, " + metrics.getThrottled() + " throttled, " + humansThrottled.get() + " of " + nmbOfCustomers
+                + " regular customers throttled, " + metrics.getEvictions() + " evictions");
+        StringBuilder top = new StringBuilder("Top throttled:");
+        for (ThrottledCustomer customer : metrics.getTopThrottled()) {
+            top.append(' ').append(customer);
+        }
+        System.out.println(top);
+        metrics.configure(0, 1);
+    }
+
+    private static long timeAcquires(PurchaseRateLimiter limiter, long[] keys, int calls) {
+        int allowed = 0;
+        for (int warmup = 0; warmup < 2; warmup++) {
+            for (int i = 0; i < calls; i++) {
+                allowed += limiter.tryAcquire(keys[i & (keys.length - 1)]) ? 1 : 0;
+            }
+        }
+        long startTime = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            allowed += limiter.tryAcquire(keys[i & (keys.length - 1)]) ? 1 : 0;
+        }
+        long elapsed = System.nanoTime() - startTime;
+        return allowed == 0 ? -1 : elapsed / calls;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+    }
 }
@@ -0,0 +1,158 @@
+package org.example.client;
+
+import org.example.TicketShop;
+import org.example.customer.Customer;
+import org.example.customer.CustomerServiceInterface;
+import org.example.event.Event;
+import org.example.event.EventServiceInterface;
+import org.example.replay.Operation;
+import org.example.replay.ReferenceTicketService;
+import org.example.replay.ReplayResult;
+import org.example.replay.Replayer;
+import org.example.replay.Workload;
+import org.example.replay.WorkloadGenerator;
+import org.example.replay.WorkloadRecorder;
+import org.example.ticket.Ticket;
+import org.example.ticket.TicketServiceInterface;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongConsumer;
+
+// Records workloads and replays them against TicketService and the single-lock
+// ReferenceTicketService, each twice from an empty shop. A run passes when all replays end in the same
+// state with the same outcomes. Recorded outcomes are reported as well, but operations that raced
+// while recording may legitimately turn out differently when replayed in completion order.
+// Only the ticket service is swapped: every replay goes through the shop's singleton event and
+// customer services, so it publishes to the change feed and the sales report, shares the purchase
+// limit engine and clears the shop's state before and after each run.
+public class ReplayClient {
+    private final TicketShop ticketShop;
+    private final EventServiceInterface eventService;
+    private final CustomerServiceInterface customerService;
+    private final TicketServiceInterface ticketService;
+
+    public ReplayClient(TicketShop ticketShop) {
+        this.ticketShop = ticketShop;
+        this.eventService = ticketShop.getEventServiceInterface();
+        this.customerService = ticketShop.getCustomerServiceInterface();
+        this.ticketService = ticketShop.getTicketServiceInterface();
+    }
+
+    // Runs PerformanceClient's setup and purchases through a recorder, followed by nmbOfThreads threads
+    // buying and refunding concurrently.
+    public Workload record(int nmbOfEvents, int nmbOfCustomers, int nmbOfThreads, int operationsPerThread)
+            throws InterruptedException {
+        reset(ticketService);
+        WorkloadRecorder recorder = new WorkloadRecorder();
+        TicketShop recorded = recorder.wrap(ticketShop);
+        PerformanceClient performanceClient = new PerformanceClient(recorded);
+        performanceClient.createEvents(nmbOfEvents, nmbOfCustomers * 2);
+        performanceClient.createCustomers(nmbOfCustomers);
+        performanceClient.buyTickets(1);
+
+        Event[] events = recorded.getEventServiceInterface().getAll();
+        Customer[] customers = recorded.getCustomerServiceInterface().getAll();
+        TicketServiceInterface tickets = recorded.getTicketServiceInterface();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < nmbOfThreads; t++) {
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<Long> bought = new ArrayList<>();
+                for (int i = 0; i < operationsPerThread; i++) {
+                    try {
+                        if (!bought.isEmpty() && random.nextInt(100) < 20) {
+                            tickets.delete(bought.remove(bought.size() - 1));
+                        } else {
+                            Ticket ticket = tickets.add(LocalDateTime.now(), customers[random.nextInt(customers.length)].getId(),
+                                    events[random.nextInt(events.length)].getId());
+                            bought.add(ticket.getId());
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (RuntimeException e) {
+                        // Sold out or limit reached, recorded as such.
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Workload workload = recorder.finish();
+        System.out.println("Recorded " + workload.size() + " operations on " + (nmbOfThreads + 1) + " threads");
+        return workload;
+    }
+
+    public boolean simulate(long seed, int operations) throws InterruptedException {
+        Workload workload = WorkloadGenerator.generate(seed, operations);
+        System.out.println("Generated " + workload.size() + " operations from seed " + seed);
+        return compare(workload);
+    }
+
+    public boolean compare(Workload workload) throws InterruptedException {
+        ReferenceTicketService reference = new ReferenceTicketService(ticketShop);
+        LongConsumer cascade = reference::eventRemoved;
+        eventService.addRemovalListener(cascade);
+        try {
+            return compare(workload, reference);
+        } finally {
+            eventService.removeRemovalListener(cascade);
+        }
+    }
+
+    private boolean compare(Workload workload, ReferenceTicketService reference) throws InterruptedException {
+        Map<String, TicketServiceInterface> implementations = new LinkedHashMap<>();
+        implementations.put("TicketService", ticketService);
+        implementations.put("ReferenceTicketService", reference);
+        ReplayResult baseline = null;
+        boolean identical = true;
+        for (Map.Entry<String, TicketServiceInterface> implementation : implementations.entrySet()) {
+            for (int round = 1; round <= 2; round++) {
+                reset(implementation.getValue());
+                long startTime = System.currentTimeMillis();
+                ReplayResult result = new Replayer(eventService, customerService, implementation.getValue()).replay(workload);
+                long took = System.currentTimeMillis() - startTime;
+                reset(implementation.getValue());
+                List<String> divergences = result.divergencesFromWorkload(Integer.MAX_VALUE);
+                System.out.println(implementation.getKey() + " run " + round + ": " + took + "ms, "
+                        + result.countOutcome(Operation.OK) + " succeeded, " + result.getState().size() + " entities left, "
+                        + divergences.size() + " outcomes differ from the workload");
+                for (String divergence : divergences.subList(0, Math.min(3, divergences.size()))) {
+                    System.out.println("  " + divergence);
+                }
+                if (round == 1) {
+                    System.out.print(result.latencySummary());
+                }
+                if (baseline == null) {
+                    baseline = result;
+                    continue;
+                }
+                List<String> differences = baseline.diff(result, 10);
+                if (!differences.isEmpty()) {
+                    identical = false;
+                    System.out.println("  differs from TicketService run 1:");
+                    for (String difference : differences) {
+                        System.out.println("    " + difference);
+                    }
+                }
+            }
+        }
+        System.out.println(identical ? "All replays ended in the same state" : "Replays DIVERGED");
+        return identical;
+    }
+
+    private void reset(TicketServiceInterface implementation) {
+        implementation.deleteAll();
+        ticketService.deleteAll();
+        customerService.deleteAll();
+        eventService.deleteAll();
+    }
+}
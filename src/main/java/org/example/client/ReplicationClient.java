@@ -0,0 +1,180 @@
+package org.example.client;
+
+import org.example.TicketShop;
+import org.example.customer.Customer;
+import org.example.customer.CustomerServiceInterface;
+import org.example.event.Event;
+import org.example.event.EventData;
+import org.example.event.EventServiceInterface;
+import org.example.replication.Replica;
+import org.example.replication.ReplicaEvent;
+import org.example.replication.ReplicationPrimary;
+import org.example.ticket.TicketServiceInterface;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+// Two-node harness over loopback: this JVM's services act as primary and a Replica follows them.
+// Measures how long an update takes to become visible on the replica, how read throughput changes
+// when the replica takes half of the readers, checks that both sides converge, and finally promotes
+// the replica after wiping the primary's state as if the node had been lost.
+public class ReplicationClient {
+    private final TicketShop ticketShop;
+    private final EventServiceInterface eventService;
+    private final CustomerServiceInterface customerService;
+    private final TicketServiceInterface ticketService;
+
+    public ReplicationClient(TicketShop ticketShop) {
+        this.ticketShop = ticketShop;
+        this.eventService = ticketShop.getEventServiceInterface();
+        this.customerService = ticketShop.getCustomerServiceInterface();
+        this.ticketService = ticketShop.getTicketServiceInterface();
+    }
+
+    public void run(int nmbOfEvents, int nmbOfCustomers, int nmbOfUpdates, int readerThreads, int readsPerThread,
+                    long maxStalenessMillis) throws IOException, InterruptedException {
+        ticketService.deleteAll();
+        customerService.deleteAll();
+        eventService.deleteAll();
+        ReplicationPrimary primary = new ReplicationPrimary(ticketShop,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 10);
+
+        // Half of the data exists before the replica connects and reaches it through the bootstrap.
+        long[] eventIds = populate(nmbOfEvents / 2, nmbOfCustomers / 2);
+        Replica replica = new Replica(new InetSocketAddress(InetAddress.getLoopbackAddress(), primary.getPort()),
+                maxStalenessMillis);
+        long startTime = System.currentTimeMillis();
+        if (!replica.awaitFresh(10_000)) {
+            throw new IllegalStateException("Replica did not catch up");
+        }
+        System.out.println("Replica bootstrapped in " + (System.currentTimeMillis() - startTime) + "ms");
+        long[] moreIds = populate(nmbOfEvents - nmbOfEvents / 2, nmbOfCustomers - nmbOfCustomers / 2);
+        eventIds = concat(eventIds, moreIds);
+
+        long[] lags = new long[nmbOfUpdates];
+        for (int i = 0; i < nmbOfUpdates; i++) {
+            long id = eventIds[ThreadLocalRandom.current().nextInt(eventIds.length)];
+            Event event = eventService.get(id);
+            eventService.update(id, "Replicated " + i, event.getLocation(), event.getDate(), event.getNmbTickets());
+            long version = event.getVersion();
+            long updated = System.nanoTime();
+            while (replica.getEvent(id).getVersion() < version) {
+                Thread.onSpinWait();
+            }
+            lags[i] = System.nanoTime() - updated;
+        }
+        Arrays.sort(lags);
+        System.out.println(nmbOfUpdates + " updates visible on the replica after p50 " + lags[lags.length / 2] / 1000
+                + "us, p99 " + lags[(int) (lags.length * 0.99)] / 1000 + "us, max " + lags[lags.length - 1] / 1000 + "us");
+        System.out.println("Shipped " + primary.getFramesSent() + " frames, " + primary.getRawBytesSent() / 1024 + " KiB raw as "
+                + primary.getBytesSent() / 1024 + " KiB compressed");
+
+        long[] ids = eventIds;
+        long primaryOnly = measureReads(readerThreads, readsPerThread, 0, ids, id -> eventService.get(id), null);
+        long withReplica = measureReads(readerThreads, readsPerThread, readerThreads, ids, id -> eventService.get(id),
+                id -> replica.getEvent(id));
+        System.out.println("Reads with " + readerThreads + " threads on the primary: " + primaryOnly + "/s, with another "
+                + readerThreads + " on the replica: " + withReplica + "/s");
+
+        replica.awaitFresh(10_000);
+        Thread.sleep(2 * maxStalenessMillis);
+        Map<Long, Integer> inventory = new HashMap<>();
+        eventService.forEach(event -> inventory.put(event.getId(), event.getNmbTickets()));
+        int mismatches = compare(replica, inventory);
+        int customers = customerService.getAll().length;
+        int tickets = ticketService.getAll().length;
+        System.out.println("Converged: " + inventory.size() + "/" + replica.getAllEvents().length + " events, " + customers
+                + "/" + replica.getAllCustomers().length + " customers, " + tickets + "/" + replica.getAllTickets().length
+                + " tickets, " + mismatches + " event mismatches");
+
+        // Lose the primary: stop shipping and wipe its state, then bring it back from the replica.
+        primary.close();
+        ticketService.deleteAll();
+        customerService.deleteAll();
+        eventService.deleteAll();
+        startTime = System.currentTimeMillis();
+        int restored = replica.promote(ticketShop);
+        int promotedMismatches = 0;
+        for (Map.Entry<Long, Integer> entry : inventory.entrySet()) {
+            if (eventService.get(entry.getKey()).getNmbTickets() != entry.getValue()) {
+                promotedMismatches++;
+            }
+        }
+        System.out.println("Promoted replica restored " + restored + " records in " + (System.currentTimeMillis() - startTime)
+                + "ms: " + eventService.getAll().length + " events, " + customerService.getAll().length + " customers, "
+                + ticketService.getAll().length + " tickets, " + promotedMismatches + " inventory mismatches");
+    }
+
+    // Adds events and customers and has every customer buy a few tickets.
+    private long[] populate(int nmbOfEvents, int nmbOfCustomers) throws InterruptedException {
+        LocalDateTime date = LocalDateTime.now().plusYears(1);
+        List<EventData> events = new ArrayList<>();
+        for (int i = 0; i < nmbOfEvents; i++) {
+            events.add(new EventData("Event " + i, "Location " + i % 50, date, 1000));
+        }
+        long[] eventIds = Arrays.stream(eventService.addAll(events)).mapToLong(Event::getId).toArray();
+        for (Customer customer : TestCustomers.add(customerService, "Replicated", nmbOfCustomers)) {
+            for (int t = 0; t < 3; t++) {
+                ticketService.add(LocalDateTime.now(), customer.getId(),
+                        eventIds[ThreadLocalRandom.current().nextInt(eventIds.length)]);
+            }
+        }
+        return eventIds;
+    }
+
+    private long measureReads(int primaryThreads, int readsPerThread, int replicaThreads, long[] ids,
+                              LongConsumer primaryRead, LongConsumer replicaRead) throws InterruptedException {
+        AtomicLong reads = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        long startTime = System.nanoTime();
+        for (int t = 0; t < primaryThreads + replicaThreads; t++) {
+            LongConsumer read = t < primaryThreads ? primaryRead : replicaRead;
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < readsPerThread; i++) {
+                    read.accept(ids[random.nextInt(ids.length)]);
+                }
+                reads.addAndGet(readsPerThread);
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return reads.get() * 1_000_000_000L / Math.max(1, System.nanoTime() - startTime);
+    }
+
+    private static int compare(Replica replica, Map<Long, Integer> inventory) {
+        int mismatches = 0;
+        for (Map.Entry<Long, Integer> entry : inventory.entrySet()) {
+            ReplicaEvent copy;
+            try {
+                copy = replica.getEvent(entry.getKey());
+            } catch (RuntimeException e) {
+                mismatches++;
+                continue;
+            }
+            if (copy.getNmbTickets() != entry.getValue()) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+        long[] all = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, all, first.length, second.length);
+        return all;
+    }
+}
@@ -0,0 +1,233 @@
+package org.example.client;
+
+import org.example.TicketShop;
+import org.example.customer.Customer;
+import org.example.customer.CustomerServiceInterface;
+import org.example.event.Event;
+import org.example.event.EventService;
+import org.example.event.EventServiceInterface;
+import org.example.report.SalesReportInterface;
+import org.example.ticket.Ticket;
+import org.example.ticket.TicketService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hammers the purchase path from several threads with a seeded mix of valid purchases, refunds and
+// purchases that must fail (unknown customer or event, late purchase date, sold out, over the limit),
+// then checks that no ticket ID leaked and that no event's inventory drifted.
+public class StressClient {
+    private static final long UNKNOWN_ID = 4L;
+
+    private final EventServiceInterface eventService;
+    private final CustomerServiceInterface customerService;
+    private final TicketService ticketService;
+    private final SalesReportInterface salesReport;
+
+    public StressClient(TicketShop ticketShop) throws InterruptedException {
+        this.eventService = ticketShop.getEventServiceInterface();
+        this.customerService = ticketShop.getCustomerServiceInterface();
+        this.ticketService = TicketService.getInstance();
+        this.salesReport = ticketShop.getSalesReportInterface();
+    }
+
+    public void purchaseWithFaults(int nmbOfThreads, int attemptsPerThread, long seed) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        Event[] events = new Event[20];
+        Map<Long, Integer> capacity = new HashMap<>();
+        for (int i = 0; i < events.length; i++) {
+            events[i] = eventService.add("Stress" + i, "Uni", LocalDateTime.now().plusDays(1), 50);
+            capacity.put(events[i].getId(), 50);
+        }
+        Customer[] customers = TestCustomers.add(customerService, "Stress", 50);
+        int ticketsBefore = ticketService.getAll().length;
+        int activeIdsBefore = ticketService.activeIdCount();
+
+        Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger refunded = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < nmbOfThreads; t++) {
+            Random random = new Random(seed + t);
+            Thread thread = new Thread(() -> {
+                List<Long> owned = new ArrayList<>();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    long customerId = customers[random.nextInt(customers.length)].getId();
+                    long eventId = events[random.nextInt(events.length)].getId();
+                    LocalDateTime purchaseDate = LocalDateTime.now();
+                    int fault = random.nextInt(10);
+                    if (fault == 0) {
+                        customerId = UNKNOWN_ID;
+                    } else if (fault == 1) {
+                        eventId = UNKNOWN_ID;
+                    } else if (fault == 2) {
+                        purchaseDate = purchaseDate.plusYears(1);
+                    } else if (fault == 3 && !owned.isEmpty()) {
+                        ticketService.delete(owned.remove(random.nextInt(owned.size())));
+                        refunded.incrementAndGet();
+                        continue;
+                    }
+                    try {
+                        owned.add(ticketService.add(purchaseDate, customerId, eventId).getId());
+                        sold.incrementAndGet();
+                    } catch (Exception e) {
+                        failures.computeIfAbsent(e.getClass().getSimpleName(), k -> new AtomicInteger()).incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Map<Long, Integer> ticketsPerEvent = new HashMap<>();
+        Ticket[] tickets = ticketService.getAll();
+        for (Ticket ticket : tickets) {
+            ticketsPerEvent.merge(ticket.getEventId(), 1, Integer::sum);
+        }
+        int drift = 0;
+        for (Event event : events) {
+            int expected = capacity.get(event.getId()) - ticketsPerEvent.getOrDefault(event.getId(), 0);
+            drift += Math.abs(expected - event.getNmbTickets());
+        }
+        int leakedIds = (ticketService.activeIdCount() - activeIdsBefore) - (tickets.length - ticketsBefore);
+        System.out.println("Stress run with " + nmbOfThreads + " threads: sold " + sold + ", refunded " + refunded
+                + ", failures " + failures + ", leaked IDs " + leakedIds + ", inventory drift " + drift
+                + ", took " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    // Sells, refunds and moves events between venues concurrently, then recomputes every aggregate
+    // from the ticket store and compares it with what the sales report maintained incrementally.
+    public void salesReportConsistency(int nmbOfThreads, int attemptsPerThread, long seed) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        String[] venues = {"Uni", "Arena", "Club"};
+        Event[] events = new Event[10];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = eventService.add("Report" + i, venues[i % venues.length], LocalDateTime.now().plusDays(1), 200);
+        }
+        Customer[] customers = TestCustomers.add(customerService, "Report", 100);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < nmbOfThreads; t++) {
+            Random random = new Random(seed + t);
+            Thread thread = new Thread(() -> {
+                List<Long> owned = new ArrayList<>();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    Event event = events[random.nextInt(events.length)];
+                    int action = random.nextInt(20);
+                    try {
+                        if (action == 0) {
+                            eventService.update(event.getId(), event.getName(), venues[random.nextInt(venues.length)],
+                                    event.getDate(), event.getNmbTickets());
+                        } else if (action < 5 && !owned.isEmpty()) {
+                            ticketService.delete(owned.remove(random.nextInt(owned.size())));
+                        } else {
+                            Customer customer = customers[random.nextInt(customers.length)];
+                            owned.add(ticketService.add(LocalDateTime.now(), customer.getId(), event.getId()).getId());
+                        }
+                    } catch (Exception ignored) {
+                        // sold out or over the limit
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        EventService eventLookup = EventService.getInstance();
+        Map<Long, Long> perEvent = new HashMap<>();
+        Map<String, Long> perLocation = new HashMap<>();
+        Map<LocalDate, Long> perDay = new HashMap<>();
+        long[] total = new long[1];
+        ticketService.forEach(ticket -> {
+            Event event = eventLookup.find(ticket.getEventId());
+            if (event != null) {
+                perEvent.merge(event.getId(), 1L, Long::sum);
+                perLocation.merge(event.getLocation(), 1L, Long::sum);
+            }
+            perDay.merge(ticket.getPurchaseDate().toLocalDate(), 1L, Long::sum);
+            total[0]++;
+        });
+        int mismatches = 0;
+        for (Event event : events) {
+            if (salesReport.getNetSold(event.getId()) != perEvent.getOrDefault(event.getId(), 0L)) {
+                mismatches++;
+            }
+        }
+        for (Map.Entry<String, Long> entry : perLocation.entrySet()) {
+            if (salesReport.getNetSoldAtLocation(entry.getKey()) != entry.getValue()) {
+                mismatches++;
+            }
+        }
+        for (Map.Entry<LocalDate, Long> entry : perDay.entrySet()) {
+            if (salesReport.getNetSoldOnDay(entry.getKey()) != entry.getValue()) {
+                mismatches++;
+            }
+        }
+        if (salesReport.getTotalNetSold() != total[0]) {
+            mismatches++;
+        }
+        System.out.println("Sales report after " + nmbOfThreads * attemptsPerThread + " operations on "
+                + nmbOfThreads + " threads: " + total[0] + " tickets, " + mismatches
+                + " mismatches against a full recompute, took " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    // Lets every thread register the same usernames and emails, in different letter case, and renames
+    // customers onto each other's emails meanwhile; each value must end up with exactly one owner.
+    public void duplicateRegistrations(int nmbOfThreads, int nmbOfNames) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        String prefix = TestCustomers.uniquePrefix("Dup");
+        AtomicInteger registered = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < nmbOfThreads; t++) {
+            boolean upper = t % 2 == 0;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < nmbOfNames; i++) {
+                    String name = prefix + i;
+                    String email = name + "@email.de";
+                    try {
+                        customerService.add(upper ? name.toUpperCase() : name, upper ? email.toUpperCase() : email,
+                                LocalDateTime.now().minusYears(20));
+                        registered.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        int missing = 0;
+        long lookupStart = System.nanoTime();
+        for (int i = 0; i < nmbOfNames; i++) {
+            String name = prefix.toLowerCase() + i;
+            Customer byEmail = customerService.findByEmail(" " + name + "@EMAIL.de ");
+            Customer byUsername = customerService.findByUsername(name);
+            if (byEmail == null || byEmail != byUsername) {
+                missing++;
+            }
+        }
+        long lookupNanos = (System.nanoTime() - lookupStart) / Math.max(1, 2L * nmbOfNames);
+        System.out.println("Duplicate registrations on " + nmbOfThreads + " threads: " + registered + " registered, "
+                + rejected + " rejected for " + nmbOfNames + " names, " + missing + " names without a single owner, "
+                + lookupNanos + "ns per lookup, took " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+}
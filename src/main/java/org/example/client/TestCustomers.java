@@ -0,0 +1,38 @@
+package org.example.client;
+
+import org.example.customer.Customer;
+import org.example.customer.CustomerData;
+import org.example.customer.CustomerServiceInterface;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Customers for the benchmarks and stress runs. Every prefix is new, so runs against services that
+// still hold the customers of an earlier run don't collide on usernames or emails.
+final class TestCustomers {
+    private static final AtomicLong RUNS = new AtomicLong(System.nanoTime());
+
+    private TestCustomers() {
+    }
+
+    // E.g. "Feed2m9x1kq7-", to be followed by a number.
+    static String uniquePrefix(String name) {
+        return name + Long.toString(RUNS.incrementAndGet(), 36) + "-";
+    }
+
+    static List<CustomerData> rows(String name, int count) {
+        String prefix = uniquePrefix(name);
+        LocalDateTime birthday = LocalDateTime.now().minusYears(30);
+        List<CustomerData> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new CustomerData(prefix + i, prefix.toLowerCase() + i + "@email.de", birthday));
+        }
+        return rows;
+    }
+
+    static Customer[] add(CustomerServiceInterface customerService, String name, int count) throws InterruptedException {
+        return customerService.addAll(rows(name, count));
+    }
+}
@@ -1,122 +1,122 @@
 package org.example.customer;
 
+import org.example.utils.FieldValidator;
+
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Customer {
     private long id;
-    private String username;
-    private String email;
-    private LocalDateTime birthday;
-    private HashMap<Long, HashSet<Long>> tickets;
+    private final AtomicReference<CustomerSnapshot> snapshot;
+    // Values CustomerService is switching this customer to, visible to its uniqueness indexes meanwhile.
+    volatile String pendingUsername;
+    volatile String pendingEmail;
 
     public Customer(long id, String username, String email, LocalDateTime birthday) {
-        this.id = id;
+        this(id, new CustomerSnapshot(1, checkUsername(username), checkEmailAddress(email), checkBirthdate(birthday)));
+    }
 
-        this.username = Objects.requireNonNull(username, "username must not be null").trim();
-        if (this.username.isBlank()) {
-            throw new IllegalArgumentException("username must not be blank");
-        }
+    Customer(long id, CustomerSnapshot snapshot) {
+        this.id = id;
+        this.snapshot = new AtomicReference<>(snapshot);
+    }
 
-        String emailTrimmed = Objects.requireNonNull(email, "email must not be null").trim();
-        if (emailTrimmed.isBlank() || !checkEmail(emailTrimmed)) {
-            throw new IllegalArgumentException("Invalid or blank email");
+    // Returns the trimmed, validated fields, or null if any of them is invalid. Never throws. Fields are
+    // trimmed with strip(), which drops the same whitespace FingerprintIndex ignores.
+    static CustomerSnapshot validate(String username, String email, LocalDateTime birthday) {
+        if (username == null || email == null || birthday == null) {
+            return null;
         }
-        this.email = emailTrimmed;
-
-        Objects.requireNonNull(birthday, "birthday must not be null");
-        if (!checkBirthday(birthday)) {
-            throw new IllegalArgumentException("Customer must be at least 18 years old");
+        String uname = username.strip();
+        String emailTrimmed = email.strip();
+        if (uname.isEmpty() || !FieldValidator.isValidEmail(emailTrimmed) || !FieldValidator.isAdult(birthday)) {
+            return null;
         }
-        this.birthday = birthday;
-        this.tickets = new HashMap<Long, HashSet<Long>>();
+        return new CustomerSnapshot(1, uname, emailTrimmed, birthday);
     }
 
-    public void addTicket(long eventId, long ticketId) {
-        if (tickets.containsKey(eventId)) {
-            if (tickets.get(eventId).size() < 5) {
-                tickets.get(eventId).add(ticketId);
-            } else {
-                throw new RuntimeException("Can't purchase more than 5 tickets for a single event");
-            }
-        }
+    public CustomerSnapshot getSnapshot() {
+        return snapshot.get();
     }
 
-    public void remooveTicket(long eventId, long ticketId) {
-        if (tickets.containsKey(eventId)) {
-            tickets.get(eventId).remove(ticketId);
-        } else {
-            throw new RuntimeException("Event with id=" + eventId + " not found");
-        }
+    public long getVersion() {
+        return snapshot.get().getVersion();
     }
 
     public String getUsername() {
-        return username;
-    }
-
-    public void setUsername(String username) {
-        String uname = Objects.requireNonNull(username, "username must not be null").trim();
-        if (uname.isBlank()) {
-            throw new IllegalArgumentException("username must not be blank");
-        }
-        this.username = uname;
+        return snapshot.get().getUsername();
     }
 
     public String getEmail() {
-        return email;
-    }
-
-    public void setEmail(String email) {
-        String emailTrimmed = Objects.requireNonNull(email, "email must not be null").trim();
-        if (emailTrimmed.isBlank() || !checkEmail(emailTrimmed)) {
-            throw new IllegalArgumentException("Invalid or blank email");
-        }
-        this.email = emailTrimmed;
+        return snapshot.get().getEmail();
     }
 
     public LocalDateTime getBirthday() {
-        return birthday;
+        return snapshot.get().getBirthday();
     }
 
     public void setBirthday(LocalDateTime birthday) {
-        Objects.requireNonNull(birthday, "birthday must not be null");
-        if (!checkBirthday(birthday)) {
-            throw new IllegalArgumentException("Customer must be at least 18 years old");
+        checkBirthdate(birthday);
+        CustomerSnapshot current;
+        do {
+            current = snapshot.get();
+        } while (!snapshot.compareAndSet(current,
+                new CustomerSnapshot(current.getVersion() + 1, current.getUsername(), current.getEmail(), birthday)));
+    }
+
+    // Replaces username, email and birthday in one step, but only if nobody changed them since expectedVersion.
+    public boolean compareAndSet(long expectedVersion, String username, String email, LocalDateTime birthday) {
+        CustomerSnapshot next = new CustomerSnapshot(expectedVersion + 1,
+                checkUsername(username), checkEmailAddress(email), checkBirthdate(birthday));
+        CustomerSnapshot current = snapshot.get();
+        if (current.getVersion() != expectedVersion) {
+            return false;
         }
-        this.birthday = birthday;
+        return snapshot.compareAndSet(current, next);
     }
 
     public long getId() {
         return id;
     }
 
-    private boolean checkEmail(String email) {
-        String[] result1 = email.split("@");
-        if (result1.length != 2) {
-            return false;
-        }
-        String[] result2 = result1[1].split("\\.");
-        if (result2.length < 2) {
-            return false;
+    static void checkFields(String username, String email, LocalDateTime birthday) {
+        checkUsername(username);
+        checkEmailAddress(email);
+        checkBirthdate(birthday);
+    }
+
+    private static String checkUsername(String username) {
+        String uname = Objects.requireNonNull(username, "username must not be null").strip();
+        if (uname.isBlank()) {
+            throw new IllegalArgumentException("username must not be blank");
         }
-        if (result2[result2.length - 1].chars().allMatch(Character::isLetter)) {
-            return true;
+        return uname;
+    }
+
+    private static String checkEmailAddress(String email) {
+        String emailTrimmed = Objects.requireNonNull(email, "email must not be null").strip();
+        if (!FieldValidator.isValidEmail(emailTrimmed)) {
+            throw new IllegalArgumentException("Invalid or blank email");
         }
-        return false;
+        return emailTrimmed;
     }
 
-    private boolean checkBirthday(LocalDateTime birthday) {
-        return birthday.isBefore(LocalDateTime.now().minusYears(18));
+    private static LocalDateTime checkBirthdate(LocalDateTime birthday) {
+        Objects.requireNonNull(birthday, "birthday must not be null");
+        if (!FieldValidator.isAdult(birthday)) {
+            throw new IllegalArgumentException("Customer must be at least 18 years old");
+        }
+        return birthday;
     }
 
     @Override
     public String toString() {
+        CustomerSnapshot current = snapshot.get();
         return "Customer:" +
                 "id: " + id + '\n' +
-                "username: " + username + '\n' +
-                "email: " + email + '\n' +
-                "birthday: " + birthday;
+                "username: " + current.getUsername() + '\n' +
+                "email: " + current.getEmail() + '\n' +
+                "birthday: " + current.getBirthday();
     }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package org.example.customer;
+
+import java.time.LocalDateTime;
+
+// Input row for bulk customer creation.
+public class CustomerData {
+    private final String username;
+    private final String email;
+    private final LocalDateTime birthday;
+
+    public CustomerData(String username, String email, LocalDateTime birthday) {
+        this.username = username;
+        this.email = email;
+        this.birthday = birthday;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public LocalDateTime getBirthday() {
+        return birthday;
+    }
+}
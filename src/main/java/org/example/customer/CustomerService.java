@@ -1,20 +1,38 @@
 package org.example.customer;
 
-import org.example.utils.IDService;
-import org.example.utils.IDServiceParallel;
+import org.example.feed.ChangeFeed;
+import org.example.feed.ChangeType;
+import org.example.utils.IdAllocator;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 public class CustomerService implements CustomerServiceInterface {
-    private final HashMap<Long, Customer> customers;
-    private final IDServiceParallel idService;
+    private final Map<Long, Customer> customers;
+    private final IdAllocator idService;
+    private final ChangeFeed changeFeed = ChangeFeed.getInstance();
+    private final FingerprintIndex usernames;
+    private final FingerprintIndex emails;
     private static CustomerService INSTANCE;
 
     private CustomerService() throws InterruptedException {
-        this.customers = new HashMap<>();
-        this.idService = new IDServiceParallel(1000);
+        this.customers = new ConcurrentHashMap<>();
+        this.idService = IdAllocator.forService("customers", 1000);
+        this.usernames = new FingerprintIndex((id, value) -> {
+            Customer customer = customers.get(id);
+            return customer == null || FingerprintIndex.sameValue(customer.getUsername(), value)
+                    || (customer.pendingUsername != null && FingerprintIndex.sameValue(customer.pendingUsername, value));
+        });
+        this.emails = new FingerprintIndex((id, value) -> {
+            Customer customer = customers.get(id);
+            return customer == null || FingerprintIndex.sameValue(customer.getEmail(), value)
+                    || (customer.pendingEmail != null && FingerprintIndex.sameValue(customer.pendingEmail, value));
+        });
     }
 
     public static CustomerService getInstance() throws InterruptedException {
@@ -28,8 +46,69 @@ public class CustomerService implements CustomerServiceInterface {
     @Override
     public Customer add(String username, String email, LocalDateTime birthday) throws InterruptedException {
         long id = idService.getNew();
-        Customer customer = new Customer(id, username, email, birthday);
+        Customer customer;
+        try {
+            customer = new Customer(id, username, email, birthday);
+            claim(id, customer.getUsername(), customer.getEmail());
+        } catch (RuntimeException e) {
+            idService.delete(id);
+            throw e;
+        }
+        customers.put(id, customer);
+        changeFeed.customerChanged(ChangeType.CUSTOMER_ADDED, customer);
+        return customer;
+    }
+
+    // Validates every row in parallel first and only inserts if all of them are valid.
+    @Override
+    public Customer[] addAll(List<CustomerData> rows) throws InterruptedException {
+        CustomerSnapshot[] validated = new CustomerSnapshot[rows.size()];
+        IntStream.range(0, validated.length).parallel().forEach(i -> {
+            CustomerData row = rows.get(i);
+            validated[i] = Customer.validate(row.getUsername(), row.getEmail(), row.getBirthday());
+        });
+        for (int i = 0; i < validated.length; i++) {
+            if (validated[i] == null) {
+                throw new IllegalArgumentException("Invalid customer in row " + i);
+            }
+        }
+        long[] ids = idService.getNew(validated.length);
+        for (int i = 0; i < validated.length; i++) {
+            try {
+                claim(ids[i], validated[i].getUsername(), validated[i].getEmail());
+            } catch (IllegalArgumentException e) {
+                for (int j = 0; j < i; j++) {
+                    usernames.release(validated[j].getUsername(), ids[j]);
+                    emails.release(validated[j].getEmail(), ids[j]);
+                }
+                for (long id : ids) {
+                    idService.delete(id);
+                }
+                throw new IllegalArgumentException("Duplicate customer in row " + i + ": " + e.getMessage());
+            }
+        }
+        Customer[] added = new Customer[validated.length];
+        for (int i = 0; i < validated.length; i++) {
+            added[i] = new Customer(ids[i], validated[i]);
+            customers.put(ids[i], added[i]);
+            changeFeed.customerChanged(ChangeType.CUSTOMER_ADDED, added[i]);
+        }
+        return added;
+    }
+
+    // Re-creates a customer under the ID and version it had on another node, e.g. when promoting a replica.
+    @Override
+    public Customer restore(long id, long version, String username, String email, LocalDateTime birthday) {
+        idService.claim(id);
+        Customer customer = new Customer(id, new CustomerSnapshot(version, username, email, birthday));
+        try {
+            claim(id, username, email);
+        } catch (RuntimeException e) {
+            idService.delete(id);
+            throw e;
+        }
         customers.put(id, customer);
+        changeFeed.customerChanged(ChangeType.CUSTOMER_ADDED, customer);
         return customer;
     }
 
@@ -42,21 +121,131 @@ public class CustomerService implements CustomerServiceInterface {
         return customer;
     }
 
+    public Customer find(long id) {
+        return customers.get(id);
+    }
+
+    @Override
+    public CustomerSnapshot getSnapshot(long id) {
+        return get(id).getSnapshot();
+    }
+
+    @Override
+    public Customer findByEmail(String email) {
+        long id = emails.find(email);
+        return id == FingerprintIndex.NONE ? null : customers.get(id);
+    }
+
+    @Override
+    public Customer findByUsername(String username) {
+        long id = usernames.find(username);
+        return id == FingerprintIndex.NONE ? null : customers.get(id);
+    }
+
     @Override
     public void update(long id, String name, String email, LocalDateTime birthday) {
         Customer customer = get(id);
-        customer.setUsername(name);
-        customer.setEmail(email);
-        customer.setBirthday(birthday);
+        synchronized (customer) {
+            while (!change(customer, customer.getVersion(), name, email, birthday)) {
+                Thread.onSpinWait();
+            }
+        }
+        changeFeed.customerChanged(ChangeType.CUSTOMER_UPDATED, customer);
     }
 
     @Override
-    public void delete(long id) {
-        if (!customers.containsKey(id)) {
+    public boolean compareAndUpdate(long id, long expectedVersion, String name, String email, LocalDateTime birthday) {
+        Customer customer = get(id);
+        synchronized (customer) {
+            if (!change(customer, expectedVersion, name, email, birthday)) {
+                return false;
+            }
+        }
+        changeFeed.customerChanged(ChangeType.CUSTOMER_UPDATED, customer);
+        return true;
+    }
+
+    // Claims a new username or email before the snapshot swap and gives up the old one after it, so
+    // there is never a moment where another customer could take either. Callers hold the customer's
+    // monitor, which keeps the pending values and the claims of concurrent updates and deletes apart.
+    // A customer deleted while the caller waited for the monitor is not changed, as nothing would
+    // release its claims again.
+    private boolean change(Customer customer, long expectedVersion, String name, String email, LocalDateTime birthday) {
+        Customer.checkFields(name, email, birthday);
+        long id = customer.getId();
+        if (customers.get(id) != customer) {
             throw new NoSuchElementException("No customer found with ID " + id);
         }
-        customers.remove(id);
+        CustomerSnapshot current = customer.getSnapshot();
+        if (current.getVersion() != expectedVersion) {
+            return false;
+        }
+        boolean newUsername = !FingerprintIndex.sameValue(current.getUsername(), name);
+        boolean newEmail = !FingerprintIndex.sameValue(current.getEmail(), email);
+        customer.pendingUsername = newUsername ? name : null;
+        customer.pendingEmail = newEmail ? email : null;
+        try {
+            if (newUsername && !usernames.claim(name, id)) {
+                throw new IllegalArgumentException("Username " + name.strip() + " is already taken");
+            }
+            if (newEmail && !emails.claim(email, id)) {
+                if (newUsername) {
+                    usernames.release(name, id);
+                }
+                throw new IllegalArgumentException("Email " + email.strip() + " is already in use");
+            }
+            if (!customer.compareAndSet(expectedVersion, name, email, birthday)) {
+                if (newUsername) {
+                    usernames.release(name, id);
+                }
+                if (newEmail) {
+                    emails.release(email, id);
+                }
+                return false;
+            }
+            if (newUsername) {
+                usernames.retire(current.getUsername(), name, id);
+            }
+            if (newEmail) {
+                emails.retire(current.getEmail(), email, id);
+            }
+            return true;
+        } finally {
+            customer.pendingUsername = null;
+            customer.pendingEmail = null;
+        }
+    }
+
+    private void claim(long id, String username, String email) {
+        if (!usernames.claim(username, id)) {
+            throw new IllegalArgumentException("Username " + username + " is already taken");
+        }
+        if (!emails.claim(email, id)) {
+            usernames.release(username, id);
+            throw new IllegalArgumentException("Email " + email + " is already in use");
+        }
+    }
+
+    // Runs under the customer's monitor so no update is between claiming and retiring a value; the
+    // released values are the current ones.
+    @Override
+    public void delete(long id) {
+        Customer customer = get(id);
+        synchronized (customer) {
+            if (!customers.remove(id, customer)) {
+                throw new NoSuchElementException("No customer found with ID " + id);
+            }
+            CustomerSnapshot snapshot = customer.getSnapshot();
+            usernames.release(snapshot.getUsername(), id);
+            emails.release(snapshot.getEmail(), id);
+        }
         idService.delete(id);
+        changeFeed.customerChanged(ChangeType.CUSTOMER_DELETED, customer);
+    }
+
+    @Override
+    public void forEach(Consumer<Customer> action) {
+        customers.values().forEach(action);
     }
 
     @Override
@@ -70,5 +259,8 @@ public class CustomerService implements CustomerServiceInterface {
             idService.delete(id);
         }
         customers.clear();
+        usernames.clear();
+        emails.clear();
+        changeFeed.cleared(ChangeType.CUSTOMERS_CLEARED);
     }
 }
\ No newline at end of file
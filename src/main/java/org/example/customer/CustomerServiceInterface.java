@@ -1,17 +1,33 @@
 package org.example.customer;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface CustomerServiceInterface {
     Customer add(String username, String email, LocalDateTime birthday) throws InterruptedException;
 
+    Customer[] addAll(List<CustomerData> customers) throws InterruptedException;
+
+    Customer restore(long id, long version, String username, String email, LocalDateTime birthday);
+
     Customer get(long id);
 
+    CustomerSnapshot getSnapshot(long id);
+
+    Customer findByEmail(String email);
+
+    Customer findByUsername(String username);
+
     void update(long id, String name, String email, LocalDateTime birthday);
 
+    boolean compareAndUpdate(long id, long expectedVersion, String name, String email, LocalDateTime birthday);
+
     void delete(long id);
 
     Customer[] getAll();
 
+    void forEach(Consumer<Customer> action);
+
     void deleteAll();
 }
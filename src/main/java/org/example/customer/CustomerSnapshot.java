@@ -0,0 +1,34 @@
+package org.example.customer;
+
+import java.time.LocalDateTime;
+
+// Immutable, versioned view of a customer's profile fields.
+public final class CustomerSnapshot {
+    private final long version;
+    private final String username;
+    private final String email;
+    private final LocalDateTime birthday;
+
+    CustomerSnapshot(long version, String username, String email, LocalDateTime birthday) {
+        this.version = version;
+        this.username = username;
+        this.email = email;
+        this.birthday = birthday;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public LocalDateTime getBirthday() {
+        return birthday;
+    }
+}
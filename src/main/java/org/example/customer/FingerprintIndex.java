@@ -0,0 +1,173 @@
+package org.example.customer;
+
+import org.example.utils.LongLongHashMap;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Unique index from a normalized string (trimmed, lower-cased) to a customer ID that stores a 64-bit
+// fingerprint of the string instead of the string itself: striped primitive maps cost about 32 bytes
+// per customer. On a fingerprint hit the owner is asked whether it really holds the value, so a true
+// collision of two different strings is detected and the newcomer goes to a small overflow map keyed
+// by the full string.
+final class FingerprintIndex {
+    private static final int STRIPES = 64;
+    static final long NONE = -1;
+
+    interface Holder {
+        // Whether customer id holds value or is about to; must also answer true while id is not visible yet.
+        boolean holds(long id, String value);
+    }
+
+    private final LongLongHashMap[] stripes = new LongLongHashMap[STRIPES];
+    private final Map<String, Long> overflow = new ConcurrentHashMap<>();
+    private final Holder holder;
+
+    FingerprintIndex(Holder holder) {
+        this.holder = holder;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new LongLongHashMap(1024);
+        }
+    }
+
+    // Maps value to id unless a different customer already holds it. Claiming again for the same id is a no-op.
+    boolean claim(String value, long id) {
+        long fingerprint = fingerprint(value);
+        LongLongHashMap stripe = stripe(fingerprint);
+        synchronized (stripe) {
+            long owner = stripe.get(fingerprint, NONE);
+            if (owner == id) {
+                return true;
+            }
+            if (owner == NONE) {
+                if (!overflow.isEmpty()) {
+                    Long overflowOwner = overflow.get(normalize(value));
+                    if (overflowOwner != null && overflowOwner != id) {
+                        return false;
+                    }
+                }
+                stripe.put(fingerprint, id);
+                return true;
+            }
+            if (holder.holds(owner, value)) {
+                return false;
+            }
+        }
+        Long previous = overflow.putIfAbsent(normalize(value), id);
+        return previous == null || previous == id;
+    }
+
+    // Drops previous after id moved on to current, unless both share a fingerprint and thus one entry.
+    void retire(String previous, String current, long id) {
+        if (fingerprint(previous) != fingerprint(current)) {
+            release(previous, id);
+        } else if (!overflow.isEmpty()) {
+            overflow.remove(normalize(previous), id);
+        }
+    }
+
+    void release(String value, long id) {
+        long fingerprint = fingerprint(value);
+        LongLongHashMap stripe = stripe(fingerprint);
+        synchronized (stripe) {
+            if (stripe.get(fingerprint, NONE) == id) {
+                stripe.remove(fingerprint, NONE);
+            }
+        }
+        if (!overflow.isEmpty()) {
+            overflow.remove(normalize(value), id);
+        }
+    }
+
+    // Returns the ID holding value, or NONE.
+    long find(String value) {
+        long fingerprint = fingerprint(value);
+        LongLongHashMap stripe = stripe(fingerprint);
+        long owner;
+        synchronized (stripe) {
+            owner = stripe.get(fingerprint, NONE);
+        }
+        if (owner != NONE && holder.holds(owner, value)) {
+            return owner;
+        }
+        if (!overflow.isEmpty()) {
+            Long overflowOwner = overflow.get(normalize(value));
+            if (overflowOwner != null) {
+                return overflowOwner;
+            }
+        }
+        return NONE;
+    }
+
+    void clear() {
+        for (LongLongHashMap stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+        overflow.clear();
+    }
+
+    // Equal after normalization, compared in place.
+    static boolean sameValue(String a, String b) {
+        int aStart = start(a);
+        int aEnd = end(a, aStart);
+        int bStart = start(b);
+        int bEnd = end(b, bStart);
+        if (aEnd - aStart != bEnd - bStart) {
+            return false;
+        }
+        for (int i = 0; i < aEnd - aStart; i++) {
+            if (Character.toLowerCase(a.charAt(aStart + i)) != Character.toLowerCase(b.charAt(bStart + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a over the normalized characters, finished with a 64-bit mixer.
+    static long fingerprint(String value) {
+        int start = start(value);
+        int end = end(value, start);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash ^= Character.toLowerCase(value.charAt(i));
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static String normalize(String value) {
+        int start = start(value);
+        int end = end(value, start);
+        StringBuilder normalized = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            normalized.append(Character.toLowerCase(value.charAt(i)));
+        }
+        return normalized.toString();
+    }
+
+    private static int start(String value) {
+        int start = 0;
+        while (start < value.length() && Character.isWhitespace(value.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int end(String value, int start) {
+        int end = value.length();
+        while (end > start && Character.isWhitespace(value.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private LongLongHashMap stripe(long fingerprint) {
+        return stripes[(int) (fingerprint >>> 58)];
+    }
+}
@@ -1,99 +1,200 @@
 package org.example.event;
 
+import org.example.utils.FieldValidator;
+
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Event {
     private final long id;
-    private String name;
-    private String location;
-    private LocalDateTime date;
-    private int nmbTickets;
+    private final AtomicReference<EventSnapshot> snapshot;
+    private volatile int nmbTickets;
+    // What EventDateIndex and EventSearchIndex currently file this event under, guarded by the event's monitor.
+    LocalDateTime indexedDate;
+    String indexedName;
+    String indexedLocation;
+    // Whether the event is stored in the EventService and mirrors its inventory into the SoldOutRegistry,
+    // guarded by the event's monitor. Copies and events that were never stored leave the registry alone.
+    private boolean tracked;
 
     public Event(long id, String name, String location, LocalDateTime date, int nmbTickets) {
         this.id = id;
-        this.name = name;
-        this.location = location;
-        if (!date.isAfter(LocalDateTime.now())) {
-            throw new IllegalArgumentException("Date must be in the future");
-        }
-        this.date = date;
-        if (nmbTickets < 0) {
-            throw new IllegalArgumentException("Number of tickets cannot be negative");
-        }
+        checkName(name);
+        checkLocation(location);
+        checkDate(date);
+        checkNmbTickets(nmbTickets);
+        this.snapshot = new AtomicReference<>(new EventSnapshot(1, name, location, date));
+        this.nmbTickets = nmbTickets;
+    }
+
+    // Rebuilds an event that was validated elsewhere, keeping its version. The date may already have passed.
+    Event(long id, EventSnapshot snapshot, int nmbTickets) {
+        this.id = id;
+        this.snapshot = new AtomicReference<>(snapshot);
         this.nmbTickets = nmbTickets;
     }
 
     public Event(Event other) {
-        this(other.id, other.name, other.location, other.date, other.nmbTickets);
+        this(other.id, other.getName(), other.getLocation(), other.getDate(), other.nmbTickets);
     }
 
     public long getId() {
         return id;
     }
 
+    public EventSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    public long getVersion() {
+        return snapshot.get().getVersion();
+    }
+
     public String getName() {
-        return name;
+        return snapshot.get().getName();
     }
 
-    public void setName(String name) {
-        if (name == null || name.isBlank()) {
-            throw new IllegalArgumentException("Name cannot be null or empty");
-        }
-        this.name = name;
+    void setName(String name) {
+        checkName(name);
+        EventSnapshot current;
+        do {
+            current = snapshot.get();
+        } while (!snapshot.compareAndSet(current,
+                new EventSnapshot(current.getVersion() + 1, name, current.getLocation(), current.getDate())));
     }
 
     public String getLocation() {
-        return location;
+        return snapshot.get().getLocation();
     }
 
-    public void setLocation(String location) {
-        if (location == null || location.isBlank()) {
-            throw new IllegalArgumentException("Location cannot be null or empty");
-        }
-        this.location = location;
+    void setLocation(String location) {
+        checkLocation(location);
+        EventSnapshot current;
+        do {
+            current = snapshot.get();
+        } while (!snapshot.compareAndSet(current,
+                new EventSnapshot(current.getVersion() + 1, current.getName(), location, current.getDate())));
     }
 
     public LocalDateTime getDate() {
-        return date;
+        return snapshot.get().getDate();
+    }
+
+    void setDate(LocalDateTime date) {
+        checkDate(date);
+        EventSnapshot current;
+        do {
+            current = snapshot.get();
+        } while (!snapshot.compareAndSet(current,
+                new EventSnapshot(current.getVersion() + 1, current.getName(), current.getLocation(), date)));
+    }
+
+    // Replaces name, location and date in one step, but only if nobody changed them since expectedVersion.
+    // Package-private like the setters: EventService.update re-files the event in its indexes afterwards.
+    boolean compareAndSet(long expectedVersion, String name, String location, LocalDateTime date) {
+        checkName(name);
+        checkLocation(location);
+        checkDate(date);
+        EventSnapshot current = snapshot.get();
+        if (current.getVersion() != expectedVersion) {
+            return false;
+        }
+        return snapshot.compareAndSet(current, new EventSnapshot(expectedVersion + 1, name, location, date));
+    }
+
+    // Same rules as the setters, without throwing.
+    public static boolean isValid(String name, String location, LocalDateTime date, int nmbTickets) {
+        return name != null && !name.isBlank()
+                && location != null && !location.isBlank()
+                && date != null && FieldValidator.isInFuture(date)
+                && nmbTickets >= 0;
+    }
+
+    static void checkName(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Name cannot be null or empty");
+        }
+    }
+
+    static void checkLocation(String location) {
+        if (location == null || location.isBlank()) {
+            throw new IllegalArgumentException("Location cannot be null or empty");
+        }
     }
 
-    public void setDate(LocalDateTime date) {
+    static void checkDate(LocalDateTime date) {
         if (date == null) {
             throw new IllegalArgumentException("Date cannot be null");
         }
-        if (!date.isAfter(LocalDateTime.now())) {
+        if (!FieldValidator.isInFuture(date)) {
             throw new IllegalArgumentException("Date must be in the future");
         }
-        this.date = date;
+    }
+
+    static void checkNmbTickets(int nmbTickets) {
+        if (nmbTickets < 0) {
+            throw new IllegalArgumentException("Number of tickets cannot be negative");
+        }
     }
 
     public int getNmbTickets() {
         return nmbTickets;
     }
 
-    public void setNmbTickets(int nmbTickets) {
-        if (nmbTickets < 0) {
-            throw new IllegalArgumentException("Number of tickets cannot be negative");
-        }
+    public synchronized void setNmbTickets(int nmbTickets) {
+        checkNmbTickets(nmbTickets);
         this.nmbTickets = nmbTickets;
+        updateSoldOut();
     }
 
-    public void decreaseNmbTickets() {
+    public synchronized void decreaseNmbTickets() {
         if (nmbTickets == 0) {
             throw new RuntimeException("Can't decrease amount of tickets below 0");
         }
         this.nmbTickets -= 1;
+        updateSoldOut();
     }
 
-    public void increaseNmbTickets() {
+    public synchronized boolean tryDecreaseNmbTickets(int amount) {
+        if (amount <= 0 || nmbTickets < amount) {
+            return false;
+        }
+        this.nmbTickets -= amount;
+        updateSoldOut();
+        return true;
+    }
+
+    public synchronized void increaseNmbTickets() {
         this.nmbTickets += 1;
+        updateSoldOut();
+    }
+
+    public synchronized void increaseNmbTickets(int amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount cannot be negative");
+        }
+        this.nmbTickets += amount;
+        updateSoldOut();
+    }
+
+    synchronized void setTracked(boolean tracked) {
+        this.tracked = tracked;
+        SoldOutRegistry.getInstance().update(id, tracked && nmbTickets == 0);
+    }
+
+    // Called with the monitor held so the registry flips together with the inventory.
+    private void updateSoldOut() {
+        if (tracked) {
+            SoldOutRegistry.getInstance().update(id, nmbTickets == 0);
+        }
     }
 
     @Override
     public String toString() {
+        EventSnapshot current = snapshot.get();
         return String.format(
                 "Id: %d%nName: %s%nLocation: %s%nDate: %s%nNumber of Tickets: %d",
-                id, name, location, date, nmbTickets
+                id, current.getName(), current.getLocation(), current.getDate(), nmbTickets
         );
     }
 }
\ No newline at end of file
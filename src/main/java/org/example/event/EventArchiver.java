@@ -0,0 +1,127 @@
+package org.example.event;
+
+import org.example.bulk.BulkFormat;
+import org.example.bulk.RecordSchema;
+import org.example.bulk.RecordWriter;
+import org.example.ticket.Ticket;
+import org.example.ticket.TicketService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+
+// Background sweeper that moves events whose date has passed, and their tickets, out of the services
+// into binary archive files, one pair per sweep. The files are completed before anything is deleted,
+// so a crash can leave an event or ticket archived and still live, but never lost. Archives use the
+// EVENT and TICKET schemas and can be read back with BulkImporter.
+public class EventArchiver implements AutoCloseable {
+    private final EventServiceInterface eventService;
+    private final TicketService ticketService;
+    private final Path directory;
+    private final Duration interval;
+    private Thread sweeper;
+    private volatile boolean running = true;
+
+    public EventArchiver(EventServiceInterface eventService, TicketService ticketService, Path directory,
+                         Duration interval) throws IOException {
+        this.eventService = eventService;
+        this.ticketService = ticketService;
+        this.directory = Files.createDirectories(directory);
+        this.interval = interval;
+    }
+
+    // The sweeper is created here rather than in the constructor, so it never sees a half-built archiver.
+    public synchronized void start() {
+        if (sweeper != null) {
+            throw new IllegalStateException("Archiver already started");
+        }
+        sweeper = new Thread(() -> {
+            while (running) {
+                try {
+                    Thread.sleep(interval.toMillis());
+                    sweep();
+                } catch (InterruptedException e) {
+                    return;
+                } catch (IOException e) {
+                    System.out.println("Archiving passed events failed: " + e.getMessage());
+                }
+            }
+        }, "event-archiver");
+        sweeper.setDaemon(true);
+        sweeper.start();
+    }
+
+    // Returns how many events were archived and removed. Tickets are archived and purged before their
+    // event is deleted, so the deletion only refunds tickets sold after the archive file was written.
+    public int sweep() throws IOException {
+        LocalDateTime cutoff = LocalDateTime.now();
+        Event[] passed = eventService.getBetween(LocalDateTime.MIN, cutoff);
+        if (passed.length == 0) {
+            return 0;
+        }
+        long stamp = System.currentTimeMillis();
+        Path eventFile = directory.resolve("events-" + stamp + ".bin");
+        Path ticketFile = directory.resolve("tickets-" + stamp + ".bin");
+        try (RecordWriter writer = BulkFormat.BINARY.openWriter(eventFile, RecordSchema.EVENT)) {
+            for (Event event : passed) {
+                writer.writeLong(event.getId());
+                writer.writeString(event.getName());
+                writer.writeString(event.getLocation());
+                writer.writeDateTime(event.getDate());
+                writer.writeInt(event.getNmbTickets());
+                writer.endRecord();
+            }
+        }
+        long[][] ticketIds = new long[passed.length][];
+        try (RecordWriter writer = BulkFormat.BINARY.openWriter(ticketFile, RecordSchema.TICKET)) {
+            for (int i = 0; i < passed.length; i++) {
+                Ticket[] tickets = ticketService.getByEvent(passed[i].getId());
+                ticketIds[i] = new long[tickets.length];
+                for (int j = 0; j < tickets.length; j++) {
+                    ticketIds[i][j] = tickets[j].getId();
+                    writer.writeLong(tickets[j].getId());
+                    writer.writeDateTime(tickets[j].getPurchaseDate());
+                    writer.writeLong(tickets[j].getCustomerId());
+                    writer.writeLong(tickets[j].getEventId());
+                    writer.endRecord();
+                }
+            }
+        }
+        int archived = 0;
+        for (int i = 0; i < passed.length; i++) {
+            Event event = passed[i];
+            if (!event.getDate().isBefore(cutoff)) {
+                continue;
+            }
+            ticketService.archive(event.getId(), ticketIds[i]);
+            try {
+                eventService.delete(event.getId());
+                archived++;
+            } catch (NoSuchElementException ignored) {
+                // deleted by someone else in the meantime
+            }
+        }
+        return archived;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        Thread started;
+        synchronized (this) {
+            started = sweeper;
+        }
+        if (started == null) {
+            return;
+        }
+        started.interrupt();
+        try {
+            started.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.event;
+
+import java.time.LocalDateTime;
+
+// Input row for bulk event creation.
+public class EventData {
+    private final String name;
+    private final String location;
+    private final LocalDateTime date;
+    private final int nmbTickets;
+
+    public EventData(String name, String location, LocalDateTime date, int nmbTickets) {
+        this.name = name;
+        this.location = location;
+        this.date = date;
+        this.nmbTickets = nmbTickets;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public int getNmbTickets() {
+        return nmbTickets;
+    }
+}
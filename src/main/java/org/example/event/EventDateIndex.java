@@ -0,0 +1,87 @@
+package org.example.event;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Events ordered by (date, id). An event's entry is only moved while holding the event's monitor,
+// and always to the date the event has at that moment, so racing updates settle on the latest date.
+final class EventDateIndex {
+    private final ConcurrentSkipListMap<Key, Event> index = new ConcurrentSkipListMap<>();
+
+    void add(Event event) {
+        synchronized (event) {
+            event.indexedDate = event.getDate();
+            index.put(new Key(event.indexedDate, event.getId()), event);
+        }
+    }
+
+    void reindex(Event event) {
+        synchronized (event) {
+            LocalDateTime date = event.getDate();
+            if (event.indexedDate == null || event.indexedDate.equals(date)) {
+                return;
+            }
+            index.remove(new Key(event.indexedDate, event.getId()));
+            event.indexedDate = date;
+            index.put(new Key(date, event.getId()), event);
+        }
+    }
+
+    void remove(Event event) {
+        synchronized (event) {
+            if (event.indexedDate != null) {
+                index.remove(new Key(event.indexedDate, event.getId()));
+                event.indexedDate = null;
+            }
+        }
+    }
+
+    void clear() {
+        index.clear();
+    }
+
+    // From inclusive, to exclusive.
+    Event[] between(LocalDateTime from, LocalDateTime to) {
+        NavigableMap<Key, Event> range = index.subMap(new Key(from, Long.MIN_VALUE), true, new Key(to, Long.MIN_VALUE), false);
+        return range.values().toArray(new Event[0]);
+    }
+
+    Event[] firstFrom(LocalDateTime from, int limit) {
+        List<Event> found = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<Event> events = index.tailMap(new Key(from, Long.MIN_VALUE), true).values().iterator();
+        while (found.size() < limit && events.hasNext()) {
+            found.add(events.next());
+        }
+        return found.toArray(new Event[0]);
+    }
+
+    private static final class Key implements Comparable<Key> {
+        private final LocalDateTime date;
+        private final long id;
+
+        private Key(LocalDateTime date, long id) {
+            this.date = date;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byDate = date.compareTo(other.date);
+            return byDate != 0 ? byDate : Long.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && compareTo((Key) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return date.hashCode() * 31 + Long.hashCode(id);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package org.example.event;
+
+import org.example.utils.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Inverted index from lower-cased name and location tokens to event IDs. Terms live in a sorted map
+// so a prefix is a sub-map range; each term's postings are a primitive set of IDs guarded by its own
+// monitor. An event's entries are changed while holding the event's monitor, against the text it
+// was last indexed with, so racing updates settle on the latest name and location.
+final class EventSearchIndex {
+    private static final int MAX_ESTIMATED_TERMS = 256;
+
+    private final ConcurrentSkipListMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+    private final Map<Long, Event> events;
+
+    EventSearchIndex(Map<Long, Event> events) {
+        this.events = events;
+    }
+
+    void add(Event event) {
+        synchronized (event) {
+            EventSnapshot snapshot = event.getSnapshot();
+            for (String term : terms(snapshot.getName(), snapshot.getLocation())) {
+                addId(term, event.getId());
+            }
+            event.indexedName = snapshot.getName();
+            event.indexedLocation = snapshot.getLocation();
+        }
+    }
+
+    void reindex(Event event) {
+        synchronized (event) {
+            if (event.indexedName == null) {
+                return;
+            }
+            EventSnapshot snapshot = event.getSnapshot();
+            if (snapshot.getName().equals(event.indexedName) && snapshot.getLocation().equals(event.indexedLocation)) {
+                return;
+            }
+            Set<String> before = terms(event.indexedName, event.indexedLocation);
+            Set<String> after = terms(snapshot.getName(), snapshot.getLocation());
+            for (String term : before) {
+                if (!after.contains(term)) {
+                    removeId(term, event.getId());
+                }
+            }
+            for (String term : after) {
+                if (!before.contains(term)) {
+                    addId(term, event.getId());
+                }
+            }
+            event.indexedName = snapshot.getName();
+            event.indexedLocation = snapshot.getLocation();
+        }
+    }
+
+    void remove(Event event) {
+        synchronized (event) {
+            if (event.indexedName == null) {
+                return;
+            }
+            for (String term : terms(event.indexedName, event.indexedLocation)) {
+                removeId(term, event.getId());
+            }
+            event.indexedName = null;
+            event.indexedLocation = null;
+        }
+    }
+
+    void clear() {
+        terms.clear();
+    }
+
+    // Every query token has to be a prefix of some token of the event's name or location. Postings of
+    // the most selective token drive the search, the other tokens are checked against the candidate itself.
+    Event[] search(String query, int limit) {
+        Set<String> tokens = terms(query, "");
+        if (tokens.isEmpty() || limit <= 0) {
+            return new Event[0];
+        }
+        String driver = null;
+        long driverCost = Long.MAX_VALUE;
+        for (String token : tokens) {
+            long cost = estimate(token, driverCost);
+            if (driver == null || cost < driverCost) {
+                driver = token;
+                driverCost = cost;
+            }
+        }
+        tokens.remove(driver);
+        List<Event> found = new ArrayList<>(Math.min(limit, 64));
+        LongHashSet seen = new LongHashSet(Math.min(limit, 64));
+        for (Postings postings : smallestFirst(driver)) {
+            synchronized (postings) {
+                postings.ids.forEach(id -> {
+                    if (seen.add(id)) {
+                        Event event = events.get(id);
+                        if (event != null && (tokens.isEmpty() || matchesAll(event, tokens))) {
+                            found.add(event);
+                        }
+                    }
+                    return found.size() < limit;
+                });
+            }
+            if (found.size() >= limit) {
+                break;
+            }
+        }
+        return found.toArray(new Event[0]);
+    }
+
+    // Number of postings under the prefix, giving up once it is known to be at least cap. Sizes are
+    // read without the postings' monitors; an estimate is all the caller needs.
+    private long estimate(String prefix, long cap) {
+        long cost = 0;
+        int visited = 0;
+        for (Postings postings : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            cost += postings.ids.size();
+            if (cost >= cap || ++visited > MAX_ESTIMATED_TERMS) {
+                return cap;
+            }
+        }
+        return cost;
+    }
+
+    // Rarer terms first: with several query tokens a large term can be full of candidates that all fail
+    // the other tokens, e.g. every event at one venue while looking for another venue.
+    private Iterable<Postings> smallestFirst(String prefix) {
+        Collection<Postings> range = terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        List<Postings> sorted = new ArrayList<>();
+        for (Postings postings : range) {
+            if (sorted.size() == MAX_ESTIMATED_TERMS) {
+                return range;
+            }
+            sorted.add(postings);
+        }
+        sorted.sort(Comparator.comparingInt(postings -> postings.ids.size()));
+        return sorted;
+    }
+
+    private static boolean matchesAll(Event event, Set<String> prefixes) {
+        EventSnapshot snapshot = event.getSnapshot();
+        for (String prefix : prefixes) {
+            if (!hasTermWithPrefix(snapshot.getName(), prefix) && !hasTermWithPrefix(snapshot.getLocation(), prefix)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Same tokens as tokenize. Each token is lower-cased on its own, as case mapping can change the
+    // length of the text and with it where the next token starts.
+    private static boolean hasTermWithPrefix(String text, String prefix) {
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                if (text.substring(start, i).toLowerCase(Locale.ROOT).startsWith(prefix)) {
+                    return true;
+                }
+                start = -1;
+            }
+        }
+        return false;
+    }
+
+    private void addId(String term, long id) {
+        while (true) {
+            Postings postings = terms.computeIfAbsent(term, t -> new Postings());
+            synchronized (postings) {
+                if (!postings.removed) {
+                    postings.ids.add(id);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void removeId(String term, long id) {
+        Postings postings = terms.get(term);
+        if (postings == null) {
+            return;
+        }
+        synchronized (postings) {
+            postings.ids.remove(id);
+            if (postings.ids.size() == 0) {
+                // Writers that still hold this instance see the flag and create a fresh one.
+                postings.removed = true;
+                terms.remove(term, postings);
+            }
+        }
+    }
+
+    // Runs of letters and digits from both texts, lower-cased independent of the default locale, without duplicates.
+    static Set<String> terms(String first, String second) {
+        Set<String> terms = new HashSet<>();
+        tokenize(first, terms);
+        tokenize(second, terms);
+        return terms;
+    }
+
+    private static void tokenize(String text, Set<String> terms) {
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+
+    private static final class Postings {
+        private final LongHashSet ids = new LongHashSet(2);
+        private boolean removed;
+    }
+}
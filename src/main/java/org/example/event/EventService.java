@@ -1,20 +1,36 @@
 package org.example.event;
 
-import org.example.utils.IDService;
-import org.example.utils.IDServiceParallel;
+import org.example.feed.ChangeFeed;
+import org.example.feed.ChangeType;
+import org.example.report.SalesReport;
+import org.example.utils.CoarseClock;
+import org.example.utils.IdAllocator;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
 
 public class EventService implements EventServiceInterface {
-    private final HashMap<Long, Event> events;
-    private final IDServiceParallel idService;
+    private final Map<Long, Event> events;
+    private final EventDateIndex dateIndex = new EventDateIndex();
+    private final EventSearchIndex searchIndex;
+    private final IdAllocator idService;
+    private final ChangeFeed changeFeed = ChangeFeed.getInstance();
+    private final SalesReport salesReport = SalesReport.getInstance();
+    // Purge state other services keep per event, before the event's ID can be handed out again.
+    private final List<LongConsumer> removalListeners = new CopyOnWriteArrayList<>();
     private static EventService INSTANCE;
 
     private EventService() throws InterruptedException {
-        this.events = new HashMap<>();
-        this.idService = new IDServiceParallel(10000);
+        this.events = new ConcurrentHashMap<>();
+        this.searchIndex = new EventSearchIndex(events);
+        this.idService = IdAllocator.forService("events", 10000);
     }
 
     public static EventService getInstance() throws InterruptedException {
@@ -27,11 +43,90 @@ public class EventService implements EventServiceInterface {
     @Override
     public Event add(String name, String location, LocalDateTime date, int nmbTickets) throws InterruptedException {
         long id = idService.getNew();
-        Event event = new Event(id, name, location, date, nmbTickets);
+        Event event;
+        try {
+            event = new Event(id, name, location, date, nmbTickets);
+        } catch (RuntimeException e) {
+            idService.delete(id);
+            throw e;
+        }
+        events.put(id, event);
+        index(event);
+        changeFeed.eventChanged(ChangeType.EVENT_ADDED, event);
+        return event;
+    }
+
+    // Validates every row in parallel first and only inserts if all of them are valid.
+    @Override
+    public Event[] addAll(List<EventData> rows) throws InterruptedException {
+        boolean[] valid = new boolean[rows.size()];
+        IntStream.range(0, valid.length).parallel().forEach(i -> {
+            EventData row = rows.get(i);
+            valid[i] = Event.isValid(row.getName(), row.getLocation(), row.getDate(), row.getNmbTickets());
+        });
+        for (int i = 0; i < valid.length; i++) {
+            if (!valid[i]) {
+                throw new IllegalArgumentException("Invalid event in row " + i);
+            }
+        }
+        long[] ids = idService.getNew(valid.length);
+        Event[] added = new Event[valid.length];
+        for (int i = 0; i < valid.length; i++) {
+            EventData row = rows.get(i);
+            added[i] = new Event(ids[i], row.getName(), row.getLocation(), row.getDate(), row.getNmbTickets());
+            events.put(ids[i], added[i]);
+            index(added[i]);
+            changeFeed.eventChanged(ChangeType.EVENT_ADDED, added[i]);
+        }
+        return added;
+    }
+
+    // Re-creates an event under the ID and version it had on another node, e.g. when promoting a replica.
+    @Override
+    public Event restore(long id, long version, String name, String location, LocalDateTime date, int nmbTickets) {
+        Event.checkName(name);
+        Event.checkLocation(location);
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        Event.checkNmbTickets(nmbTickets);
+        idService.claim(id);
+        Event event = new Event(id, new EventSnapshot(version, name, location, date), nmbTickets);
         events.put(id, event);
+        index(event);
+        changeFeed.eventChanged(ChangeType.EVENT_ADDED, event);
         return event;
     }
 
+    @Override
+    public void addRemovalListener(LongConsumer listener) {
+        removalListeners.add(listener);
+    }
+
+    @Override
+    public void removeRemovalListener(LongConsumer listener) {
+        removalListeners.remove(listener);
+    }
+
+    private void removed(long id) {
+        for (LongConsumer listener : removalListeners) {
+            listener.accept(id);
+        }
+    }
+
+    // Indexes an event and mirrors its inventory into the SoldOutRegistry right after storing it. A
+    // delete in between had nothing to undo yet, so both are undone here if the event is already gone.
+    private void index(Event event) {
+        event.setTracked(true);
+        dateIndex.add(event);
+        searchIndex.add(event);
+        if (events.get(event.getId()) != event) {
+            dateIndex.remove(event);
+            searchIndex.remove(event);
+            event.setTracked(false);
+        }
+    }
+
     @Override
     public Event get(long id) {
         Event event = events.get(id);
@@ -41,22 +136,77 @@ public class EventService implements EventServiceInterface {
         return event;
     }
 
+    public Event find(long id) {
+        return events.get(id);
+    }
+
+    @Override
+    public EventSnapshot getSnapshot(long id) {
+        return get(id).getSnapshot();
+    }
+
     @Override
     public void update(long id, String name, String location, LocalDateTime date, int nmbTickets) {
         Event event = get(id);
-        event.setName(name);
-        event.setLocation(location);
-        event.setDate(date);
+        Event.checkNmbTickets(nmbTickets);
+        while (!event.compareAndSet(event.getVersion(), name, location, date)) {
+            Thread.onSpinWait();
+        }
+        dateIndex.reindex(event);
+        searchIndex.reindex(event);
         event.setNmbTickets(nmbTickets);
+        salesReport.relocate(id, location);
+        changeFeed.eventChanged(ChangeType.EVENT_UPDATED, event);
+    }
+
+    @Override
+    public boolean compareAndUpdate(long id, long expectedVersion, String name, String location, LocalDateTime date, int nmbTickets) {
+        Event event = get(id);
+        Event.checkNmbTickets(nmbTickets);
+        if (!event.compareAndSet(expectedVersion, name, location, date)) {
+            return false;
+        }
+        dateIndex.reindex(event);
+        searchIndex.reindex(event);
+        event.setNmbTickets(nmbTickets);
+        salesReport.relocate(id, location);
+        changeFeed.eventChanged(ChangeType.EVENT_UPDATED, event);
+        return true;
     }
 
     @Override
     public void delete(long id) {
-        if (!events.containsKey(id)) {
+        Event event = events.remove(id);
+        if (event == null) {
             throw new NoSuchElementException("No event found with ID " + id);
         }
-        events.remove(id);
+        dateIndex.remove(event);
+        searchIndex.remove(event);
+        event.setTracked(false);
+        removed(id);
         idService.delete(id);
+        salesReport.eventRemoved(id);
+        changeFeed.eventChanged(ChangeType.EVENT_DELETED, event);
+    }
+
+    @Override
+    public void forEach(Consumer<Event> action) {
+        events.values().forEach(action);
+    }
+
+    @Override
+    public Event[] getBetween(LocalDateTime from, LocalDateTime to) {
+        return dateIndex.between(from, to);
+    }
+
+    @Override
+    public Event[] getUpcoming(int limit) {
+        return dateIndex.firstFrom(CoarseClock.now(), limit);
+    }
+
+    @Override
+    public Event[] search(String query, int limit) {
+        return searchIndex.search(query, limit);
     }
 
     @Override
@@ -66,9 +216,16 @@ public class EventService implements EventServiceInterface {
 
     @Override
     public void deleteAll() {
-        for (Long id : events.keySet()) {
+        for (Event event : events.values()) {
+            long id = event.getId();
+            event.setTracked(false);
+            removed(id);
             idService.delete(id);
+            salesReport.eventRemoved(id);
         }
         events.clear();
+        dateIndex.clear();
+        searchIndex.clear();
+        changeFeed.cleared(ChangeType.EVENTS_CLEARED);
     }
 }
\ No newline at end of file
@@ -1,17 +1,41 @@
 package org.example.event;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 public interface EventServiceInterface {
     Event add(String name, String location, LocalDateTime date, int nmbTickets) throws InterruptedException;
 
+    Event[] addAll(List<EventData> events) throws InterruptedException;
+
+    Event restore(long id, long version, String name, String location, LocalDateTime date, int nmbTickets);
+
     Event get(long id);
 
+    EventSnapshot getSnapshot(long id);
+
     void update(long id, String name, String location, LocalDateTime date, int nmbTickets);
 
+    boolean compareAndUpdate(long id, long expectedVersion, String name, String location, LocalDateTime date, int nmbTickets);
+
     void delete(long id);
 
     Event[] getAll();
 
+    void forEach(Consumer<Event> action);
+
+    Event[] getBetween(LocalDateTime from, LocalDateTime to);
+
+    Event[] getUpcoming(int limit);
+
+    Event[] search(String query, int limit);
+
     void deleteAll();
+
+    // Called with the ID of every deleted event, before the ID can be handed out again.
+    void addRemovalListener(LongConsumer listener);
+
+    void removeRemovalListener(LongConsumer listener);
 }
@@ -0,0 +1,34 @@
+package org.example.event;
+
+import java.time.LocalDateTime;
+
+// Immutable, versioned view of an event's descriptive fields. Inventory is tracked separately on Event.
+public final class EventSnapshot {
+    private final long version;
+    private final String name;
+    private final String location;
+    private final LocalDateTime date;
+
+    EventSnapshot(long version, String name, String location, LocalDateTime date) {
+        this.version = version;
+        this.name = name;
+        this.location = location;
+        this.date = date;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.event;
+
+// Thrown on the sold-out fast path; shared and stackless so rejecting costs no allocation.
+public class SoldOutException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    public static final SoldOutException INSTANCE = new SoldOutException();
+
+    private SoldOutException() {
+        super("Event is sold out", null, false, false);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.event;
+
+import org.example.utils.IDServiceParallel;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// One bit per event ID in the 2^31 IDs above IDServiceParallel.LOWER_BOUND, in lazily allocated pages.
+// IDs outside that window, as the snowflake allocator and far-off leased ranges hand out, are kept in
+// a concurrent set instead, so the registry works whatever allocator the events use.
+public class SoldOutRegistry {
+    private static final int PAGE_BITS = 18;
+    private static final int WORDS_PER_PAGE = 1 << (PAGE_BITS - 6);
+    private static final long MAX_OFFSET = 1L << 31;
+
+    private final long base;
+    private final AtomicReferenceArray<AtomicLongArray> pages;
+    private final Set<Long> outside = ConcurrentHashMap.newKeySet();
+    private static final SoldOutRegistry INSTANCE = new SoldOutRegistry(IDServiceParallel.LOWER_BOUND);
+
+    SoldOutRegistry(long base) {
+        this.base = base;
+        this.pages = new AtomicReferenceArray<>((int) (MAX_OFFSET >>> PAGE_BITS));
+    }
+
+    public static SoldOutRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isSoldOut(long eventId) {
+        long offset = eventId - base;
+        if (offset < 0 || offset >= MAX_OFFSET) {
+            return !outside.isEmpty() && outside.contains(eventId);
+        }
+        AtomicLongArray page = pages.get((int) (offset >>> PAGE_BITS));
+        if (page == null) {
+            return false;
+        }
+        int bit = (int) (offset & ((1 << PAGE_BITS) - 1));
+        return (page.get(bit >>> 6) & (1L << bit)) != 0;
+    }
+
+    void update(long eventId, boolean soldOut) {
+        long offset = eventId - base;
+        if (offset < 0 || offset >= MAX_OFFSET) {
+            if (soldOut) {
+                outside.add(eventId);
+            } else {
+                outside.remove(eventId);
+            }
+            return;
+        }
+        int pageIndex = (int) (offset >>> PAGE_BITS);
+        AtomicLongArray page = pages.get(pageIndex);
+        if (page == null) {
+            if (!soldOut) {
+                return;
+            }
+            pages.compareAndSet(pageIndex, null, new AtomicLongArray(WORDS_PER_PAGE));
+            page = pages.get(pageIndex);
+        }
+        int bit = (int) (offset & ((1 << PAGE_BITS) - 1));
+        long mask = 1L << bit;
+        int word = bit >>> 6;
+        long current;
+        do {
+            current = page.get(word);
+            if (((current & mask) != 0) == soldOut) {
+                return;
+            }
+        } while (!page.compareAndSet(word, current, current ^ mask));
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.feed;
+
+import org.example.customer.Customer;
+import org.example.customer.CustomerSnapshot;
+import org.example.event.Event;
+import org.example.event.EventSnapshot;
+import org.example.ticket.Ticket;
+
+import java.lang.invoke.VarHandle;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Multi-producer ring buffer of preallocated ChangeRecord slots. Publishers claim a sequence with a
+// CAS and fill the slot in place; every Subscription reads with its own cursor. Only BLOCK
+// subscribers hold publishers back, DROP subscribers are lapped instead, so the purchase path can
+// only wait if someone explicitly asked for a lossless subscription and let it fall a ring behind.
+// Nothing is written while there are no subscribers.
+public class ChangeFeed {
+    private static final int CAPACITY = 1 << 16;
+
+    private final ChangeRecord[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Lowest cursor of any BLOCK subscriber as last seen; only recomputed when a publisher reaches it.
+    private volatile long gatingCursor;
+    private static ChangeFeed INSTANCE;
+
+    ChangeFeed(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.slots = new ChangeRecord[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new ChangeRecord();
+        }
+        this.mask = capacity - 1;
+    }
+
+    public static synchronized ChangeFeed getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new ChangeFeed(CAPACITY);
+        }
+        return INSTANCE;
+    }
+
+    public Subscription subscribe(OverflowPolicy policy) {
+        Subscription subscription = new Subscription(this, policy, claimed.get() + 1);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    public void eventChanged(ChangeType type, Event event) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        EventSnapshot snapshot = event.getSnapshot();
+        publish(type, event.getId(), snapshot.getVersion(), 0, event.getId(), event.getNmbTickets(),
+                snapshot.getName(), snapshot.getLocation(), snapshot.getDate());
+    }
+
+    public void customerChanged(ChangeType type, Customer customer) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        CustomerSnapshot snapshot = customer.getSnapshot();
+        publish(type, customer.getId(), snapshot.getVersion(), customer.getId(), 0, 0,
+                snapshot.getUsername(), snapshot.getEmail(), snapshot.getBirthday());
+    }
+
+    public void ticketChanged(ChangeType type, Ticket ticket) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        publish(type, ticket.getId(), 0, ticket.getCustomerId(), ticket.getEventId(), 1, null, null,
+                ticket.getPurchaseDate());
+    }
+
+    // For inventory changes that aren't a sale or refund of a single ticket.
+    public void inventoryChanged(Event event) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        publish(ChangeType.INVENTORY_CHANGED, event.getId(), 0, 0, event.getId(), event.getNmbTickets(), null, null,
+                null);
+    }
+
+    public void cleared(ChangeType type) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        publish(type, 0, 0, 0, 0, 0, null, null, null);
+    }
+
+    private void publish(ChangeType type, long id, long version, long customerId, long eventId, int count,
+                         String name, String detail, LocalDateTime date) {
+        long sequence = claim();
+        ChangeRecord slot = slots[(int) (sequence & mask)];
+        slot.sequence = -1;
+        VarHandle.storeStoreFence();
+        slot.set(type, id, version, customerId, eventId, count, name, detail, date);
+        slot.sequence = sequence;
+    }
+
+    private long claim() {
+        while (true) {
+            long current = claimed.get();
+            long next = current + 1;
+            if (next - slots.length >= gatingCursor) {
+                long lowest = lowestBlockingCursor(next);
+                gatingCursor = lowest;
+                if (next - slots.length >= lowest) {
+                    LockSupport.parkNanos(1000);
+                    continue;
+                }
+            }
+            if (claimed.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private long lowestBlockingCursor(long next) {
+        long lowest = next;
+        for (Subscription subscription : subscriptions) {
+            if (subscription.policy == OverflowPolicy.BLOCK) {
+                lowest = Math.min(lowest, subscription.cursor);
+            }
+        }
+        return lowest;
+    }
+
+    ChangeRecord slot(long sequence) {
+        return slots[(int) (sequence & mask)];
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    long claimed() {
+        return claimed.get();
+    }
+}
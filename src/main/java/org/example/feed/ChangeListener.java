@@ -0,0 +1,9 @@
+package org.example.feed;
+
+public interface ChangeListener {
+    // The record is reused for the next change and must not be kept.
+    void onChange(ChangeRecord record);
+
+    default void endOfBatch() {
+    }
+}
@@ -0,0 +1,217 @@
+package org.example.feed;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// File sink for a Subscription: appends every change in a compact binary form and writes the buffer
+// out once per batch. replay() reads a log back into any listener, e.g. to rebuild a downstream view.
+// Layout: magic, then per record sequence, type, timestamp, id, version, customerId, eventId, count,
+// name, detail (length-prefixed UTF-8, -1 for null) and date (flag byte, epoch seconds UTC, nanos).
+public class ChangeLogFile implements ChangeListener, Closeable {
+    private static final int MAGIC = 0x45564143;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final ChangeType[] TYPES = ChangeType.values();
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    public ChangeLogFile(Path file) throws IOException {
+        boolean fresh = !Files.exists(file) || Files.size(file) == 0;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        if (fresh) {
+            buffer.putInt(MAGIC);
+        }
+    }
+
+    @Override
+    public void onChange(ChangeRecord record) {
+        try {
+            ensure(6 * Long.BYTES + Integer.BYTES + 1);
+            buffer.putLong(record.getSequence());
+            buffer.put((byte) record.getType().ordinal());
+            buffer.putLong(record.getTimestamp());
+            buffer.putLong(record.getId());
+            buffer.putLong(record.getVersion());
+            buffer.putLong(record.getCustomerId());
+            buffer.putLong(record.getEventId());
+            buffer.putInt(record.getCount());
+            putString(record.getName());
+            putString(record.getDetail());
+            LocalDateTime date = record.getDate();
+            ensure(1 + Long.BYTES + Integer.BYTES);
+            buffer.put((byte) (date == null ? 0 : 1));
+            if (date != null) {
+                buffer.putLong(date.toEpochSecond(ZoneOffset.UTC));
+                buffer.putInt(date.getNano());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void endOfBatch() {
+        try {
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Feeds every logged change with a sequence of at least fromSequence to the listener, in file order.
+    public static long replay(Path file, long fromSequence, ChangeListener listener) throws IOException {
+        ChangeRecord record = new ChangeRecord();
+        long replayed = 0;
+        try (LogReader reader = new LogReader(file)) {
+            while (reader.fill(6 * Long.BYTES + Integer.BYTES + 1)) {
+                ByteBuffer buffer = reader.buffer;
+                long sequence = buffer.getLong();
+                int type = buffer.get();
+                if (type < 0 || type >= TYPES.length) {
+                    throw new IOException("Corrupt change type " + type);
+                }
+                long timestamp = buffer.getLong();
+                long id = buffer.getLong();
+                long version = buffer.getLong();
+                long customerId = buffer.getLong();
+                long eventId = buffer.getLong();
+                int count = buffer.getInt();
+                String name = reader.getString();
+                String detail = reader.getString();
+                LocalDateTime date = reader.getDate();
+                if (sequence >= fromSequence) {
+                    record.restore(sequence, TYPES[type], timestamp, id, version, customerId, eventId, count,
+                            name, detail, date);
+                    listener.onChange(record);
+                    replayed++;
+                }
+            }
+            if (reader.buffer.hasRemaining()) {
+                throw new IOException("Truncated change log: " + file);
+            }
+        }
+        if (replayed > 0) {
+            listener.endOfBatch();
+        }
+        return replayed;
+    }
+
+    private void putString(String value) throws IOException {
+        if (value == null) {
+            ensure(Integer.BYTES);
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(Integer.BYTES);
+        buffer.putInt(bytes.length);
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static final class LogReader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private byte[] scratch = new byte[256];
+
+        private LogReader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            buffer.flip();
+            if (!fill(Integer.BYTES) || buffer.getInt() != MAGIC) {
+                channel.close();
+                throw new IOException("Not an EVA change log: " + file);
+            }
+        }
+
+        private String getString() throws IOException {
+            require(Integer.BYTES);
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            int offset = 0;
+            while (offset < length) {
+                require(1);
+                int chunk = Math.min(buffer.remaining(), length - offset);
+                buffer.get(scratch, offset, chunk);
+                offset += chunk;
+            }
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private LocalDateTime getDate() throws IOException {
+            require(1);
+            if (buffer.get() == 0) {
+                return null;
+            }
+            require(Long.BYTES + Integer.BYTES);
+            return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        }
+
+        private void require(int bytes) throws IOException {
+            if (!fill(bytes)) {
+                throw new IOException("Truncated change log");
+            }
+        }
+
+        private boolean fill(int bytes) throws IOException {
+            while (buffer.remaining() < bytes) {
+                buffer.compact();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
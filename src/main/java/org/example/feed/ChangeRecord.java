@@ -0,0 +1,108 @@
+package org.example.feed;
+
+import java.time.LocalDateTime;
+
+// One change as seen by a subscriber. Which fields are set depends on the type:
+// events carry name, location as detail, date and nmbTickets as count; customers carry username,
+// email as detail and birthday as date; tickets carry customerId, eventId and the purchase date.
+// Ring slots are preallocated instances of this class that publishers overwrite in place.
+public final class ChangeRecord {
+    // Sequence of the change held in this slot, or -1 while a publisher is writing it.
+    volatile long sequence = -1;
+    private ChangeType type;
+    private long timestamp;
+    private long id;
+    private long version;
+    private long customerId;
+    private long eventId;
+    private int count;
+    private String name;
+    private String detail;
+    private LocalDateTime date;
+
+    ChangeRecord() {
+    }
+
+    void set(ChangeType type, long id, long version, long customerId, long eventId, int count, String name,
+             String detail, LocalDateTime date) {
+        this.type = type;
+        this.timestamp = System.currentTimeMillis();
+        this.id = id;
+        this.version = version;
+        this.customerId = customerId;
+        this.eventId = eventId;
+        this.count = count;
+        this.name = name;
+        this.detail = detail;
+        this.date = date;
+    }
+
+    void copyFrom(ChangeRecord other) {
+        this.type = other.type;
+        this.timestamp = other.timestamp;
+        this.id = other.id;
+        this.version = other.version;
+        this.customerId = other.customerId;
+        this.eventId = other.eventId;
+        this.count = other.count;
+        this.name = other.name;
+        this.detail = other.detail;
+        this.date = other.date;
+    }
+
+    void restore(long sequence, ChangeType type, long timestamp, long id, long version, long customerId, long eventId,
+                 int count, String name, String detail, LocalDateTime date) {
+        set(type, id, version, customerId, eventId, count, name, detail, date);
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    public long getEventId() {
+        return eventId;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    @Override
+    public String toString() {
+        return sequence + " " + type + " id=" + id;
+    }
+}
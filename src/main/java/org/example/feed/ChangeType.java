@@ -0,0 +1,17 @@
+package org.example.feed;
+
+public enum ChangeType {
+    EVENT_ADDED,
+    EVENT_UPDATED,
+    EVENT_DELETED,
+    EVENTS_CLEARED,
+    CUSTOMER_ADDED,
+    CUSTOMER_UPDATED,
+    CUSTOMER_DELETED,
+    CUSTOMERS_CLEARED,
+    TICKET_SOLD,
+    TICKET_REFUNDED,
+    TICKETS_CLEARED,
+    INVENTORY_CHANGED,
+    TICKET_ARCHIVED
+}
@@ -0,0 +1,9 @@
+package org.example.feed;
+
+// What happens when a subscriber falls a whole ring behind the publishers.
+public enum OverflowPolicy {
+    // Publishers wait for the subscriber, so it never misses a change.
+    BLOCK,
+    // Publishers overwrite; the subscriber skips ahead and counts what it lost.
+    DROP
+}
@@ -0,0 +1,109 @@
+package org.example.feed;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
+
+// One consumer's position in the ChangeFeed. Either drain it from your own thread or start() a
+// worker that drains batches into a listener until the subscription is closed.
+public class Subscription implements AutoCloseable {
+    private static final int BATCH_SIZE = 256;
+
+    final OverflowPolicy policy;
+    // Next sequence to read; everything before it has been handed to the listener.
+    volatile long cursor;
+    private final ChangeFeed feed;
+    private final ChangeRecord record = new ChangeRecord();
+    private volatile long dropped;
+    private volatile boolean closed;
+    private Thread worker;
+
+    Subscription(ChangeFeed feed, OverflowPolicy policy, long cursor) {
+        this.feed = feed;
+        this.policy = policy;
+        this.cursor = cursor;
+    }
+
+    // Hands up to max published changes to the listener in order and returns how many it got.
+    public int drain(int max, ChangeListener listener) {
+        long next = cursor;
+        int drained = 0;
+        while (drained < max) {
+            ChangeRecord slot = feed.slot(next);
+            if (slot.sequence == next) {
+                record.copyFrom(slot);
+                VarHandle.loadLoadFence();
+                // A DROP subscriber can be lapped while copying; the slot then holds a newer sequence.
+                if (slot.sequence == next) {
+                    record.sequence = next;
+                    listener.onChange(record);
+                    next++;
+                    drained++;
+                    continue;
+                }
+            }
+            long oldestAvailable = feed.claimed() - feed.capacity() + 1;
+            if (oldestAvailable > next) {
+                dropped += oldestAvailable - next;
+                next = oldestAvailable;
+                continue;
+            }
+            break;
+        }
+        cursor = next;
+        if (drained > 0) {
+            listener.endOfBatch();
+        }
+        return drained;
+    }
+
+    public synchronized void start(ChangeListener listener, String name) {
+        if (worker != null) {
+            throw new IllegalStateException("Subscription is already running");
+        }
+        worker = new Thread(() -> {
+            int idle = 0;
+            while (!closed) {
+                if (drain(BATCH_SIZE, listener) > 0) {
+                    idle = 0;
+                } else if (++idle < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(100_000);
+                }
+            }
+            drain((int) Math.min(Integer.MAX_VALUE, getLag()), listener);
+        }, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getLag() {
+        return feed.claimed() + 1 - cursor;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    // Stops the worker after it has drained what was published so far.
+    @Override
+    public void close() {
+        closed = true;
+        Thread running;
+        synchronized (this) {
+            running = worker;
+        }
+        if (running != null && running != Thread.currentThread()) {
+            try {
+                running.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        feed.unsubscribe(this);
+    }
+}
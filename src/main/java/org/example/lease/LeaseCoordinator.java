@@ -0,0 +1,9 @@
+package org.example.lease;
+
+import java.io.IOException;
+
+// Hands out disjoint ranges of IDs to the nodes of a cluster.
+public interface LeaseCoordinator {
+    // Reserves size consecutive IDs for node and returns the first of them.
+    long lease(String node, int size) throws IOException;
+}
@@ -0,0 +1,93 @@
+package org.example.lease;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Serves a LeaseCoordinator over TCP. Leases are rare, so each connection simply gets its own
+// thread. Request: node (UTF), size (int). Response: OK and the first ID, or FAILED and a message.
+public final class LeaseCoordinatorServer implements Closeable {
+    static final byte OK = 0;
+    static final byte FAILED = 1;
+
+    private final LeaseCoordinator coordinator;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+
+    public LeaseCoordinatorServer(LeaseCoordinator coordinator, InetSocketAddress address) throws IOException {
+        this.coordinator = coordinator;
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(address);
+        this.acceptor = new Thread(this::accept, "lease-coordinator");
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public void join() throws InterruptedException {
+        acceptor.join();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : connections) {
+            socket.close();
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                Thread handler = new Thread(() -> serve(socket), "lease-connection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.out.println("Lease coordinator accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(socket.getInputStream());
+             DataOutputStream out = new DataOutputStream(socket.getOutputStream())) {
+            while (true) {
+                String node = in.readUTF();
+                int size = in.readInt();
+                try {
+                    long start = coordinator.lease(node, size);
+                    out.writeByte(OK);
+                    out.writeLong(start);
+                } catch (IOException | IllegalArgumentException e) {
+                    out.writeByte(FAILED);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                }
+                out.flush();
+            }
+        } catch (EOFException ignored) {
+            // Client went away.
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                System.out.println("Lease connection failed: " + e.getMessage());
+            }
+        } finally {
+            connections.remove(socket);
+        }
+    }
+}
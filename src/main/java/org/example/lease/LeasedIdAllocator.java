@@ -0,0 +1,164 @@
+package org.example.lease;
+
+import org.example.utils.IdAllocator;
+import org.example.utils.StripedLongSet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+// Serves IDs from a range leased from a LeaseCoordinator. A background thread fetches the next range
+// once the current one is half used, so allocation only waits on the coordinator if it has been
+// unreachable for longer than it takes to use up half a lease. Failed leases are retried with
+// exponential backoff. Deleted IDs are never reused.
+public final class LeasedIdAllocator implements IdAllocator, Closeable {
+    private static final long MIN_BACKOFF_MILLIS = 10;
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
+    private final LeaseCoordinator coordinator;
+    private final String node;
+    private final int leaseSize;
+    private final StripedLongSet active = new StripedLongSet();
+    private final Thread refiller;
+    // Guarded by this: the current range [next, end) and the start of the prefetched one, or -1.
+    private long next;
+    private long end;
+    private long prefetched = -1;
+    private boolean refillRequested = true;
+    private long leases;
+    private long failures;
+    private volatile boolean closed;
+
+    public LeasedIdAllocator(LeaseCoordinator coordinator, String node, int leaseSize) {
+        if (leaseSize <= 0) {
+            throw new IllegalArgumentException("Lease size must be positive");
+        }
+        this.coordinator = coordinator;
+        this.node = node;
+        this.leaseSize = leaseSize;
+        this.refiller = new Thread(this::refill, "id-lease-" + node);
+        refiller.setDaemon(true);
+        refiller.start();
+    }
+
+    @Override
+    public long getNew() throws InterruptedException {
+        long id;
+        do {
+            synchronized (this) {
+                id = take();
+            }
+        } while (!active.add(id));
+        return id;
+    }
+
+    @Override
+    public long[] getNew(int count) throws InterruptedException {
+        long[] ids = new long[count];
+        synchronized (this) {
+            for (int i = 0; i < count; i++) {
+                ids[i] = take();
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            if (!active.add(ids[i])) {
+                ids[i] = getNew();
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public void delete(long id) {
+        if (!active.remove(id)) {
+            throw new NoSuchElementException("ID " + id + " not managed by LeasedIdAllocator");
+        }
+    }
+
+    @Override
+    public void claim(long id) {
+        if (!active.add(id)) {
+            throw new IllegalArgumentException("ID " + id + " is already in use");
+        }
+    }
+
+    @Override
+    public int activeCount() {
+        return active.size();
+    }
+
+    public synchronized long getLeases() {
+        return leases;
+    }
+
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        refiller.interrupt();
+        notifyAll();
+    }
+
+    private long take() throws InterruptedException {
+        while (next == end) {
+            if (prefetched >= 0) {
+                next = prefetched;
+                end = prefetched + leaseSize;
+                prefetched = -1;
+            } else {
+                if (closed) {
+                    throw new IllegalStateException("Allocator for " + node + " is closed");
+                }
+                requestRefill();
+                wait();
+            }
+        }
+        if (prefetched < 0 && end - next <= leaseSize / 2) {
+            requestRefill();
+        }
+        return next++;
+    }
+
+    private void requestRefill() {
+        if (!refillRequested) {
+            refillRequested = true;
+            notifyAll();
+        }
+    }
+
+    private void refill() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        try {
+            while (!closed) {
+                synchronized (this) {
+                    while (!refillRequested) {
+                        wait();
+                    }
+                }
+                long start;
+                try {
+                    start = coordinator.lease(node, leaseSize);
+                } catch (IOException e) {
+                    synchronized (this) {
+                        failures++;
+                    }
+                    Thread.sleep(backoff);
+                    backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+                    continue;
+                }
+                backoff = MIN_BACKOFF_MILLIS;
+                synchronized (this) {
+                    prefetched = start;
+                    leases++;
+                    refillRequested = false;
+                    notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed.
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.lease;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// In-process coordinator, used directly by tests and simulations and behind LeaseCoordinatorServer.
+// With a state file the high-water mark is persisted before a lease is granted, so a restarted
+// coordinator never hands out a range twice. setAvailable(false) makes every lease fail, to
+// simulate an outage.
+public class LocalLeaseCoordinator implements LeaseCoordinator {
+    private final Path stateFile;
+    private final Map<String, Long> leasedByNode = new HashMap<>();
+    private long next;
+    private volatile boolean available = true;
+
+    public LocalLeaseCoordinator(long firstId) {
+        this.stateFile = null;
+        this.next = firstId;
+    }
+
+    public LocalLeaseCoordinator(long firstId, Path stateFile) throws IOException {
+        this.stateFile = stateFile;
+        this.next = Files.exists(stateFile) ? Math.max(firstId, ByteBuffer.wrap(Files.readAllBytes(stateFile)).getLong()) : firstId;
+    }
+
+    @Override
+    public synchronized long lease(String node, int size) throws IOException {
+        if (!available) {
+            throw new IOException("Lease coordinator unavailable");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Lease size must be positive");
+        }
+        long start = next;
+        if (stateFile != null) {
+            persist(start + size);
+        }
+        next = start + size;
+        leasedByNode.merge(node, (long) size, Long::sum);
+        return start;
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    public synchronized long getLeased(String node) {
+        return leasedByNode.getOrDefault(node, 0L);
+    }
+
+    public synchronized long getNext() {
+        return next;
+    }
+
+    private void persist(long highWater) throws IOException {
+        Path temp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+        Files.write(temp, ByteBuffer.allocate(Long.BYTES).putLong(0, highWater).array());
+        Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.lease;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+// Client side of LeaseCoordinatorServer. Connects lazily and drops the connection after any failure,
+// so the next lease reconnects.
+public class RemoteLeaseCoordinator implements LeaseCoordinator, Closeable {
+    private final InetSocketAddress address;
+    private final int timeoutMillis;
+    private Socket socket;
+    private DataInputStream in;
+    private DataOutputStream out;
+
+    public RemoteLeaseCoordinator(InetSocketAddress address, int timeoutMillis) {
+        this.address = address;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public synchronized long lease(String node, int size) throws IOException {
+        try {
+            if (socket == null) {
+                connect();
+            }
+            out.writeUTF(node);
+            out.writeInt(size);
+            out.flush();
+            if (in.readByte() != LeaseCoordinatorServer.OK) {
+                throw new IOException("Lease refused: " + in.readUTF());
+            }
+            return in.readLong();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+            socket = null;
+        }
+    }
+
+    private void connect() throws IOException {
+        Socket connection = new Socket();
+        try {
+            connection.connect(address, timeoutMillis);
+            connection.setSoTimeout(timeoutMillis);
+            connection.setTcpNoDelay(true);
+            in = new DataInputStream(connection.getInputStream());
+            out = new DataOutputStream(connection.getOutputStream());
+        } catch (IOException e) {
+            connection.close();
+            throw e;
+        }
+        socket = connection;
+    }
+}
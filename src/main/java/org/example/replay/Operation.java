@@ -0,0 +1,96 @@
+package org.example.replay;
+
+import java.time.LocalDateTime;
+
+// One call against the services as it was recorded or generated. IDs are the ones of the original
+// run; replaying maps them to whatever the target hands out. The outcome is "OK" or the simple name
+// of the exception thrown, null if unknown because the operation was generated.
+public class Operation {
+    public static final String OK = "OK";
+
+    private final OperationType type;
+    private final int thread;
+    private final long id;
+    private final long customerId;
+    private final long eventId;
+    private final int count;
+    private final String name;
+    private final String detail;
+    private final LocalDateTime date;
+    private final long resultId;
+    private final String outcome;
+    private final long latencyNanos;
+
+    Operation(OperationType type, int thread, long id, long customerId, long eventId, int count, String name,
+              String detail, LocalDateTime date, long resultId, String outcome, long latencyNanos) {
+        this.type = type;
+        this.thread = thread;
+        this.id = id;
+        this.customerId = customerId;
+        this.eventId = eventId;
+        this.count = count;
+        this.name = name;
+        this.detail = detail;
+        this.date = date;
+        this.resultId = resultId;
+        this.outcome = outcome;
+        this.latencyNanos = latencyNanos;
+    }
+
+    public OperationType getType() {
+        return type;
+    }
+
+    public int getThread() {
+        return thread;
+    }
+
+    // The event, customer or ticket the operation works on; 0 for adds and clears.
+    public long getId() {
+        return id;
+    }
+
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    public long getEventId() {
+        return eventId;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    // ID of what an add created, 0 if it failed or the operation doesn't create anything.
+    public long getResultId() {
+        return resultId;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return type + "{id=" + id + ", customerId=" + customerId + ", eventId=" + eventId + ", count=" + count
+                + ", name=" + name + ", detail=" + detail + ", date=" + date + ", result=" + resultId
+                + ", outcome=" + outcome + '}';
+    }
+}
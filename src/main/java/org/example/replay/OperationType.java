@@ -0,0 +1,16 @@
+package org.example.replay;
+
+public enum OperationType {
+    EVENT_ADD,
+    EVENT_UPDATE,
+    EVENT_DELETE,
+    EVENTS_CLEARED,
+    CUSTOMER_ADD,
+    CUSTOMER_UPDATE,
+    CUSTOMER_DELETE,
+    CUSTOMERS_CLEARED,
+    TICKET_ADD,
+    TICKET_GET,
+    TICKET_DELETE,
+    TICKETS_CLEARED
+}
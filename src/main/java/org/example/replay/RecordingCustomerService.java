@@ -0,0 +1,144 @@
+package org.example.replay;
+
+import org.example.customer.Customer;
+import org.example.customer.CustomerData;
+import org.example.customer.CustomerServiceInterface;
+import org.example.customer.CustomerSnapshot;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Bulk adds are recorded as one add per customer, sharing the batch's latency evenly.
+class RecordingCustomerService implements CustomerServiceInterface {
+    private final CustomerServiceInterface delegate;
+    private final WorkloadRecorder recorder;
+
+    RecordingCustomerService(CustomerServiceInterface delegate, WorkloadRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Customer add(String username, String email, LocalDateTime birthday) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            Customer customer = delegate.add(username, email, birthday);
+            recorder.record(OperationType.CUSTOMER_ADD, 0, 0, 0, 0, username, email, birthday, customer.getId(), null,
+                    System.nanoTime() - start);
+            return customer;
+        } catch (InterruptedException | RuntimeException e) {
+            recorder.record(OperationType.CUSTOMER_ADD, 0, 0, 0, 0, username, email, birthday, 0, e,
+                    System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Customer[] addAll(List<CustomerData> customers) throws InterruptedException {
+        long start = System.nanoTime();
+        Customer[] added;
+        try {
+            added = delegate.addAll(customers);
+        } catch (InterruptedException | RuntimeException e) {
+            long latency = (System.nanoTime() - start) / Math.max(1, customers.size());
+            for (CustomerData data : customers) {
+                recorder.record(OperationType.CUSTOMER_ADD, 0, 0, 0, 0, data.getUsername(), data.getEmail(),
+                        data.getBirthday(), 0, e, latency);
+            }
+            throw e;
+        }
+        long latency = (System.nanoTime() - start) / Math.max(1, added.length);
+        for (int i = 0; i < added.length; i++) {
+            CustomerData data = customers.get(i);
+            recorder.record(OperationType.CUSTOMER_ADD, 0, 0, 0, 0, data.getUsername(), data.getEmail(),
+                    data.getBirthday(), added[i].getId(), null, latency);
+        }
+        return added;
+    }
+
+    @Override
+    public Customer restore(long id, long version, String username, String email, LocalDateTime birthday) {
+        return delegate.restore(id, version, username, email, birthday);
+    }
+
+    @Override
+    public Customer get(long id) {
+        return delegate.get(id);
+    }
+
+    @Override
+    public CustomerSnapshot getSnapshot(long id) {
+        return delegate.getSnapshot(id);
+    }
+
+    @Override
+    public Customer findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public Customer findByUsername(String username) {
+        return delegate.findByUsername(username);
+    }
+
+    @Override
+    public void update(long id, String name, String email, LocalDateTime birthday) {
+        long start = System.nanoTime();
+        try {
+            delegate.update(id, name, email, birthday);
+            recorder.record(OperationType.CUSTOMER_UPDATE, id, 0, 0, 0, name, email, birthday, 0, null,
+                    System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            recorder.record(OperationType.CUSTOMER_UPDATE, id, 0, 0, 0, name, email, birthday, 0, e,
+                    System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    // Only successful updates are recorded, as plain updates, since a lost race changes nothing.
+    @Override
+    public boolean compareAndUpdate(long id, long expectedVersion, String name, String email, LocalDateTime birthday) {
+        long start = System.nanoTime();
+        boolean updated = delegate.compareAndUpdate(id, expectedVersion, name, email, birthday);
+        if (updated) {
+            recorder.record(OperationType.CUSTOMER_UPDATE, id, 0, 0, 0, name, email, birthday, 0, null,
+                    System.nanoTime() - start);
+        }
+        return updated;
+    }
+
+    @Override
+    public void delete(long id) {
+        long start = System.nanoTime();
+        try {
+            delegate.delete(id);
+            recorder.record(OperationType.CUSTOMER_DELETE, id, 0, 0, 0, null, null, null, 0, null, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            recorder.record(OperationType.CUSTOMER_DELETE, id, 0, 0, 0, null, null, null, 0, e, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Customer[] getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public void forEach(Consumer<Customer> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public void deleteAll() {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteAll();
+            recorder.record(OperationType.CUSTOMERS_CLEARED, 0, 0, 0, 0, null, null, null, 0, null, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            recorder.record(OperationType.CUSTOMERS_CLEARED, 0, 0, 0, 0, null, null, null, 0, e, System.nanoTime() - start);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.replay;
+
+import org.example.event.Event;
+import org.example.event.EventData;
+import org.example.event.EventServiceInterface;
+import org.example.event.EventSnapshot;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+// Bulk adds are recorded as one add per event, sharing the batch's latency evenly.
+class RecordingEventService implements EventServiceInterface {
+    private final EventServiceInterface delegate;
+    private final WorkloadRecorder recorder;
+
+    RecordingEventService(EventServiceInterface delegate, WorkloadRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Event add(String name, String location, LocalDateTime date, int nmbTickets) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            Event event = delegate.add(name, location, date, nmbTickets);
+            recorder.record(OperationType.EVENT_ADD, 0, 0, 0, nmbTickets, name, location, date, event.getId(), null,
+                    System.nanoTime() - start);
+            return event;
+        } catch (InterruptedException | RuntimeException e) {
+            recorder.record(OperationType.EVENT_ADD, 0, 0, 0, nmbTickets, name, location, date, 0, e,
+                    System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Event[] addAll(List<EventData> events) throws InterruptedException {
+        long start = System.nanoTime();
+        Event[] added;
+        try {
+            added = delegate.addAll(events);
+        } catch (InterruptedException | RuntimeException e) {
+            long latency = (System.nanoTime() - start) / Math.max(1, events.size());
+            for (EventData data : events) {
+                recorder.record(OperationType.EVENT_ADD, 0, 0, 0, data.getNmbTickets(), data.getName(),
+                        data.getLocation(), data.getDate(), 0, e, latency);
+            }
+            throw e;
+        }
+        long latency = (System.nanoTime() - start) / Math.max(1, added.length);
+        for (int i = 0; i < added.length; i++) {
+            EventData data = events.get(i);
+            recorder.record(OperationType.EVENT_ADD, 0, 0, 0, data.getNmbTickets(), data.getName(), data.getLocation(),
+                    data.getDate(), added[i].getId(), null, latency);
+        }
+        return added;
+    }
+
+    @Override
+    public Event restore(long id, long version, String name, String location, LocalDateTime date, int nmbTickets) {
+        return delegate.restore(id, version, name, location, date, nmbTickets);
+    }
+
+    @Override
+    public Event get(long id) {
+        return delegate.get(id);
+    }
+
+    @Override
+    public EventSnapshot getSnapshot(long id) {
+        return delegate.getSnapshot(id);
+    }
+
+    @Override
+    public void update(long id, String name, String location, LocalDateTime date, int nmbTickets) {
+        long start = System.nanoTime();
+        try {
+            delegate.update(id, name, location, date, nmbTickets);
+            recorder.record(OperationType.EVENT_UPDATE, id, 0, 0, nmbTickets, name, location, date, 0, null,
+                    System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            recorder.record(OperationType.EVENT_UPDATE, id, 0, 0, nmbTickets, name, location, date, 0, e,
+                    System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    // Only successful updates are recorded, as plain updates, since a lost race changes nothing.
+    @Override
+    public boolean compareAndUpdate(long id, long expectedVersion, String name, String location, LocalDateTime date, int nmbTickets) {
+        long start = System.nanoTime();
+        boolean updated = delegate.compareAndUpdate(id, expectedVersion, name, location, date, nmbTickets);
+        if (updated) {
+            recorder.record(OperationType.EVENT_UPDATE, id, 0, 0, nmbTickets, name, location, date, 0, null,
+                    System.nanoTime() - start);
+        }
+        return updated;
+    }
+
+    @Override
+    public void delete(long id) {
+        long start = System.nanoTime();
+        try {
+            delegate.delete(id);
+            recorder.record(OperationType.EVENT_DELETE, id, 0, 0, 0, null, null, null, 0, null, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            recorder.record(OperationType.EVENT_DELETE, id, 0, 0, 0, null, null, null, 0, e, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Event[] getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public void forEach(Consumer<Event> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public Event[] getBetween(LocalDateTime from, LocalDateTime to) {
+        return delegate.getBetween(from, to);
+    }
+
+    @Override
+    public Event[] getUpcoming(int limit) {
+        return delegate.getUpcoming(limit);
+    }
+
+    @Override
+    public Event[] search(String query, int limit) {
+        return delegate.search(query, limit);
+    }
+
+    @Override
+    public void deleteAll() {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteAll();
+            recorder.record(OperationType.EVENTS_CLEARED, 0, 0, 0, 0, null, null, null, 0, null, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            recorder.record(OperationType.EVENTS_CLEARED, 0, 0, 0, 0, null, null, null, 0, e, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public void addRemovalListener(LongConsumer listener) {
+        delegate.addRemovalListener(listener);
+    }
+
+    @Override
+    public void removeRemovalListener(LongConsumer listener) {
+        delegate.removeRemovalListener(listener);
+    }
+}
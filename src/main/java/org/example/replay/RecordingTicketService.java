@@ -0,0 +1,105 @@
+package org.example.replay;
+
+import org.example.ticket.Ticket;
+import org.example.ticket.TicketServiceInterface;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+class RecordingTicketService implements TicketServiceInterface {
+    private final TicketServiceInterface delegate;
+    private final WorkloadRecorder recorder;
+
+    RecordingTicketService(TicketServiceInterface delegate, WorkloadRecorder recorder) {
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Ticket add(LocalDateTime purchaseDate, Long customerId, Long eventId) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            Ticket ticket = delegate.add(purchaseDate, customerId, eventId);
+            recorder.record(OperationType.TICKET_ADD, 0, WorkloadRecorder.value(customerId), WorkloadRecorder.value(eventId),
+                    0, null, null, purchaseDate, ticket.getId(), null, System.nanoTime() - start);
+            return ticket;
+        } catch (InterruptedException | RuntimeException e) {
+            recorder.record(OperationType.TICKET_ADD, 0, WorkloadRecorder.value(customerId), WorkloadRecorder.value(eventId),
+                    0, null, null, purchaseDate, 0, e, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Ticket[] addAll(LocalDateTime purchaseDate, long customerId, long eventId, int quantity) throws InterruptedException {
+        long start = System.nanoTime();
+        Ticket[] added;
+        try {
+            added = delegate.addAll(purchaseDate, customerId, eventId, quantity);
+        } catch (InterruptedException | RuntimeException e) {
+            long latency = (System.nanoTime() - start) / Math.max(1, quantity);
+            for (int i = 0; i < quantity; i++) {
+                recorder.record(OperationType.TICKET_ADD, 0, customerId, eventId, 0, null, null, purchaseDate, 0, e, latency);
+            }
+            throw e;
+        }
+        long latency = (System.nanoTime() - start) / Math.max(1, added.length);
+        for (Ticket ticket : added) {
+            recorder.record(OperationType.TICKET_ADD, 0, customerId, eventId, 0, null, null, purchaseDate, ticket.getId(),
+                    null, latency);
+        }
+        return added;
+    }
+
+    @Override
+    public Ticket restore(long id, LocalDateTime purchaseDate, long customerId, long eventId) {
+        return delegate.restore(id, purchaseDate, customerId, eventId);
+    }
+
+    @Override
+    public Ticket get(long id) {
+        long start = System.nanoTime();
+        try {
+            Ticket ticket = delegate.get(id);
+            recorder.record(OperationType.TICKET_GET, id, 0, 0, 0, null, null, null, 0, null, System.nanoTime() - start);
+            return ticket;
+        } catch (RuntimeException e) {
+            recorder.record(OperationType.TICKET_GET, id, 0, 0, 0, null, null, null, 0, e, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(long id) {
+        long start = System.nanoTime();
+        try {
+            delegate.delete(id);
+            recorder.record(OperationType.TICKET_DELETE, id, 0, 0, 0, null, null, null, 0, null, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            recorder.record(OperationType.TICKET_DELETE, id, 0, 0, 0, null, null, null, 0, e, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public Ticket[] getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public void forEach(Consumer<Ticket> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public void deleteAll() {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteAll();
+            recorder.record(OperationType.TICKETS_CLEARED, 0, 0, 0, 0, null, null, null, 0, null, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            recorder.record(OperationType.TICKETS_CLEARED, 0, 0, 0, 0, null, null, null, 0, e, System.nanoTime() - start);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.example.replay;
+
+import org.example.TicketShop;
+import org.example.customer.CustomerServiceInterface;
+import org.example.event.Event;
+import org.example.event.EventServiceInterface;
+import org.example.event.SoldOutException;
+import org.example.ticket.PurchaseLimitEngineInterface;
+import org.example.ticket.Ticket;
+import org.example.ticket.TicketServiceInterface;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+// Deliberately simple TicketServiceInterface behind one lock, used as the oracle when replaying: the
+// same workload must leave TicketService in the same state. Checks run in TicketService's order so
+// failing calls fail the same way. Sales reports, the change feed and rate limits aren't modelled.
+// Deleted events take their tickets with them once eventRemoved is registered as a removal listener
+// of the event service; the limits themselves live in the shared engine, which TicketService resets.
+public class ReferenceTicketService implements TicketServiceInterface {
+    private final EventServiceInterface eventService;
+    private final CustomerServiceInterface customerService;
+    private final PurchaseLimitEngineInterface purchaseLimits;
+    private final Map<Long, Ticket> tickets = new HashMap<>();
+    private final Map<String, Integer> held = new HashMap<>();
+    private long nextId = 1;
+
+    public ReferenceTicketService(TicketShop ticketShop) {
+        this.eventService = ticketShop.getEventServiceInterface();
+        this.customerService = ticketShop.getCustomerServiceInterface();
+        this.purchaseLimits = ticketShop.getPurchaseLimitEngineInterface();
+    }
+
+    @Override
+    public synchronized Ticket add(LocalDateTime purchaseDate, Long customerId, Long eventId) throws InterruptedException {
+        return addAll(purchaseDate, customerId, eventId, 1)[0];
+    }
+
+    @Override
+    public synchronized Ticket[] addAll(LocalDateTime purchaseDate, long customerId, long eventId, int quantity)
+            throws InterruptedException {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        Event event = find(eventId);
+        if (event != null && event.getNmbTickets() == 0) {
+            throw SoldOutException.INSTANCE;
+        }
+        try {
+            customerService.get(customerId);
+        } catch (NoSuchElementException e) {
+            throw new IllegalArgumentException("Customer ID " + customerId + " not found.");
+        }
+        if (event == null) {
+            throw new IllegalArgumentException("Event ID " + eventId + " not found.");
+        }
+        if (purchaseDate.isAfter(event.getDate())) {
+            throw new IllegalArgumentException("Purchase date must be before event date.");
+        }
+        String key = customerId + "/" + eventId;
+        int owned = held.getOrDefault(key, 0);
+        if (owned + quantity > purchaseLimits.getLimit(eventId)) {
+            throw new RuntimeException("Can't purchase more tickets for event with id=" + eventId);
+        }
+        if (!event.tryDecreaseNmbTickets(quantity)) {
+            throw SoldOutException.INSTANCE;
+        }
+        Ticket[] added = new Ticket[quantity];
+        for (int i = 0; i < quantity; i++) {
+            added[i] = new Ticket(nextId++, purchaseDate, customerId, eventId);
+            tickets.put(added[i].getId(), added[i]);
+        }
+        held.put(key, owned + quantity);
+        return added;
+    }
+
+    @Override
+    public synchronized Ticket restore(long id, LocalDateTime purchaseDate, long customerId, long eventId) {
+        if (tickets.containsKey(id)) {
+            throw new IllegalArgumentException("ID " + id + " is already in use");
+        }
+        Ticket ticket;
+        try {
+            ticket = new Ticket(id, purchaseDate, customerId, eventId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        tickets.put(id, ticket);
+        held.merge(customerId + "/" + eventId, 1, Integer::sum);
+        nextId = Math.max(nextId, id + 1);
+        return ticket;
+    }
+
+    @Override
+    public synchronized Ticket get(long id) {
+        Ticket ticket = tickets.get(id);
+        if (ticket == null) {
+            throw new NoSuchElementException("No ticket found with ID " + id);
+        }
+        return ticket;
+    }
+
+    @Override
+    public synchronized void delete(long id) {
+        Ticket ticket = tickets.remove(id);
+        if (ticket == null) {
+            throw new NoSuchElementException("No ticket found with ID " + id);
+        }
+        giveBack(ticket);
+    }
+
+    @Override
+    public synchronized Ticket[] getAll() {
+        return tickets.values().toArray(new Ticket[0]);
+    }
+
+    @Override
+    public void forEach(Consumer<Ticket> action) {
+        for (Ticket ticket : getAll()) {
+            action.accept(ticket);
+        }
+    }
+
+    @Override
+    public synchronized void deleteAll() {
+        for (Ticket ticket : tickets.values()) {
+            giveBack(ticket);
+        }
+        tickets.clear();
+    }
+
+    public synchronized void eventRemoved(long eventId) {
+        tickets.values().removeIf(ticket -> ticket.getEventId() == eventId);
+        String suffix = "/" + eventId;
+        held.keySet().removeIf(key -> key.endsWith(suffix));
+    }
+
+    private void giveBack(Ticket ticket) {
+        Event event = find(ticket.getEventId());
+        if (event != null) {
+            event.increaseNmbTickets();
+        }
+        held.computeIfPresent(ticket.getCustomerId() + "/" + ticket.getEventId(), (key, owned) -> owned > 1 ? owned - 1 : null);
+    }
+
+    private Event find(long eventId) {
+        try {
+            return eventService.get(eventId);
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.replay;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Outcome and latency of every replayed operation plus the state the target was left in.
+public class ReplayResult {
+    private final Workload workload;
+    private final String[] outcomes;
+    private final long[] latencies;
+    private final Map<String, String> state;
+    private final Map<OperationType, long[]> sortedLatencies = new EnumMap<>(OperationType.class);
+
+    ReplayResult(Workload workload, String[] outcomes, long[] latencies, Map<String, String> state) {
+        this.workload = workload;
+        this.outcomes = outcomes;
+        this.latencies = latencies;
+        this.state = Collections.unmodifiableMap(state);
+        Map<OperationType, Integer> counts = new EnumMap<>(OperationType.class);
+        for (Operation operation : workload.getOperations()) {
+            counts.merge(operation.getType(), 1, Integer::sum);
+        }
+        Map<OperationType, Integer> filled = new EnumMap<>(OperationType.class);
+        List<Operation> operations = workload.getOperations();
+        for (int i = 0; i < operations.size(); i++) {
+            OperationType type = operations.get(i).getType();
+            long[] values = sortedLatencies.computeIfAbsent(type, t -> new long[counts.get(t)]);
+            int at = filled.merge(type, 1, Integer::sum) - 1;
+            values[at] = latencies[i];
+        }
+        for (long[] values : sortedLatencies.values()) {
+            Arrays.sort(values);
+        }
+    }
+
+    public String getOutcome(int index) {
+        return outcomes[index];
+    }
+
+    public long getLatencyNanos(int index) {
+        return latencies[index];
+    }
+
+    public Map<String, String> getState() {
+        return state;
+    }
+
+    public int countOutcome(String outcome) {
+        int count = 0;
+        for (String current : outcomes) {
+            if (current.equals(outcome)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Operations whose outcome differs from the one recorded; generated operations have none to differ from.
+    public List<String> divergencesFromWorkload(int limit) {
+        List<String> divergences = new ArrayList<>();
+        List<Operation> operations = workload.getOperations();
+        for (int i = 0; i < operations.size(); i++) {
+            String expected = operations.get(i).getOutcome();
+            if (expected != null && !expected.equals(outcomes[i])) {
+                if (divergences.size() < limit) {
+                    divergences.add("#" + i + " " + operations.get(i) + " now " + outcomes[i]);
+                } else {
+                    break;
+                }
+            }
+        }
+        return divergences;
+    }
+
+    // Differing outcomes, then state entries that differ or exist on only one side.
+    public List<String> diff(ReplayResult other, int limit) {
+        List<String> differences = new ArrayList<>();
+        List<Operation> operations = workload.getOperations();
+        for (int i = 0; i < Math.min(outcomes.length, other.outcomes.length) && differences.size() < limit; i++) {
+            if (!outcomes[i].equals(other.outcomes[i])) {
+                differences.add("#" + i + " " + operations.get(i).getType() + ": " + outcomes[i] + " vs " + other.outcomes[i]);
+            }
+        }
+        Set<String> keys = new TreeSet<>(state.keySet());
+        keys.addAll(other.state.keySet());
+        for (String key : keys) {
+            if (differences.size() >= limit) {
+                break;
+            }
+            String mine = state.get(key);
+            String theirs = other.state.get(key);
+            if (mine == null || !mine.equals(theirs)) {
+                differences.add(key + ": " + mine + " vs " + theirs);
+            }
+        }
+        return differences;
+    }
+
+    public long percentileNanos(OperationType type, double p) {
+        long[] values = sortedLatencies.get(type);
+        if (values == null || values.length == 0) {
+            return 0;
+        }
+        return values[Math.min(values.length - 1, (int) (values.length * p))];
+    }
+
+    public String latencySummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<OperationType, long[]> entry : sortedLatencies.entrySet()) {
+            OperationType type = entry.getKey();
+            summary.append(String.format("  %-18s %8d ops  p50 %7dns  p90 %7dns  p99 %8dns  max %9dns%n", type,
+                    entry.getValue().length, percentileNanos(type, 0.5), percentileNanos(type, 0.9),
+                    percentileNanos(type, 0.99), entry.getValue()[entry.getValue().length - 1]));
+        }
+        return summary.toString();
+    }
+}
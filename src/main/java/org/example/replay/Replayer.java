@@ -0,0 +1,175 @@
+package org.example.replay;
+
+import org.example.customer.CustomerServiceInterface;
+import org.example.event.EventServiceInterface;
+import org.example.ticket.TicketServiceInterface;
+import org.example.utils.LongLongHashMap;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+// Replays a workload one operation at a time in its recorded order, so every run against the same
+// starting state makes exactly the same calls. IDs of the workload are mapped to the ones the target
+// hands out; a reference to something that was never created, or is gone, becomes a negative ID that
+// no service knows, and whatever an add creates that it didn't originally is named minus its position
+// in the workload. The resulting state is described in workload IDs, so runs against different
+// implementations, or with differently allocated IDs, can be compared directly.
+public class Replayer {
+    private final EventServiceInterface eventService;
+    private final CustomerServiceInterface customerService;
+    private final TicketServiceInterface ticketService;
+    // Workload ID to target ID and back, per kind of entity.
+    private final LongLongHashMap events = new LongLongHashMap(1024);
+    private final LongLongHashMap customers = new LongLongHashMap(1024);
+    private final LongLongHashMap tickets = new LongLongHashMap(1024);
+    private final LongLongHashMap eventsBack = new LongLongHashMap(1024);
+    private final LongLongHashMap customersBack = new LongLongHashMap(1024);
+    private final LongLongHashMap ticketsBack = new LongLongHashMap(1024);
+
+    public Replayer(EventServiceInterface eventService, CustomerServiceInterface customerService,
+                    TicketServiceInterface ticketService) {
+        this.eventService = eventService;
+        this.customerService = customerService;
+        this.ticketService = ticketService;
+    }
+
+    // Expects the target to start out empty.
+    public ReplayResult replay(Workload workload) throws InterruptedException {
+        int size = workload.size();
+        String[] outcomes = new String[size];
+        long[] latencies = new long[size];
+        int index = 0;
+        for (Operation operation : workload.getOperations()) {
+            long start = System.nanoTime();
+            long created = 0;
+            String outcome = Operation.OK;
+            try {
+                created = apply(operation);
+            } catch (RuntimeException e) {
+                outcome = e.getClass().getSimpleName();
+            }
+            latencies[index] = System.nanoTime() - start;
+            outcomes[index] = outcome;
+            if (outcome.equals(Operation.OK)) {
+                track(operation, operation.getResultId() != 0 ? operation.getResultId() : -(index + 1L), created);
+            }
+            index++;
+        }
+        return new ReplayResult(workload, outcomes, latencies, state());
+    }
+
+    private long apply(Operation operation) throws InterruptedException {
+        switch (operation.getType()) {
+            case EVENT_ADD:
+                return eventService.add(operation.getName(), operation.getDetail(), operation.getDate(), operation.getCount()).getId();
+            case EVENT_UPDATE:
+                eventService.update(target(events, operation.getId()), operation.getName(), operation.getDetail(),
+                        operation.getDate(), operation.getCount());
+                return 0;
+            case EVENT_DELETE:
+                eventService.delete(target(events, operation.getId()));
+                return 0;
+            case EVENTS_CLEARED:
+                eventService.deleteAll();
+                return 0;
+            case CUSTOMER_ADD:
+                return customerService.add(operation.getName(), operation.getDetail(), operation.getDate()).getId();
+            case CUSTOMER_UPDATE:
+                customerService.update(target(customers, operation.getId()), operation.getName(), operation.getDetail(),
+                        operation.getDate());
+                return 0;
+            case CUSTOMER_DELETE:
+                customerService.delete(target(customers, operation.getId()));
+                return 0;
+            case CUSTOMERS_CLEARED:
+                customerService.deleteAll();
+                return 0;
+            case TICKET_ADD:
+                return ticketService.add(operation.getDate(), target(customers, operation.getCustomerId()),
+                        target(events, operation.getEventId())).getId();
+            case TICKET_GET:
+                ticketService.get(target(tickets, operation.getId()));
+                return 0;
+            case TICKET_DELETE:
+                ticketService.delete(target(tickets, operation.getId()));
+                return 0;
+            case TICKETS_CLEARED:
+                ticketService.deleteAll();
+                return 0;
+            default:
+                throw new IllegalStateException("Unknown operation " + operation.getType());
+        }
+    }
+
+    private void track(Operation operation, long workloadId, long created) {
+        switch (operation.getType()) {
+            case EVENT_ADD:
+                map(events, eventsBack, workloadId, created);
+                break;
+            case EVENT_DELETE:
+                unmap(events, eventsBack, operation.getId());
+                break;
+            case EVENTS_CLEARED:
+                events.clear();
+                eventsBack.clear();
+                break;
+            case CUSTOMER_ADD:
+                map(customers, customersBack, workloadId, created);
+                break;
+            case CUSTOMER_DELETE:
+                unmap(customers, customersBack, operation.getId());
+                break;
+            case CUSTOMERS_CLEARED:
+                customers.clear();
+                customersBack.clear();
+                break;
+            case TICKET_ADD:
+                map(tickets, ticketsBack, workloadId, created);
+                break;
+            case TICKET_DELETE:
+                unmap(tickets, ticketsBack, operation.getId());
+                break;
+            case TICKETS_CLEARED:
+                tickets.clear();
+                ticketsBack.clear();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void map(LongLongHashMap forward, LongLongHashMap back, long workloadId, long targetId) {
+        forward.put(workloadId, targetId);
+        back.put(targetId, workloadId);
+    }
+
+    private static void unmap(LongLongHashMap forward, LongLongHashMap back, long workloadId) {
+        long targetId = forward.remove(workloadId, 0);
+        if (targetId != 0) {
+            back.remove(targetId, 0);
+        }
+    }
+
+    private static long target(LongLongHashMap forward, long workloadId) {
+        return forward.get(workloadId, -Math.abs(workloadId) - 1);
+    }
+
+    // Everything the target holds, keyed and cross-referenced by workload IDs. Entities the workload
+    // didn't create show up under their target ID prefixed with '?'.
+    private Map<String, String> state() {
+        Map<String, String> state = new TreeMap<>();
+        eventService.forEach(event -> state.put("event " + workloadId(eventsBack, event.getId()),
+                event.getName() + " | " + event.getLocation() + " | " + event.getDate() + " | " + event.getNmbTickets()));
+        customerService.forEach(customer -> state.put("customer " + workloadId(customersBack, customer.getId()),
+                customer.getUsername() + " | " + customer.getEmail() + " | " + customer.getBirthday()));
+        ticketService.forEach(ticket -> state.put("ticket " + workloadId(ticketsBack, ticket.getId()),
+                "customer " + workloadId(customersBack, ticket.getCustomerId()) + " | event "
+                        + workloadId(eventsBack, ticket.getEventId()) + " | " + ticket.getPurchaseDate()));
+        return state;
+    }
+
+    private static String workloadId(LongLongHashMap back, long targetId) {
+        long workloadId = back.get(targetId, 0);
+        return workloadId == 0 ? "?" + targetId : Long.toString(workloadId);
+    }
+}
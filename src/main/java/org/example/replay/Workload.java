@@ -0,0 +1,107 @@
+package org.example.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Ordered list of operations. The file format is a magic number and version, the operation count and
+// then every operation's fields in declaration order; strings are a presence flag plus modified UTF-8
+// and dates a presence flag plus epoch seconds UTC and nanos.
+public class Workload {
+    private static final int MAGIC = 0x4556_4157;
+    private static final int VERSION = 1;
+
+    private final List<Operation> operations;
+
+    Workload(List<Operation> operations) {
+        this.operations = Collections.unmodifiableList(new ArrayList<>(operations));
+    }
+
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    public int size() {
+        return operations.size();
+    }
+
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(operations.size());
+            for (Operation operation : operations) {
+                out.writeByte(operation.getType().ordinal());
+                out.writeInt(operation.getThread());
+                out.writeLong(operation.getId());
+                out.writeLong(operation.getCustomerId());
+                out.writeLong(operation.getEventId());
+                out.writeInt(operation.getCount());
+                writeString(out, operation.getName());
+                writeString(out, operation.getDetail());
+                LocalDateTime date = operation.getDate();
+                out.writeBoolean(date != null);
+                if (date != null) {
+                    out.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+                    out.writeInt(date.getNano());
+                }
+                out.writeLong(operation.getResultId());
+                writeString(out, operation.getOutcome());
+                out.writeLong(operation.getLatencyNanos());
+            }
+        }
+    }
+
+    public static Workload read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a workload file");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported workload version " + version);
+            }
+            int count = in.readInt();
+            OperationType[] types = OperationType.values();
+            List<Operation> operations = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                OperationType type = types[in.readUnsignedByte()];
+                int thread = in.readInt();
+                long id = in.readLong();
+                long customerId = in.readLong();
+                long eventId = in.readLong();
+                int amount = in.readInt();
+                String name = readString(in);
+                String detail = readString(in);
+                LocalDateTime date = in.readBoolean()
+                        ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+                long resultId = in.readLong();
+                String outcome = readString(in);
+                long latencyNanos = in.readLong();
+                operations.add(new Operation(type, thread, id, customerId, eventId, amount, name, detail, date,
+                        resultId, outcome, latencyNanos));
+            }
+            return new Workload(operations);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
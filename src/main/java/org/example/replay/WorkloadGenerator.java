@@ -0,0 +1,62 @@
+package org.example.replay;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Builds a purchase-heavy workload from a seed; the same seed and size always give the same
+// operations, dates included. Purchases favour the first events and inventories are small, so
+// sold-out and limit failures are common, and refunds and inventory updates race against them in
+// every order. IDs are numbered from 1 per kind and outcomes are left open.
+public final class WorkloadGenerator {
+    private static final LocalDateTime EVENT_DATE = LocalDateTime.of(2099, 1, 1, 20, 0);
+    private static final LocalDateTime PURCHASE_DATE = LocalDateTime.of(2098, 6, 1, 12, 0);
+    private static final LocalDateTime BIRTHDAY = LocalDateTime.of(1990, 1, 1, 0, 0);
+
+    private WorkloadGenerator() {
+    }
+
+    public static Workload generate(long seed, int operations) {
+        Random random = new Random(seed);
+        List<Operation> generated = new ArrayList<>(operations);
+        int events = Math.max(1, operations / 100);
+        int customers = Math.max(1, operations / 20);
+        for (int i = 1; i <= events; i++) {
+            generated.add(new Operation(OperationType.EVENT_ADD, 0, 0, 0, 0, 5 + random.nextInt(46), "Event " + i,
+                    "Location " + i % 7, EVENT_DATE.plusDays(i), i, null, 0));
+        }
+        for (int i = 1; i <= customers; i++) {
+            generated.add(customer(seed, i));
+        }
+        long tickets = 0;
+        for (int i = generated.size(); i < operations; i++) {
+            int choice = random.nextInt(100);
+            if (choice < 70) {
+                double skew = random.nextDouble();
+                long eventId = 1 + (long) (events * skew * skew);
+                generated.add(new Operation(OperationType.TICKET_ADD, 0, 0, 1 + random.nextInt(customers), eventId, 0,
+                        null, null, PURCHASE_DATE.plusSeconds(i), ++tickets, null, 0));
+            } else if (choice < 85) {
+                generated.add(new Operation(OperationType.TICKET_DELETE, 0, 1 + random.nextInt((int) Math.max(1, tickets)),
+                        0, 0, 0, null, null, null, 0, null, 0));
+            } else if (choice < 95) {
+                generated.add(new Operation(OperationType.TICKET_GET, 0, 1 + random.nextInt((int) Math.max(1, tickets)),
+                        0, 0, 0, null, null, null, 0, null, 0));
+            } else if (choice < 98) {
+                long eventId = 1 + random.nextInt(events);
+                generated.add(new Operation(OperationType.EVENT_UPDATE, 0, eventId, 0, 0, random.nextInt(21),
+                        "Event " + eventId + " moved", "Location " + random.nextInt(7), EVENT_DATE.plusDays(eventId),
+                        0, null, 0));
+            } else {
+                generated.add(customer(seed, ++customers));
+            }
+        }
+        return new Workload(generated);
+    }
+
+    private static Operation customer(long seed, int number) {
+        return new Operation(OperationType.CUSTOMER_ADD, 0, 0, 0, 0, 0, "sim" + seed + "-" + number,
+                "sim" + seed + "-" + number + "@example.com", BIRTHDAY.minusDays(number), number, null, 0);
+    }
+}
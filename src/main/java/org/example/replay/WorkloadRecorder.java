@@ -0,0 +1,44 @@
+package org.example.replay;
+
+import org.example.TicketShop;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Records every state-changing call, and ticket lookups, made through a wrapped TicketShop, in the
+// order the calls completed. Clients like PerformanceClient or CLIClient run unchanged against the
+// wrapped shop. Calls that bypass the event, customer and ticket services, e.g. reservations or
+// cancellations, aren't recorded.
+public class WorkloadRecorder {
+    private final List<Operation> operations = new ArrayList<>();
+    private final AtomicInteger threads = new AtomicInteger();
+    private final ThreadLocal<Integer> thread = ThreadLocal.withInitial(threads::getAndIncrement);
+
+    public TicketShop wrap(TicketShop ticketShop) {
+        return new TicketShop(ticketShop,
+                new RecordingEventService(ticketShop.getEventServiceInterface(), this),
+                new RecordingCustomerService(ticketShop.getCustomerServiceInterface(), this),
+                new RecordingTicketService(ticketShop.getTicketServiceInterface(), this));
+    }
+
+    public synchronized int size() {
+        return operations.size();
+    }
+
+    public synchronized Workload finish() {
+        return new Workload(operations);
+    }
+
+    synchronized void record(OperationType type, long id, long customerId, long eventId, int count, String name,
+                             String detail, LocalDateTime date, long resultId, Throwable failure, long latencyNanos) {
+        String outcome = failure == null ? Operation.OK : failure.getClass().getSimpleName();
+        operations.add(new Operation(type, thread.get(), id, customerId, eventId, count, name, detail, date,
+                failure == null ? resultId : 0, outcome, latencyNanos));
+    }
+
+    static long value(Long id) {
+        return id == null ? 0 : id;
+    }
+}
@@ -0,0 +1,242 @@
+package org.example.replication;
+
+import org.example.TicketShop;
+import org.example.feed.ChangeType;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Read-only copy of a primary's events, customers and tickets, kept up to date by one applier
+// thread. Every read first checks that the replica is at most maxStalenessMillis behind the primary,
+// measured against the last time the primary reported having shipped everything, and throws an
+// IllegalStateException otherwise. promote() stops replicating and loads the copy into this node's
+// own services under the original IDs, after which the node can act as primary itself.
+public final class Replica implements Closeable {
+    private final Map<Long, ReplicaEvent> events = new ConcurrentHashMap<>();
+    private final Map<Long, ReplicaCustomer> customers = new ConcurrentHashMap<>();
+    private final Map<Long, ReplicaTicket> tickets = new ConcurrentHashMap<>();
+    private final long maxStalenessMillis;
+    private final Socket socket;
+    private final Thread applier;
+    // Primary time up to which everything has been applied, 0 until the first caught-up frame.
+    private volatile long asOfMillis;
+    private volatile long appliedRecords;
+    private volatile boolean connected = true;
+    private volatile boolean promoted;
+
+    public Replica(InetSocketAddress primary, long maxStalenessMillis) throws IOException {
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.socket = new Socket();
+        socket.connect(primary, 1000);
+        socket.setTcpNoDelay(true);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+        this.applier = new Thread(() -> apply(in), "replica-applier");
+        applier.setDaemon(true);
+        applier.start();
+    }
+
+    public ReplicaEvent getEvent(long id) {
+        checkFresh();
+        ReplicaEvent event = events.get(id);
+        if (event == null) {
+            throw new NoSuchElementException("No event found with ID " + id);
+        }
+        return event;
+    }
+
+    public ReplicaEvent[] getAllEvents() {
+        checkFresh();
+        return events.values().toArray(new ReplicaEvent[0]);
+    }
+
+    public ReplicaCustomer getCustomer(long id) {
+        checkFresh();
+        ReplicaCustomer customer = customers.get(id);
+        if (customer == null) {
+            throw new NoSuchElementException("No customer found with ID " + id);
+        }
+        return customer;
+    }
+
+    public ReplicaCustomer[] getAllCustomers() {
+        checkFresh();
+        return customers.values().toArray(new ReplicaCustomer[0]);
+    }
+
+    public ReplicaTicket getTicket(long id) {
+        checkFresh();
+        ReplicaTicket ticket = tickets.get(id);
+        if (ticket == null) {
+            throw new NoSuchElementException("No ticket found with ID " + id);
+        }
+        return ticket;
+    }
+
+    public ReplicaTicket[] getAllTickets() {
+        checkFresh();
+        return tickets.values().toArray(new ReplicaTicket[0]);
+    }
+
+    public long getStalenessMillis() {
+        long asOf = asOfMillis;
+        return asOf == 0 ? Long.MAX_VALUE : Math.max(0, System.currentTimeMillis() - asOf);
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public long getAppliedRecords() {
+        return appliedRecords;
+    }
+
+    // Waits until reads are allowed, e.g. after connecting. Returns false on timeout or disconnect.
+    public boolean awaitFresh(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (getStalenessMillis() > maxStalenessMillis) {
+            if (!connected || System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    // Stops replicating and re-creates everything in the given node's services with the same IDs.
+    // Returns how many events, customers and tickets were restored. The services are expected to be empty.
+    public int promote(TicketShop ticketShop) throws IOException {
+        close();
+        promoted = true;
+        int restored = 0;
+        for (ReplicaEvent event : events.values()) {
+            ticketShop.getEventServiceInterface().restore(event.getId(), event.getVersion(), event.getName(),
+                    event.getLocation(), event.getDate(), event.getNmbTickets());
+            restored++;
+        }
+        for (ReplicaCustomer customer : customers.values()) {
+            ticketShop.getCustomerServiceInterface().restore(customer.getId(), customer.getVersion(),
+                    customer.getUsername(), customer.getEmail(), customer.getBirthday());
+            restored++;
+        }
+        for (ReplicaTicket ticket : tickets.values()) {
+            ticketShop.getTicketServiceInterface().restore(ticket.getId(), ticket.getPurchaseDate(),
+                    ticket.getCustomerId(), ticket.getEventId());
+            restored++;
+        }
+        return restored;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        try {
+            applier.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkFresh() {
+        if (promoted) {
+            throw new IllegalStateException("Replica has been promoted, read from the services instead");
+        }
+        long staleness = getStalenessMillis();
+        if (staleness > maxStalenessMillis) {
+            throw new IllegalStateException("Replica is " + (staleness == Long.MAX_VALUE ? "not yet caught up" : staleness + "ms behind")
+                    + ", bound is " + maxStalenessMillis + "ms");
+        }
+    }
+
+    private void apply(DataInputStream in) {
+        ReplicationCodec.Decoder decoder = new ReplicationCodec.Decoder();
+        ReplicationCodec.RecordSink sink = this::apply;
+        try {
+            while (true) {
+                long asOf = decoder.readFrame(in, sink);
+                if (asOf > 0) {
+                    asOfMillis = asOf;
+                }
+            }
+        } catch (EOFException e) {
+            // The primary went away.
+        } catch (IOException e) {
+            if (!socket.isClosed()) {
+                System.out.println("Replication stream ended: " + e.getMessage());
+            }
+        } finally {
+            connected = false;
+            decoder.end();
+        }
+    }
+
+    // Events and customers only move forward in version, so records that overlap with the bootstrap
+    // can't roll them back. A non-negative count on event and ticket records is the event's inventory.
+    private void apply(ChangeType type, long sequence, long timestamp, long id, long version, long customerId,
+                       long eventId, int count, String name, String detail, LocalDateTime date) {
+        switch (type) {
+            case EVENT_ADDED:
+            case EVENT_UPDATED: {
+                ReplicaEvent current = events.get(id);
+                if (current == null || version >= current.getVersion()) {
+                    events.put(id, new ReplicaEvent(id, version, name, detail, date, count));
+                }
+                break;
+            }
+            case EVENT_DELETED:
+                events.remove(id);
+                break;
+            case EVENTS_CLEARED:
+                events.clear();
+                break;
+            case CUSTOMER_ADDED:
+            case CUSTOMER_UPDATED: {
+                ReplicaCustomer current = customers.get(id);
+                if (current == null || version >= current.getVersion()) {
+                    customers.put(id, new ReplicaCustomer(id, version, name, detail, date));
+                }
+                break;
+            }
+            case CUSTOMER_DELETED:
+                customers.remove(id);
+                break;
+            case CUSTOMERS_CLEARED:
+                customers.clear();
+                break;
+            case TICKET_SOLD:
+                tickets.put(id, new ReplicaTicket(id, date, customerId, eventId));
+                updateInventory(eventId, count);
+                break;
+            case TICKET_REFUNDED:
+                tickets.remove(id);
+                updateInventory(eventId, count);
+                break;
+            case TICKET_ARCHIVED:
+                tickets.remove(id);
+                break;
+            case TICKETS_CLEARED:
+                tickets.clear();
+                break;
+            case INVENTORY_CHANGED:
+                updateInventory(eventId, count);
+                break;
+            default:
+                break;
+        }
+        appliedRecords++;
+    }
+
+    private void updateInventory(long eventId, int count) {
+        if (count >= 0) {
+            events.computeIfPresent(eventId, (id, event) -> event.withNmbTickets(count));
+        }
+    }
+}
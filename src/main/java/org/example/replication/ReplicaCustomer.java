@@ -0,0 +1,40 @@
+package org.example.replication;
+
+import java.time.LocalDateTime;
+
+// Read-only copy of a customer as last shipped by the primary.
+public final class ReplicaCustomer {
+    private final long id;
+    private final long version;
+    private final String username;
+    private final String email;
+    private final LocalDateTime birthday;
+
+    ReplicaCustomer(long id, long version, String username, String email, LocalDateTime birthday) {
+        this.id = id;
+        this.version = version;
+        this.username = username;
+        this.email = email;
+        this.birthday = birthday;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public LocalDateTime getBirthday() {
+        return birthday;
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.replication;
+
+import java.time.LocalDateTime;
+
+// Read-only copy of an event as last shipped by the primary.
+public final class ReplicaEvent {
+    private final long id;
+    private final long version;
+    private final String name;
+    private final String location;
+    private final LocalDateTime date;
+    private final int nmbTickets;
+
+    ReplicaEvent(long id, long version, String name, String location, LocalDateTime date, int nmbTickets) {
+        this.id = id;
+        this.version = version;
+        this.name = name;
+        this.location = location;
+        this.date = date;
+        this.nmbTickets = nmbTickets;
+    }
+
+    ReplicaEvent withNmbTickets(int nmbTickets) {
+        return new ReplicaEvent(id, version, name, location, date, nmbTickets);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public int getNmbTickets() {
+        return nmbTickets;
+    }
+}
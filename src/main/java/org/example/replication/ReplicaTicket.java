@@ -0,0 +1,34 @@
+package org.example.replication;
+
+import java.time.LocalDateTime;
+
+// Read-only copy of a sold ticket as shipped by the primary.
+public final class ReplicaTicket {
+    private final long id;
+    private final LocalDateTime purchaseDate;
+    private final long customerId;
+    private final long eventId;
+
+    ReplicaTicket(long id, LocalDateTime purchaseDate, long customerId, long eventId) {
+        this.id = id;
+        this.purchaseDate = purchaseDate;
+        this.customerId = customerId;
+        this.eventId = eventId;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public LocalDateTime getPurchaseDate() {
+        return purchaseDate;
+    }
+
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    public long getEventId() {
+        return eventId;
+    }
+}
@@ -0,0 +1,210 @@
+package org.example.replication;
+
+import org.example.feed.ChangeType;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Wire format between ReplicationPrimary and Replica. A frame is a header of compressed length, raw
+// length, record count and the primary's "as of" time, followed by the Deflate-compressed records;
+// a heartbeat is a frame without records. Each record is type, sequence, timestamp, id, version,
+// customerId, eventId, count, name, detail (length-prefixed UTF-8, -1 for null) and date (flag byte,
+// epoch seconds UTC, nanos). Bootstrap records carry sequence -1.
+final class ReplicationCodec {
+    static final int HEADER_BYTES = 3 * Integer.BYTES + Long.BYTES;
+    static final int MAX_FRAME_BYTES = 64 << 20;
+    private static final ChangeType[] TYPES = ChangeType.values();
+
+    private ReplicationCodec() {
+    }
+
+    // Accumulates records for one frame and compresses them on write. Used by one thread only.
+    static final class Encoder {
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private ByteBuffer raw = ByteBuffer.allocate(1 << 16);
+        private byte[] compressed = new byte[1 << 16];
+        private int length;
+        private int records;
+
+        void add(ChangeType type, long sequence, long timestamp, long id, long version, long customerId,
+                 long eventId, int count, String name, String detail, LocalDateTime date) {
+            ensure(1 + 6 * Long.BYTES + Integer.BYTES);
+            raw.put((byte) type.ordinal());
+            raw.putLong(sequence);
+            raw.putLong(timestamp);
+            raw.putLong(id);
+            raw.putLong(version);
+            raw.putLong(customerId);
+            raw.putLong(eventId);
+            raw.putInt(count);
+            putString(name);
+            putString(detail);
+            ensure(1 + Long.BYTES + Integer.BYTES);
+            raw.put((byte) (date == null ? 0 : 1));
+            if (date != null) {
+                raw.putLong(date.toEpochSecond(ZoneOffset.UTC));
+                raw.putInt(date.getNano());
+            }
+            records++;
+        }
+
+        int records() {
+            return records;
+        }
+
+        int rawBytes() {
+            return raw.position();
+        }
+
+        // Compresses the pending records; the frame can then be written to any number of streams.
+        void seal() {
+            length = 0;
+            if (records == 0) {
+                return;
+            }
+            deflater.reset();
+            deflater.setInput(raw.array(), 0, raw.position());
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+        }
+
+        // The sealed records as one complete frame, or a heartbeat if there are none.
+        byte[] frame(long asOfMillis) {
+            ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + length);
+            frame.putInt(length);
+            frame.putInt(records == 0 ? 0 : raw.position());
+            frame.putInt(records);
+            frame.putLong(asOfMillis);
+            frame.put(compressed, 0, length);
+            return frame.array();
+        }
+
+        void reset() {
+            raw.clear();
+            records = 0;
+            length = 0;
+        }
+
+        void end() {
+            deflater.end();
+        }
+
+        private void putString(String value) {
+            if (value == null) {
+                ensure(Integer.BYTES);
+                raw.putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(Integer.BYTES + bytes.length);
+            raw.putInt(bytes.length);
+            raw.put(bytes);
+        }
+
+        private void ensure(int bytes) {
+            if (raw.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(raw.capacity() * 2, raw.position() + bytes));
+                raw.flip();
+                grown.put(raw);
+                raw = grown;
+            }
+        }
+    }
+
+    // Reads frames and hands each record to the sink. Used by one thread only.
+    static final class Decoder {
+        private final Inflater inflater = new Inflater();
+        private byte[] compressed = new byte[1 << 16];
+        private byte[] raw = new byte[1 << 16];
+
+        // Returns the frame's "as of" time after all of its records have been applied.
+        long readFrame(DataInputStream in, RecordSink sink) throws IOException {
+            int length = in.readInt();
+            int rawLength = in.readInt();
+            int records = in.readInt();
+            long asOfMillis = in.readLong();
+            if (length < 0 || rawLength < 0 || length > MAX_FRAME_BYTES || rawLength > MAX_FRAME_BYTES) {
+                throw new IOException("Corrupt replication frame");
+            }
+            if (records == 0) {
+                return asOfMillis;
+            }
+            if (compressed.length < length) {
+                compressed = new byte[length];
+            }
+            if (raw.length < rawLength) {
+                raw = new byte[rawLength];
+            }
+            in.readFully(compressed, 0, length);
+            inflater.reset();
+            inflater.setInput(compressed, 0, length);
+            try {
+                if (inflater.inflate(raw, 0, rawLength) != rawLength) {
+                    throw new IOException("Short replication frame");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt replication frame", e);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(raw, 0, rawLength);
+            try {
+                for (int i = 0; i < records; i++) {
+                    int type = buffer.get();
+                    if (type < 0 || type >= TYPES.length) {
+                        throw new IOException("Corrupt change type " + type);
+                    }
+                    long sequence = buffer.getLong();
+                    long timestamp = buffer.getLong();
+                    long id = buffer.getLong();
+                    long version = buffer.getLong();
+                    long customerId = buffer.getLong();
+                    long eventId = buffer.getLong();
+                    int count = buffer.getInt();
+                    String name = getString(buffer);
+                    String detail = getString(buffer);
+                    LocalDateTime date = buffer.get() == 0 ? null
+                            : LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+                    sink.apply(TYPES[type], sequence, timestamp, id, version, customerId, eventId, count, name, detail, date);
+                }
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated replication frame", e);
+            }
+            return asOfMillis;
+        }
+
+        void end() {
+            inflater.end();
+        }
+
+        private static String getString(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            if (length > buffer.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+    }
+
+    interface RecordSink {
+        void apply(ChangeType type, long sequence, long timestamp, long id, long version, long customerId, long eventId,
+                   int count, String name, String detail, LocalDateTime date);
+    }
+}
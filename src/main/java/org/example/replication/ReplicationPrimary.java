@@ -0,0 +1,328 @@
+package org.example.replication;
+
+import org.example.TicketShop;
+import org.example.event.EventServiceInterface;
+import org.example.event.EventSnapshot;
+import org.example.customer.CustomerServiceInterface;
+import org.example.customer.CustomerSnapshot;
+import org.example.feed.ChangeFeed;
+import org.example.feed.ChangeListener;
+import org.example.feed.ChangeRecord;
+import org.example.feed.ChangeType;
+import org.example.feed.OverflowPolicy;
+import org.example.feed.Subscription;
+import org.example.ticket.TicketServiceInterface;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Ships every change of this node's services to the connected replicas. One shipper thread drains a
+// BLOCK subscription of the ChangeFeed, so no change is ever lost, and sends each drained batch as a
+// single compressed frame. A replica that connects first gets the current state as bootstrap
+// records, read and sent by its writer thread while the shipper keeps draining the feed; the live
+// frames wait behind the bootstrap in the replica's queue. Changes that overlap with it are applied
+// idempotently on the replica, by version for events and customers and by ID for tickets.
+//
+// Sales and refunds don't carry inventory, so for every event, ticket and inventory record the shipper
+// sends the event's current number of tickets. Those values are read in shipping order, so the last
+// one a replica applies is always the newest.
+//
+// The shipper never writes to a socket itself: every replica has a writer thread and a queue of
+// encoded frames. A replica whose queue grows beyond MAX_LAG_BYTES is disconnected rather than
+// waited for, so a slow or hung replica can't back up the feed and with it every publisher. The
+// disconnected replica notices the closed stream and can connect again to get a fresh bootstrap.
+public final class ReplicationPrimary implements Closeable {
+    private static final int BATCH_SIZE = 1024;
+    public static final long MAX_LAG_BYTES = Long.getLong("eva.replication.maxLagBytes", 64L << 20);
+
+    private final EventServiceInterface eventService;
+    private final CustomerServiceInterface customerService;
+    private final TicketServiceInterface ticketService;
+    private final long heartbeatMillis;
+    private final Subscription subscription;
+    private final ServerSocket serverSocket;
+    private final Queue<Socket> joining = new ConcurrentLinkedQueue<>();
+    private final List<Link> replicas = new ArrayList<>();
+    private final ReplicationCodec.Encoder encoder = new ReplicationCodec.Encoder();
+    private final Thread acceptor;
+    private final Thread shipper;
+    private volatile boolean running = true;
+    private volatile long framesSent;
+    private volatile long rawBytesSent;
+    private volatile long bytesSent;
+    private volatile long replicasDropped;
+
+    public ReplicationPrimary(TicketShop ticketShop, InetSocketAddress address, long heartbeatMillis) throws IOException {
+        this.eventService = ticketShop.getEventServiceInterface();
+        this.customerService = ticketShop.getCustomerServiceInterface();
+        this.ticketService = ticketShop.getTicketServiceInterface();
+        this.heartbeatMillis = heartbeatMillis;
+        // Subscribe before anyone can bootstrap, so every change after a bootstrap is still in the feed.
+        this.subscription = ChangeFeed.getInstance().subscribe(OverflowPolicy.BLOCK);
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(address);
+        this.acceptor = new Thread(this::accept, "replication-acceptor");
+        this.shipper = new Thread(this::ship, "replication-shipper");
+        acceptor.start();
+        shipper.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    // Compressed and uncompressed bytes of record payload sent so far, across all replicas.
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getRawBytesSent() {
+        return rawBytesSent;
+    }
+
+    // Replicas disconnected for falling more than MAX_LAG_BYTES behind.
+    public long getReplicasDropped() {
+        return replicasDropped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        try {
+            acceptor.join();
+            shipper.join();
+            subscription.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                joining.add(socket);
+            } catch (IOException e) {
+                if (running) {
+                    System.out.println("Replication accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void ship() {
+        ChangeListener listener = this::encode;
+        long lastFrame = 0;
+        int idle = 0;
+        while (running) {
+            Socket socket;
+            while ((socket = joining.poll()) != null) {
+                try {
+                    replicas.add(new Link(socket));
+                } catch (IOException e) {
+                    // Gone before it could be served.
+                }
+            }
+            long now = System.currentTimeMillis();
+            int drained = subscription.drain(BATCH_SIZE, listener);
+            // Only once the feed is empty is everything published before now on its way to the replicas.
+            boolean caughtUp = subscription.getLag() == 0;
+            if (drained > 0 || (caughtUp && now - lastFrame >= heartbeatMillis)) {
+                send(caughtUp ? now : -1);
+                lastFrame = now;
+                idle = 0;
+            } else if (++idle < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(100_000);
+            }
+        }
+        for (Link link : replicas) {
+            link.close();
+        }
+        encoder.end();
+    }
+
+    private void encode(ChangeRecord record) {
+        ChangeType type = record.getType();
+        int count = record.getCount();
+        switch (type) {
+            case EVENT_ADDED:
+            case EVENT_UPDATED:
+                count = currentTickets(record.getEventId(), count);
+                break;
+            case TICKET_SOLD:
+            case TICKET_REFUNDED:
+            case INVENTORY_CHANGED:
+                count = currentTickets(record.getEventId(), -1);
+                break;
+            default:
+                break;
+        }
+        encoder.add(type, record.getSequence(), record.getTimestamp(), record.getId(), record.getVersion(),
+                record.getCustomerId(), record.getEventId(), count, record.getName(), record.getDetail(), record.getDate());
+    }
+
+    private int currentTickets(long eventId, int fallback) {
+        try {
+            return eventService.get(eventId).getNmbTickets();
+        } catch (NoSuchElementException e) {
+            return fallback;
+        }
+    }
+
+    // asOfMillis of -1 keeps the replicas' previous bound, since part of the feed is still unsent.
+    private void send(long asOfMillis) {
+        int rawBytes = encoder.rawBytes();
+        encoder.seal();
+        byte[] frame = encoder.frame(asOfMillis);
+        for (int i = replicas.size() - 1; i >= 0; i--) {
+            Link link = replicas.get(i);
+            if (link.offer(frame)) {
+                bytesSent += frame.length;
+                rawBytesSent += rawBytes;
+                framesSent++;
+            } else {
+                link.close();
+                replicas.remove(i);
+            }
+        }
+        encoder.reset();
+    }
+
+    // Queues frames for one replica and writes them on its own thread, starting with the bootstrap.
+    // Once closed, further frames are refused and the writer stops, unblocked by the closed socket if
+    // it's stuck in a write.
+    private final class Link {
+        private final Socket socket;
+        private final DataOutputStream out;
+        private final LinkedBlockingQueue<byte[]> frames = new LinkedBlockingQueue<>();
+        private final AtomicLong queuedBytes = new AtomicLong();
+        private final Thread writer;
+        private volatile boolean open = true;
+
+        private Link(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+            this.writer = new Thread(this::write, "replication-writer-" + socket.getPort());
+            writer.setDaemon(true);
+            writer.start();
+        }
+
+        // Returns false if the replica is gone or has fallen too far behind.
+        private boolean offer(byte[] frame) {
+            if (!open) {
+                return false;
+            }
+            if (queuedBytes.addAndGet(frame.length) > MAX_LAG_BYTES) {
+                replicasDropped++;
+                System.out.println("Dropping replica " + socket.getRemoteSocketAddress() + ", more than "
+                        + MAX_LAG_BYTES / 1024 + " KiB behind");
+                return false;
+            }
+            frames.add(frame);
+            return true;
+        }
+
+        private void write() {
+            try {
+                bootstrap();
+                while (open) {
+                    byte[] frame = frames.poll(100, TimeUnit.MILLISECONDS);
+                    if (frame == null) {
+                        continue;
+                    }
+                    out.write(frame);
+                    // Flush only once the queue is empty, so a backlog goes out in large writes.
+                    if (frames.isEmpty()) {
+                        out.flush();
+                    }
+                    queuedBytes.addAndGet(-frame.length);
+                }
+            } catch (IOException e) {
+                // Disconnected, the shipper finds out on its next offer.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                open = false;
+            }
+        }
+
+        // The link is registered with the shipper before the state is read, and every change is applied
+        // before it's published, so whatever the bootstrap misses is in the frames queued behind it.
+        private void bootstrap() throws IOException {
+            ReplicationCodec.Encoder snapshot = new ReplicationCodec.Encoder();
+            long now = System.currentTimeMillis();
+            try {
+                eventService.forEach(event -> {
+                    EventSnapshot fields = event.getSnapshot();
+                    snapshot.add(ChangeType.EVENT_ADDED, -1, now, event.getId(), fields.getVersion(), 0, event.getId(),
+                            event.getNmbTickets(), fields.getName(), fields.getLocation(), fields.getDate());
+                    flushIfFull(snapshot);
+                });
+                customerService.forEach(customer -> {
+                    CustomerSnapshot fields = customer.getSnapshot();
+                    snapshot.add(ChangeType.CUSTOMER_ADDED, -1, now, customer.getId(), fields.getVersion(), customer.getId(),
+                            0, 0, fields.getUsername(), fields.getEmail(), fields.getBirthday());
+                    flushIfFull(snapshot);
+                });
+                ticketService.forEach(ticket -> {
+                    snapshot.add(ChangeType.TICKET_SOLD, -1, now, ticket.getId(), 0, ticket.getCustomerId(),
+                            ticket.getEventId(), -1, null, null, ticket.getPurchaseDate());
+                    flushIfFull(snapshot);
+                });
+                // The bootstrap isn't a consistent cut, so it only bounds staleness once the live stream catches up.
+                snapshot.seal();
+                out.write(snapshot.frame(-1));
+                out.flush();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                snapshot.end();
+            }
+        }
+
+        private void flushIfFull(ReplicationCodec.Encoder snapshot) {
+            if (snapshot.records() < BATCH_SIZE) {
+                return;
+            }
+            snapshot.seal();
+            try {
+                out.write(snapshot.frame(-1));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            snapshot.reset();
+        }
+
+        private void close() {
+            open = false;
+            frames.clear();
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.report;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+// Sales counters for one event. Sales and refunds hold the read lock so they count concurrently;
+// a location change takes the write lock to move the event's net count between location rollups.
+final class EventSales {
+    final LongAdder sold = new LongAdder();
+    final LongAdder refunded = new LongAdder();
+    final StampedLock lock = new StampedLock();
+    String location;
+
+    EventSales(String location) {
+        this.location = location;
+    }
+
+    long net() {
+        return sold.sum() - refunded.sum();
+    }
+}
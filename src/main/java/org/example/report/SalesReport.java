@@ -0,0 +1,143 @@
+package org.example.report;
+
+import org.example.event.Event;
+import org.example.event.EventService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Aggregates kept up to date by the purchase and refund paths, so every query is a lookup plus
+// an adder sum instead of a scan over all tickets. Counts are per event (gross sold and refunded),
+// per current event location and per purchase day; the location and day rollups are net of refunds.
+// Deleting an event refunds its tickets. Tickets of archived events still count towards their
+// purchase day but no longer to a location.
+public class SalesReport implements SalesReportInterface {
+    private final Map<Long, EventSales> events = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> locations = new ConcurrentHashMap<>();
+    private final Map<LocalDate, LongAdder> days = new ConcurrentHashMap<>();
+    private final LongAdder total = new LongAdder();
+    private static SalesReport INSTANCE;
+
+    private SalesReport() {
+    }
+
+    public static synchronized SalesReport getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new SalesReport();
+        }
+        return INSTANCE;
+    }
+
+    public void recordSale(Event event, LocalDateTime purchaseDate, int quantity) {
+        EventSales sales = events.computeIfAbsent(event.getId(), id -> new EventSales(event.getLocation()));
+        long stamp = sales.lock.readLock();
+        try {
+            sales.sold.add(quantity);
+            counter(locations, sales.location).add(quantity);
+        } finally {
+            sales.lock.unlockRead(stamp);
+        }
+        counter(days, purchaseDate.toLocalDate()).add(quantity);
+        total.add(quantity);
+    }
+
+    public void recordRefund(long eventId, LocalDateTime purchaseDate) {
+        EventSales sales = events.get(eventId);
+        if (sales != null) {
+            long stamp = sales.lock.readLock();
+            try {
+                sales.refunded.increment();
+                counter(locations, sales.location).decrement();
+            } finally {
+                sales.lock.unlockRead(stamp);
+            }
+        }
+        counter(days, purchaseDate.toLocalDate()).decrement();
+        total.decrement();
+    }
+
+    // Runs under the map's bin lock so a record that is being created concurrently is not missed.
+    public void relocate(long eventId, String location) {
+        events.computeIfPresent(eventId, (id, sales) -> {
+            long stamp = sales.lock.writeLock();
+            try {
+                if (!sales.location.equals(location)) {
+                    long net = sales.net();
+                    counter(locations, sales.location).add(-net);
+                    counter(locations, location).add(net);
+                    sales.location = location;
+                }
+            } finally {
+                sales.lock.unlockWrite(stamp);
+            }
+            return sales;
+        });
+    }
+
+    public void eventRemoved(long eventId) {
+        EventSales sales = events.remove(eventId);
+        if (sales != null) {
+            long stamp = sales.lock.writeLock();
+            try {
+                counter(locations, sales.location).add(-sales.net());
+            } finally {
+                sales.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    public void clear() {
+        events.clear();
+        locations.clear();
+        days.clear();
+        total.reset();
+    }
+
+    @Override
+    public long getSold(long eventId) {
+        EventSales sales = events.get(eventId);
+        return sales == null ? 0 : sales.sold.sum();
+    }
+
+    @Override
+    public long getRefunded(long eventId) {
+        EventSales sales = events.get(eventId);
+        return sales == null ? 0 : sales.refunded.sum();
+    }
+
+    @Override
+    public long getNetSold(long eventId) {
+        EventSales sales = events.get(eventId);
+        return sales == null ? 0 : sales.net();
+    }
+
+    @Override
+    public int getRemaining(long eventId) throws InterruptedException {
+        return EventService.getInstance().get(eventId).getNmbTickets();
+    }
+
+    @Override
+    public long getNetSoldAtLocation(String location) {
+        LongAdder counter = locations.get(location);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    @Override
+    public long getNetSoldOnDay(LocalDate day) {
+        LongAdder counter = days.get(day);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    @Override
+    public long getTotalNetSold() {
+        return total.sum();
+    }
+
+    private static <K> LongAdder counter(Map<K, LongAdder> counters, K key) {
+        LongAdder counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+}
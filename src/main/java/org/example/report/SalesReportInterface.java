@@ -0,0 +1,19 @@
+package org.example.report;
+
+import java.time.LocalDate;
+
+public interface SalesReportInterface {
+    long getSold(long eventId);
+
+    long getRefunded(long eventId);
+
+    long getNetSold(long eventId);
+
+    int getRemaining(long eventId) throws InterruptedException;
+
+    long getNetSoldAtLocation(String location);
+
+    long getNetSoldOnDay(LocalDate day);
+
+    long getTotalNetSold();
+}
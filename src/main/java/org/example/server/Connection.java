@@ -0,0 +1,171 @@
+package org.example.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+// Per-connection buffers. The selector thread queues complete request frames and owns the inbound
+// buffer; at most one worker at a time serves the queue, encoding responses into the staged buffer,
+// which is moved to the outbound direct buffer between requests and handed to the socket as is.
+// Everything the two sides share is guarded by the connection's monitor.
+final class Connection {
+    private static final int INITIAL_BUFFER_BYTES = 1 << 16;
+
+    final SocketChannel channel;
+    final SelectionKey key;
+    ByteBuffer in = ByteBuffer.allocateDirect(INITIAL_BUFFER_BYTES);
+    boolean readPaused;
+
+    // Worker side.
+    private ByteBuffer staged = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private int frameStart;
+    // Remaining entities of a GET_ALL that is being sent in chunks.
+    Object[] stream;
+    int streamPosition;
+    long streamRequestId;
+
+    private ByteBuffer out = ByteBuffer.allocateDirect(INITIAL_BUFFER_BYTES);
+    private final ArrayDeque<ByteBuffer> requests = new ArrayDeque<>();
+    private int queuedBytes;
+    private boolean scheduled;
+    private boolean suspended;
+    private boolean flushRequested;
+    private boolean closed;
+
+    Connection(SocketChannel channel, SelectionKey key) {
+        this.channel = channel;
+        this.key = key;
+    }
+
+    ByteBuffer beginResponse(long requestId, byte status, int payloadBytes) {
+        ensureStaged(Protocol.HEADER_BYTES + payloadBytes);
+        frameStart = staged.position();
+        staged.putInt(0);
+        staged.putLong(requestId);
+        staged.put(status);
+        return staged;
+    }
+
+    void endResponse() {
+        staged.putInt(frameStart, staged.position() - frameStart - Integer.BYTES);
+    }
+
+    private void ensureStaged(int bytes) {
+        if (staged.remaining() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(staged.capacity() * 2, staged.position() + bytes));
+            staged.flip();
+            bigger.put(staged);
+            staged = bigger;
+        }
+    }
+
+    void ensureIn(int bytes) {
+        if (in.capacity() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(in.capacity() * 2, bytes));
+            in.flip();
+            bigger.put(in);
+            in = bigger;
+        }
+    }
+
+    // Queues a request frame; returns true if the caller has to hand the connection to a worker.
+    synchronized boolean enqueue(ByteBuffer request) {
+        if (closed) {
+            return false;
+        }
+        requests.add(request);
+        queuedBytes += request.capacity();
+        if (scheduled || suspended) {
+            return false;
+        }
+        scheduled = true;
+        return true;
+    }
+
+    // Moves the staged responses behind the unsent ones. Returns true if the caller has to wake the
+    // selector up to flush them.
+    synchronized boolean publish() {
+        if (staged.position() == 0 || closed) {
+            staged.clear();
+            return false;
+        }
+        if (out.remaining() < staged.position()) {
+            ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(out.capacity() * 2, out.position() + staged.position()));
+            out.flip();
+            bigger.put(out);
+            out = bigger;
+        }
+        staged.flip();
+        out.put(staged);
+        staged.clear();
+        if (flushRequested) {
+            return false;
+        }
+        flushRequested = true;
+        return true;
+    }
+
+    // Called by the serving worker after publishing. Returns the next request, the stream itself if a
+    // GET_ALL is to be continued, or null once the worker gives the connection up: because nothing is
+    // queued, or because the client hasn't read enough of the output yet to take another chunk. A
+    // suspended stream is resumed by the selector.
+    synchronized Object next(int highWaterBytes) {
+        if (closed) {
+            stream = null;
+            scheduled = false;
+            return null;
+        }
+        if (stream != null) {
+            if (out.position() < highWaterBytes) {
+                return stream;
+            }
+            suspended = true;
+            scheduled = false;
+            return null;
+        }
+        ByteBuffer request = requests.poll();
+        if (request == null) {
+            scheduled = false;
+            return null;
+        }
+        queuedBytes -= request.capacity();
+        return request;
+    }
+
+    // Returns true if the caller has to hand the suspended stream back to a worker.
+    synchronized boolean resume() {
+        if (!suspended || closed) {
+            return false;
+        }
+        suspended = false;
+        scheduled = true;
+        return true;
+    }
+
+    synchronized void close() {
+        closed = true;
+        requests.clear();
+        queuedBytes = 0;
+    }
+
+    synchronized int pendingBytes() {
+        return out.position();
+    }
+
+    // Unsent responses plus requests that haven't been served yet.
+    synchronized int backlogBytes() {
+        return out.position() + queuedBytes;
+    }
+
+    synchronized void flush() throws IOException {
+        flushRequested = false;
+        out.flip();
+        try {
+            channel.write(out);
+        } finally {
+            out.compact();
+        }
+    }
+}
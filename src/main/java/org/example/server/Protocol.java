@@ -0,0 +1,110 @@
+package org.example.server;
+
+import org.example.customer.Customer;
+import org.example.event.Event;
+import org.example.ticket.Ticket;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Frames in both directions: int length of the rest of the frame, long request ID, then
+// for requests the opcode and its arguments, for responses a status and the result.
+// Responses on a connection come back in request order, so clients may pipeline freely.
+// GET_ALL answers with an int count and that many entities per frame; every frame but the last has
+// status MORE, so no single frame exceeds the size the server sends in one piece.
+public final class Protocol {
+    public static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + 1;
+    public static final int MAX_FRAME_BYTES = 1 << 20;
+    public static final int DATE_TIME_BYTES = Long.BYTES + Integer.BYTES;
+    public static final int TICKET_BYTES = Long.BYTES + DATE_TIME_BYTES + Long.BYTES + Long.BYTES;
+
+    public static final byte EVENT_ADD = 1;
+    public static final byte EVENT_GET = 2;
+    public static final byte EVENT_UPDATE = 3;
+    public static final byte EVENT_DELETE = 4;
+    public static final byte EVENT_GET_ALL = 5;
+    public static final byte EVENT_DELETE_ALL = 6;
+    public static final byte CUSTOMER_ADD = 11;
+    public static final byte CUSTOMER_GET = 12;
+    public static final byte CUSTOMER_UPDATE = 13;
+    public static final byte CUSTOMER_DELETE = 14;
+    public static final byte CUSTOMER_GET_ALL = 15;
+    public static final byte CUSTOMER_DELETE_ALL = 16;
+    public static final byte TICKET_ADD = 21;
+    public static final byte TICKET_GET = 22;
+    public static final byte TICKET_DELETE = 24;
+    public static final byte TICKET_GET_ALL = 25;
+    public static final byte TICKET_DELETE_ALL = 26;
+
+    public static final byte OK = 0;
+    public static final byte NOT_FOUND = 1;
+    public static final byte INVALID = 2;
+    public static final byte SOLD_OUT = 3;
+    public static final byte ERROR = 4;
+    public static final byte THROTTLED = 5;
+    public static final byte MORE = 6;
+
+    private Protocol() {
+    }
+
+    public static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    public static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void putDateTime(ByteBuffer buffer, LocalDateTime value) {
+        buffer.putLong(value.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(value.getNano());
+    }
+
+    public static LocalDateTime getDateTime(ByteBuffer buffer) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+    }
+
+    public static int stringBytes(String value) {
+        return Integer.BYTES + value.length() * 3;
+    }
+
+    public static int eventBytes(Event event) {
+        return Long.BYTES + stringBytes(event.getName()) + stringBytes(event.getLocation()) + DATE_TIME_BYTES + Integer.BYTES;
+    }
+
+    public static void putEvent(ByteBuffer buffer, Event event) {
+        buffer.putLong(event.getId());
+        putString(buffer, event.getName());
+        putString(buffer, event.getLocation());
+        putDateTime(buffer, event.getDate());
+        buffer.putInt(event.getNmbTickets());
+    }
+
+    public static int customerBytes(Customer customer) {
+        return Long.BYTES + stringBytes(customer.getUsername()) + stringBytes(customer.getEmail()) + DATE_TIME_BYTES;
+    }
+
+    public static void putCustomer(ByteBuffer buffer, Customer customer) {
+        buffer.putLong(customer.getId());
+        putString(buffer, customer.getUsername());
+        putString(buffer, customer.getEmail());
+        putDateTime(buffer, customer.getBirthday());
+    }
+
+    public static void putTicket(ByteBuffer buffer, Ticket ticket) {
+        buffer.putLong(ticket.getId());
+        putDateTime(buffer, ticket.getPurchaseDate());
+        buffer.putLong(ticket.getCustomerId());
+        buffer.putLong(ticket.getEventId());
+    }
+}
@@ -0,0 +1,410 @@
+package org.example.server;
+
+import org.example.TicketShop;
+import org.example.customer.Customer;
+import org.example.customer.CustomerServiceInterface;
+import org.example.event.Event;
+import org.example.event.EventServiceInterface;
+import org.example.event.SoldOutException;
+import org.example.ticket.ThrottledException;
+import org.example.ticket.Ticket;
+import org.example.ticket.TicketServiceInterface;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Single selector thread serving the binary Protocol. The selector only moves bytes: complete
+// request frames are queued on their connection and executed by a pool of workers, one worker per
+// connection at a time, so requests are still executed in arrival order per connection and a slow
+// service call never holds up other connections' I/O. Once a connection has more than
+// HIGH_WATER_BYTES of unsent responses and unserved requests it is no longer read from until it is
+// below LOW_WATER_BYTES again, and connections beyond maxConnections are closed right after accept.
+//
+// GET_ALL sends a snapshot of the entities in chunks of about STREAM_CHUNK_BYTES. A worker stops
+// after any chunk that leaves the connection above HIGH_WATER_BYTES and the selector resumes the
+// stream once the client has read it below LOW_WATER_BYTES, so a large store or a client that reads
+// slowly can't grow the outbound buffer without bound.
+public final class TicketShopServer implements Closeable {
+    private static final int HIGH_WATER_BYTES = 1 << 20;
+    private static final int LOW_WATER_BYTES = 1 << 18;
+    private static final int STREAM_CHUNK_BYTES = 1 << 16;
+    private static final int WORKERS = Integer.getInteger("eva.server.workers", Runtime.getRuntime().availableProcessors() * 2);
+
+    private final EventServiceInterface eventService;
+    private final CustomerServiceInterface customerService;
+    private final TicketServiceInterface ticketService;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final int maxConnections;
+    private final Thread loop;
+    private final ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+    // Connections whose worker has published responses since the selector last flushed them.
+    private final Queue<Connection> flushes = new ConcurrentLinkedQueue<>();
+    private int connections;
+    private volatile boolean running = true;
+
+    public TicketShopServer(TicketShop ticketShop, InetSocketAddress address, int maxConnections) throws IOException {
+        this.eventService = ticketShop.getEventServiceInterface();
+        this.customerService = ticketShop.getCustomerServiceInterface();
+        this.ticketService = ticketShop.getTicketServiceInterface();
+        this.maxConnections = maxConnections;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.loop = new Thread(this::run, "ticket-shop-server");
+    }
+
+    public void start() {
+        loop.start();
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    public void join() throws InterruptedException {
+        loop.join();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            loop.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection) {
+                ((Connection) key.attachment()).close();
+            }
+            key.channel().close();
+        }
+        selector.close();
+        workers.shutdown();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+                Connection flushed;
+                while ((flushed = flushes.poll()) != null) {
+                    if (flushed.key.isValid()) {
+                        try {
+                            write(flushed);
+                        } catch (IOException e) {
+                            close(flushed);
+                        }
+                    }
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isWritable()) {
+                            write(connection);
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            read(connection);
+                        }
+                    } catch (IOException e) {
+                        close(connection);
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.out.println("Server loop failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            if (connections >= maxConnections) {
+                channel.close();
+                continue;
+            }
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+            connections++;
+        }
+    }
+
+    private void close(Connection connection) {
+        connection.close();
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+        }
+        connections--;
+    }
+
+    private void read(Connection connection) throws IOException {
+        if (connection.channel.read(connection.in) < 0) {
+            close(connection);
+            return;
+        }
+        process(connection);
+    }
+
+    private void write(Connection connection) throws IOException {
+        connection.flush();
+        // The stream only waits for the client; requests queued behind it wait for the stream.
+        if (connection.pendingBytes() < LOW_WATER_BYTES && connection.resume()) {
+            workers.execute(() -> serve(connection));
+        }
+        if (connection.readPaused && connection.backlogBytes() < LOW_WATER_BYTES) {
+            connection.readPaused = false;
+        }
+        updateInterest(connection);
+    }
+
+    // Queues every complete frame in the inbound buffer for the connection's worker.
+    private void process(Connection connection) throws IOException {
+        ByteBuffer in = connection.in;
+        in.flip();
+        while (in.remaining() >= Integer.BYTES) {
+            int length = in.getInt(in.position());
+            if (length < Protocol.HEADER_BYTES - Integer.BYTES || length > Protocol.MAX_FRAME_BYTES) {
+                close(connection);
+                return;
+            }
+            if (in.remaining() < Integer.BYTES + length) {
+                break;
+            }
+            int frameEnd = in.position() + Integer.BYTES + length;
+            int limit = in.limit();
+            in.position(in.position() + Integer.BYTES);
+            in.limit(frameEnd);
+            ByteBuffer request = ByteBuffer.allocate(length);
+            request.put(in).flip();
+            in.limit(limit);
+            if (connection.enqueue(request)) {
+                workers.execute(() -> serve(connection));
+            }
+        }
+        int needed = in.remaining() >= Integer.BYTES ? Integer.BYTES + in.getInt(in.position()) : 0;
+        in.compact();
+        connection.ensureIn(needed);
+        connection.readPaused = connection.backlogBytes() >= HIGH_WATER_BYTES;
+        if (connection.pendingBytes() > 0) {
+            connection.flush();
+        }
+        updateInterest(connection);
+    }
+
+    private void updateInterest(Connection connection) {
+        if (!connection.key.isValid()) {
+            return;
+        }
+        int ops = connection.readPaused ? 0 : SelectionKey.OP_READ;
+        if (connection.pendingBytes() > 0) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        connection.key.interestOps(ops);
+    }
+
+    // Runs on a worker until the connection has nothing left to do or has to wait for the client.
+    private void serve(Connection connection) {
+        while (true) {
+            if (connection.publish()) {
+                flushes.add(connection);
+                selector.wakeup();
+            }
+            Object next = connection.next(HIGH_WATER_BYTES);
+            if (next == null) {
+                return;
+            }
+            if (next == connection.stream) {
+                streamChunk(connection);
+            } else {
+                ByteBuffer request = (ByteBuffer) next;
+                dispatch(connection, request.getLong(), request.get(), request);
+            }
+        }
+    }
+
+    private void startStream(Connection connection, long requestId, Object[] entities) {
+        connection.stream = entities;
+        connection.streamPosition = 0;
+        connection.streamRequestId = requestId;
+        streamChunk(connection);
+    }
+
+    private void streamChunk(Connection connection) {
+        Object[] entities = connection.stream;
+        int from = connection.streamPosition;
+        int to = from;
+        int bytes = Integer.BYTES;
+        while (to < entities.length && bytes < STREAM_CHUNK_BYTES) {
+            bytes += entityBytes(entities[to++]);
+        }
+        boolean last = to == entities.length;
+        ByteBuffer out = connection.beginResponse(connection.streamRequestId, last ? Protocol.OK : Protocol.MORE, bytes);
+        out.putInt(to - from);
+        for (int i = from; i < to; i++) {
+            putEntity(out, entities[i]);
+        }
+        connection.endResponse();
+        connection.streamPosition = to;
+        if (last) {
+            connection.stream = null;
+        }
+    }
+
+    private static int entityBytes(Object entity) {
+        if (entity instanceof Event) {
+            return Protocol.eventBytes((Event) entity);
+        }
+        if (entity instanceof Customer) {
+            return Protocol.customerBytes((Customer) entity);
+        }
+        return Protocol.TICKET_BYTES;
+    }
+
+    private static void putEntity(ByteBuffer out, Object entity) {
+        if (entity instanceof Event) {
+            Protocol.putEvent(out, (Event) entity);
+        } else if (entity instanceof Customer) {
+            Protocol.putCustomer(out, (Customer) entity);
+        } else {
+            Protocol.putTicket(out, (Ticket) entity);
+        }
+    }
+
+    private void dispatch(Connection connection, long requestId, byte opcode, ByteBuffer request) {
+        try {
+            switch (opcode) {
+                case Protocol.EVENT_ADD: {
+                    Event event = eventService.add(Protocol.getString(request), Protocol.getString(request),
+                            Protocol.getDateTime(request), request.getInt());
+                    Protocol.putEvent(connection.beginResponse(requestId, Protocol.OK, Protocol.eventBytes(event)), event);
+                    break;
+                }
+                case Protocol.EVENT_GET: {
+                    Event event = eventService.get(request.getLong());
+                    Protocol.putEvent(connection.beginResponse(requestId, Protocol.OK, Protocol.eventBytes(event)), event);
+                    break;
+                }
+                case Protocol.EVENT_UPDATE:
+                    eventService.update(request.getLong(), Protocol.getString(request), Protocol.getString(request),
+                            Protocol.getDateTime(request), request.getInt());
+                    connection.beginResponse(requestId, Protocol.OK, 0);
+                    break;
+                case Protocol.EVENT_DELETE:
+                    eventService.delete(request.getLong());
+                    connection.beginResponse(requestId, Protocol.OK, 0);
+                    break;
+                case Protocol.EVENT_GET_ALL:
+                    startStream(connection, requestId, eventService.getAll());
+                    return;
+                case Protocol.EVENT_DELETE_ALL:
+                    eventService.deleteAll();
+                    connection.beginResponse(requestId, Protocol.OK, 0);
+                    break;
+                case Protocol.CUSTOMER_ADD: {
+                    Customer customer = customerService.add(Protocol.getString(request), Protocol.getString(request),
+                            Protocol.getDateTime(request));
+                    Protocol.putCustomer(connection.beginResponse(requestId, Protocol.OK, Protocol.customerBytes(customer)), customer);
+                    break;
+                }
+                case Protocol.CUSTOMER_GET: {
+                    Customer customer = customerService.get(request.getLong());
+                    Protocol.putCustomer(connection.beginResponse(requestId, Protocol.OK, Protocol.customerBytes(customer)), customer);
+                    break;
+                }
+                case Protocol.CUSTOMER_UPDATE:
+                    customerService.update(request.getLong(), Protocol.getString(request), Protocol.getString(request),
+                            Protocol.getDateTime(request));
+                    connection.beginResponse(requestId, Protocol.OK, 0);
+                    break;
+                case Protocol.CUSTOMER_DELETE:
+                    customerService.delete(request.getLong());
+                    connection.beginResponse(requestId, Protocol.OK, 0);
+                    break;
+                case Protocol.CUSTOMER_GET_ALL:
+                    startStream(connection, requestId, customerService.getAll());
+                    return;
+                case Protocol.CUSTOMER_DELETE_ALL:
+                    customerService.deleteAll();
+                    connection.beginResponse(requestId, Protocol.OK, 0);
+                    break;
+                case Protocol.TICKET_ADD: {
+                    Ticket ticket = ticketService.add(LocalDateTime.now(), request.getLong(), request.getLong());
+                    Protocol.putTicket(connection.beginResponse(requestId, Protocol.OK, Protocol.TICKET_BYTES), ticket);
+                    break;
+                }
+                case Protocol.TICKET_GET: {
+                    Ticket ticket = ticketService.get(request.getLong());
+                    Protocol.putTicket(connection.beginResponse(requestId, Protocol.OK, Protocol.TICKET_BYTES), ticket);
+                    break;
+                }
+                case Protocol.TICKET_DELETE:
+                    ticketService.delete(request.getLong());
+                    connection.beginResponse(requestId, Protocol.OK, 0);
+                    break;
+                case Protocol.TICKET_GET_ALL:
+                    startStream(connection, requestId, ticketService.getAll());
+                    return;
+                case Protocol.TICKET_DELETE_ALL:
+                    ticketService.deleteAll();
+                    connection.beginResponse(requestId, Protocol.OK, 0);
+                    break;
+                default:
+                    fail(connection, requestId, Protocol.INVALID, "Unknown opcode " + opcode);
+                    return;
+            }
+            connection.endResponse();
+        } catch (NoSuchElementException e) {
+            fail(connection, requestId, Protocol.NOT_FOUND, e.getMessage());
+        } catch (SoldOutException e) {
+            fail(connection, requestId, Protocol.SOLD_OUT, e.getMessage());
+        } catch (ThrottledException e) {
+            fail(connection, requestId, Protocol.THROTTLED, e.getMessage());
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            fail(connection, requestId, Protocol.INVALID, String.valueOf(e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(connection, requestId, Protocol.ERROR, "Interrupted");
+        } catch (RuntimeException e) {
+            fail(connection, requestId, Protocol.ERROR, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void fail(Connection connection, long requestId, byte status, String message) {
+        Protocol.putString(connection.beginResponse(requestId, status, Protocol.stringBytes(message)), message);
+        connection.endResponse();
+    }
+}
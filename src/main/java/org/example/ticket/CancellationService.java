@@ -0,0 +1,40 @@
+package org.example.ticket;
+
+import java.util.NoSuchElementException;
+
+// Refunds single tickets or every ticket of an event or customer in one batch. Tickets sold while an
+// event or customer is being cancelled are not included; take the event's inventory to zero first
+// if no new sales should slip in.
+public class CancellationService implements CancellationServiceInterface {
+    private final TicketService ticketService = TicketService.getInstance();
+    private static CancellationService INSTANCE;
+
+    private CancellationService() throws InterruptedException {
+    }
+
+    public static synchronized CancellationService getInstance() throws InterruptedException {
+        if (INSTANCE == null) {
+            INSTANCE = new CancellationService();
+        }
+        return INSTANCE;
+    }
+
+    @Override
+    public Ticket cancelTicket(long ticketId) {
+        Ticket[] cancelled = ticketService.cancel(new long[]{ticketId});
+        if (cancelled.length == 0) {
+            throw new NoSuchElementException("No ticket found with ID " + ticketId);
+        }
+        return cancelled[0];
+    }
+
+    @Override
+    public int cancelEvent(long eventId) {
+        return ticketService.cancelEvent(eventId).length;
+    }
+
+    @Override
+    public int cancelCustomer(long customerId) {
+        return ticketService.cancelCustomer(customerId).length;
+    }
+}
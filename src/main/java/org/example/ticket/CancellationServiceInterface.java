@@ -0,0 +1,10 @@
+package org.example.ticket;
+
+public interface CancellationServiceInterface {
+
+    Ticket cancelTicket(long ticketId);
+
+    int cancelEvent(long eventId);
+
+    int cancelCustomer(long customerId);
+}
@@ -0,0 +1,209 @@
+package org.example.ticket;
+
+import org.example.utils.LongLongHashMap;
+
+// Counts the tickets each customer holds per event and enforces the per-event limit on them. Entries
+// live in 64 independently locked open-addressing stripes, each slot being the customer and event ID
+// packed side by side into one long[] plus an int count, so an entry costs at most 40 bytes instead of
+// the boxed nested maps every Customer used to carry. Snowflake IDs use all 63 bits, which is why the
+// two IDs aren't folded into a single long. Zero is not a valid customer ID.
+public class PurchaseLimitEngine implements PurchaseLimitEngineInterface {
+    public static final int DEFAULT_LIMIT = Integer.getInteger("eva.limits.ticketsPerEvent", 5);
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    // Copied on every change, so the purchase path reads limits without locking.
+    private volatile LongLongHashMap limits = new LongLongHashMap(16);
+    private static PurchaseLimitEngine INSTANCE;
+
+    private PurchaseLimitEngine() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(64);
+        }
+    }
+
+    public static synchronized PurchaseLimitEngine getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new PurchaseLimitEngine();
+        }
+        return INSTANCE;
+    }
+
+    // Customers already holding more than a lowered limit keep their tickets but can't buy more.
+    @Override
+    public synchronized void setLimit(long eventId, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative");
+        }
+        LongLongHashMap next = new LongLongHashMap(limits);
+        next.put(eventId, limit);
+        limits = next;
+    }
+
+    @Override
+    public synchronized void resetLimit(long eventId) {
+        LongLongHashMap next = new LongLongHashMap(limits);
+        next.remove(eventId, 0);
+        limits = next;
+    }
+
+    @Override
+    public int getLimit(long eventId) {
+        return (int) limits.get(eventId, DEFAULT_LIMIT);
+    }
+
+    @Override
+    public int getCount(long customerId, long eventId) {
+        long hash = hash(customerId, eventId);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            int slot = stripe.find(customerId, eventId, hash);
+            return slot < 0 ? 0 : stripe.counts[slot];
+        }
+    }
+
+    // Adds quantity to the customer's count for the event unless that would exceed the event's limit.
+    boolean tryAcquire(long customerId, long eventId, int quantity) {
+        if (customerId == 0) {
+            throw new IllegalArgumentException("Customer ID must not be 0");
+        }
+        int limit = getLimit(eventId);
+        if (quantity > limit) {
+            return false;
+        }
+        long hash = hash(customerId, eventId);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            int slot = stripe.find(customerId, eventId, hash);
+            if (slot < 0) {
+                stripe.insert(-slot - 1, customerId, eventId, quantity);
+                return true;
+            }
+            if (stripe.counts[slot] + quantity > limit) {
+                return false;
+            }
+            stripe.counts[slot] += quantity;
+            return true;
+        }
+    }
+
+    // Gives back quantity, dropping the entry once the customer holds nothing for the event.
+    void release(long customerId, long eventId, int quantity) {
+        long hash = hash(customerId, eventId);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            int slot = stripe.find(customerId, eventId, hash);
+            if (slot < 0) {
+                return;
+            }
+            stripe.counts[slot] -= quantity;
+            if (stripe.counts[slot] <= 0) {
+                stripe.remove(slot);
+            }
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                bytes += stripe.keys.length * 8L + stripe.counts.length * 4L;
+            }
+        }
+        return bytes;
+    }
+
+    private Stripe stripe(long hash) {
+        return stripes[(int) (hash >>> 58)];
+    }
+
+    private static long hash(long customerId, long eventId) {
+        long h = (customerId * 0x9E3779B97F4A7C15L) ^ (eventId * 0xC2B2AE3D27D4EB4FL);
+        return h ^ (h >>> 29);
+    }
+
+    private static final class Stripe {
+        // keys[2 * slot] is the customer, 0 for a free slot, keys[2 * slot + 1] the event.
+        private long[] keys;
+        private int[] counts;
+        private int size;
+
+        private Stripe(int capacity) {
+            this.keys = new long[capacity * 2];
+            this.counts = new int[capacity];
+        }
+
+        // Returns the slot holding the pair, or -(free slot + 1) if it isn't present.
+        private int find(long customerId, long eventId, long hash) {
+            int mask = counts.length - 1;
+            for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                long customer = keys[2 * i];
+                if (customer == 0) {
+                    return -i - 1;
+                }
+                if (customer == customerId && keys[2 * i + 1] == eventId) {
+                    return i;
+                }
+            }
+        }
+
+        private void insert(int slot, long customerId, long eventId, int count) {
+            keys[2 * slot] = customerId;
+            keys[2 * slot + 1] = eventId;
+            counts[slot] = count;
+            if (++size * 2 > counts.length) {
+                rehash(counts.length << 1);
+            }
+        }
+
+        // Backward-shift deletion, so lookups never need tombstones.
+        private void remove(int slot) {
+            int mask = counts.length - 1;
+            int hole = slot;
+            for (int j = (hole + 1) & mask; keys[2 * j] != 0; j = (j + 1) & mask) {
+                int home = (int) hash(keys[2 * j], keys[2 * j + 1]) & mask;
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    keys[2 * hole] = keys[2 * j];
+                    keys[2 * hole + 1] = keys[2 * j + 1];
+                    counts[hole] = counts[j];
+                    hole = j;
+                }
+            }
+            keys[2 * hole] = 0;
+            keys[2 * hole + 1] = 0;
+            counts[hole] = 0;
+            size--;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new long[capacity * 2];
+            counts = new int[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldCounts.length; j++) {
+                long customer = oldKeys[2 * j];
+                if (customer != 0) {
+                    long event = oldKeys[2 * j + 1];
+                    int i = (int) hash(customer, event) & mask;
+                    while (keys[2 * i] != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[2 * i] = customer;
+                    keys[2 * i + 1] = event;
+                    counts[i] = oldCounts[j];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.ticket;
+
+public interface PurchaseLimitEngineInterface {
+
+    void setLimit(long eventId, int limit);
+
+    void resetLimit(long eventId);
+
+    int getLimit(long eventId);
+
+    int getCount(long customerId, long eventId);
+}
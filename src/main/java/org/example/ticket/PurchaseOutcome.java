@@ -0,0 +1,10 @@
+package org.example.ticket;
+
+public enum PurchaseOutcome {
+    OK,
+    SOLD_OUT,
+    UNKNOWN_CUSTOMER,
+    UNKNOWN_EVENT,
+    EVENT_PASSED,
+    LIMIT_REACHED
+}
@@ -0,0 +1,249 @@
+package org.example.ticket;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Limits how fast each customer can attempt purchases, using GCRA: every customer has a theoretical
+// arrival time that moves one interval ahead per allowed attempt, and an attempt is refused while that
+// time is more than burst intervals in the future. The times live in a fixed table of (customer, time)
+// slots updated with CAS only. A customer missing from its probe window takes over the slot whose
+// time is furthest in the past, so idle customers are forgotten first and active bots last.
+//
+// Reading the clock costs about as much as the rest of the check, so while enabled a ticker thread
+// publishes the time once per millisecond and attempts within the same tick share it.
+//
+// Throttled attempts are counted in a count-min sketch, which feeds a small set of heavy hitters for
+// the metrics. Disabled unless eva.rateLimit.perSecond is positive or configure() is called.
+public class PurchaseRateLimiter implements PurchaseRateLimiterInterface {
+    private static final int SLOTS = Integer.highestOneBit(Math.max(64, Integer.getInteger("eva.rateLimit.slots", 1 << 16)));
+    private static final int PROBES = 8;
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH_BITS = 12;
+    private static final long[] SKETCH_SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+    private static final int HEAVY_HITTERS = 16;
+    private static final long TICK_NANOS = 1_000_000;
+
+    // slots[2 * i] is the customer, 0 for a free slot, slots[2 * i + 1] its theoretical arrival time.
+    private final AtomicLongArray slots = new AtomicLongArray(2 * SLOTS);
+    private final AtomicLongArray sketch = new AtomicLongArray(SKETCH_DEPTH << SKETCH_WIDTH_BITS);
+    private final AtomicLongArray heavyHitters = new AtomicLongArray(HEAVY_HITTERS);
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Keeps times positive, so a zeroed slot always reads as long past.
+    private final long origin = System.nanoTime() - TICK_NANOS;
+    private volatile long now = TICK_NANOS;
+    private volatile Rate rate;
+    private Thread ticker;
+    private static PurchaseRateLimiter INSTANCE;
+
+    private PurchaseRateLimiter() {
+        configure(Double.parseDouble(System.getProperty("eva.rateLimit.perSecond", "0")),
+                Integer.getInteger("eva.rateLimit.burst", 10));
+    }
+
+    public static synchronized PurchaseRateLimiter getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new PurchaseRateLimiter();
+        }
+        return INSTANCE;
+    }
+
+    // A rate of zero or less turns limiting off. Customers keep their state across changes.
+    @Override
+    public synchronized void configure(double purchasesPerSecond, int burst) {
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst must be at least 1");
+        }
+        if (purchasesPerSecond <= 0) {
+            rate = null;
+            return;
+        }
+        long interval = Math.max(1, Math.round(1_000_000_000d / purchasesPerSecond));
+        now = System.nanoTime() - origin;
+        rate = new Rate(interval, interval * burst);
+        if (ticker == null || !ticker.isAlive()) {
+            ticker = new Thread(this::tick, "rate-limit-clock");
+            ticker.setDaemon(true);
+            ticker.start();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return rate != null;
+    }
+
+    // Lets the attempt through if the customer is within its rate. If the table is too contended to
+    // find a slot the attempt is let through as well, since a false rejection is worse than a missed one.
+    public boolean tryAcquire(long customerId) {
+        Rate current = rate;
+        if (current == null) {
+            return true;
+        }
+        long now = this.now;
+        int slot = slot(customerId, now);
+        if (slot >= 0) {
+            int at = 2 * slot + 1;
+            while (true) {
+                long arrival = slots.get(at);
+                long next = Math.max(arrival, now) + current.interval;
+                if (next - now > current.tolerance) {
+                    throttle(customerId);
+                    return false;
+                }
+                if (slots.compareAndSet(at, arrival, next)) {
+                    break;
+                }
+            }
+        }
+        allowed.increment();
+        return true;
+    }
+
+    @Override
+    public long getAllowed() {
+        return allowed.sum();
+    }
+
+    @Override
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    // How often a customer was pushed out of the table by another one while still being tracked.
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getEstimatedThrottles(long customerId) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            estimate = Math.min(estimate, sketch.get(cell(row, customerId)));
+        }
+        return estimate;
+    }
+
+    // The most throttled customers, most throttled first.
+    @Override
+    public ThrottledCustomer[] getTopThrottled() {
+        ThrottledCustomer[] top = new ThrottledCustomer[HEAVY_HITTERS];
+        int count = 0;
+        for (int i = 0; i < HEAVY_HITTERS; i++) {
+            long customerId = heavyHitters.get(i);
+            if (customerId != 0) {
+                top[count++] = new ThrottledCustomer(customerId, getEstimatedThrottles(customerId));
+            }
+        }
+        top = Arrays.copyOf(top, count);
+        Arrays.sort(top, Comparator.comparingLong(ThrottledCustomer::getEstimatedThrottles).reversed());
+        return top;
+    }
+
+    @Override
+    public void resetMetrics() {
+        for (int i = 0; i < sketch.length(); i++) {
+            sketch.set(i, 0);
+        }
+        for (int i = 0; i < HEAVY_HITTERS; i++) {
+            heavyHitters.set(i, 0);
+        }
+        allowed.reset();
+        throttled.reset();
+        evictions.reset();
+    }
+
+    // Returns the customer's slot, claiming one if needed, or -1 if another thread took it first.
+    private int slot(long customerId, long now) {
+        long h = customerId * 0x9E3779B97F4A7C15L;
+        int start = (int) (h ^ (h >>> 32)) & (SLOTS - 1);
+        int victim = -1;
+        long victimCustomer = 0;
+        long victimArrival = Long.MAX_VALUE;
+        for (int probe = 0; probe < PROBES; probe++) {
+            int i = (start + probe) & (SLOTS - 1);
+            long customer = slots.get(2 * i);
+            if (customer == customerId) {
+                return i;
+            }
+            if (customer == 0) {
+                if (slots.compareAndSet(2 * i, 0, customerId) || slots.get(2 * i) == customerId) {
+                    return i;
+                }
+                continue;
+            }
+            long arrival = slots.get(2 * i + 1);
+            if (arrival < victimArrival) {
+                victim = i;
+                victimCustomer = customer;
+                victimArrival = arrival;
+            }
+        }
+        if (victim < 0) {
+            return -1;
+        }
+        if (!slots.compareAndSet(2 * victim, victimCustomer, customerId)) {
+            return slots.get(2 * victim) == customerId ? victim : -1;
+        }
+        slots.compareAndSet(2 * victim + 1, victimArrival, 0);
+        if (victimArrival > now) {
+            evictions.increment();
+        }
+        return victim;
+    }
+
+    private void throttle(long customerId) {
+        throttled.increment();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            estimate = Math.min(estimate, sketch.incrementAndGet(cell(row, customerId)));
+        }
+        // Replace the weakest heavy hitter if this customer has now been throttled more often.
+        int weakest = -1;
+        long weakestCustomer = 0;
+        long weakestEstimate = Long.MAX_VALUE;
+        for (int i = 0; i < HEAVY_HITTERS; i++) {
+            long candidate = heavyHitters.get(i);
+            if (candidate == customerId) {
+                return;
+            }
+            long candidateEstimate = candidate == 0 ? 0 : getEstimatedThrottles(candidate);
+            if (candidateEstimate < weakestEstimate) {
+                weakest = i;
+                weakestCustomer = candidate;
+                weakestEstimate = candidateEstimate;
+            }
+        }
+        if (estimate > weakestEstimate) {
+            heavyHitters.compareAndSet(weakest, weakestCustomer, customerId);
+        }
+    }
+
+    // Stops once limiting is turned off; configure() starts a new one when it's turned back on.
+    private void tick() {
+        while (rate != null) {
+            now = System.nanoTime() - origin;
+            LockSupport.parkNanos(TICK_NANOS);
+        }
+    }
+
+    private static int cell(int row, long customerId) {
+        return (row << SKETCH_WIDTH_BITS) | (int) ((customerId * SKETCH_SEEDS[row]) >>> (64 - SKETCH_WIDTH_BITS));
+    }
+
+    private static final class Rate {
+        private final long interval;
+        private final long tolerance;
+
+        private Rate(long interval, long tolerance) {
+            this.interval = interval;
+            this.tolerance = tolerance;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.ticket;
+
+public interface PurchaseRateLimiterInterface {
+
+    void configure(double purchasesPerSecond, int burst);
+
+    boolean isEnabled();
+
+    long getAllowed();
+
+    long getThrottled();
+
+    long getEvictions();
+
+    long getEstimatedThrottles(long customerId);
+
+    ThrottledCustomer[] getTopThrottled();
+
+    void resetMetrics();
+}
@@ -0,0 +1,112 @@
+package org.example.ticket;
+
+import org.example.event.Event;
+import org.example.utils.IdAllocator;
+
+import java.util.Arrays;
+import java.util.Map;
+
+// Unit of work for one purchase across the event, customer and ticket stores.
+// Every applied step is recorded so rollback undoes exactly what happened, newest first.
+// One instance is reused per thread, so a purchase does not allocate bookkeeping.
+final class PurchaseTransaction {
+    private static final ThreadLocal<PurchaseTransaction> CURRENT = ThreadLocal.withInitial(PurchaseTransaction::new);
+
+    private Map<Long, Ticket> store;
+    private IdAllocator idService;
+    private PurchaseLimitEngine purchaseLimits;
+    private long customerId;
+    private Event event;
+    private int limited;
+    private int seats;
+    private long[] ids = new long[1];
+    private Ticket[] tickets = new Ticket[1];
+    private int allocated;
+    private int stored;
+
+    private PurchaseTransaction() {
+    }
+
+    static PurchaseTransaction current() {
+        return CURRENT.get();
+    }
+
+    void begin(Map<Long, Ticket> store, IdAllocator idService, PurchaseLimitEngine purchaseLimits, long customerId,
+               Event event, int quantity) {
+        this.store = store;
+        this.idService = idService;
+        this.purchaseLimits = purchaseLimits;
+        this.customerId = customerId;
+        this.event = event;
+        this.limited = 0;
+        this.seats = 0;
+        this.allocated = 0;
+        this.stored = 0;
+        if (ids.length < quantity) {
+            ids = new long[quantity];
+            tickets = new Ticket[quantity];
+        }
+    }
+
+    void limitTaken(int quantity) {
+        this.limited = quantity;
+    }
+
+    void seatsTaken(int seats) {
+        this.seats = seats;
+    }
+
+    void idAllocated(long id) {
+        ids[allocated++] = id;
+    }
+
+    void ticketStored(Ticket ticket) {
+        tickets[stored++] = ticket;
+    }
+
+    long id(int index) {
+        return ids[index];
+    }
+
+    Ticket ticket(int index) {
+        return tickets[index];
+    }
+
+    Ticket[] tickets() {
+        return Arrays.copyOf(tickets, stored);
+    }
+
+    void commit() {
+        release();
+    }
+
+    void rollback() {
+        for (int i = stored - 1; i >= 0; i--) {
+            store.remove(ids[i]);
+        }
+        for (int i = allocated - 1; i >= 0; i--) {
+            idService.delete(ids[i]);
+        }
+        if (seats > 0) {
+            event.increaseNmbTickets(seats);
+        }
+        if (limited > 0) {
+            purchaseLimits.release(customerId, event.getId(), limited);
+        }
+        stored = 0;
+        release();
+    }
+
+    // Drops references so the thread-local does not keep entities or tickets alive.
+    void clear() {
+        Arrays.fill(tickets, 0, stored, null);
+        stored = 0;
+    }
+
+    private void release() {
+        store = null;
+        idService = null;
+        purchaseLimits = null;
+        event = null;
+    }
+}
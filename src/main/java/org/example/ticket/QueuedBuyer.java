@@ -0,0 +1,45 @@
+package org.example.ticket;
+
+import java.util.concurrent.CompletableFuture;
+
+public class QueuedBuyer {
+    private final long customerId;
+    private final long eventId;
+    private final long sequence;
+    private final CompletableFuture<Ticket> result = new CompletableFuture<>();
+    private volatile long admittedAtNanos;
+
+    QueuedBuyer(long customerId, long eventId, long sequence) {
+        this.customerId = customerId;
+        this.eventId = eventId;
+        this.sequence = sequence;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    void admitted() {
+        admittedAtNanos = System.nanoTime();
+    }
+
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    public long getEventId() {
+        return eventId;
+    }
+
+    public boolean isAdmitted() {
+        return admittedAtNanos != 0;
+    }
+
+    public long getAdmittedAtNanos() {
+        return admittedAtNanos;
+    }
+
+    public CompletableFuture<Ticket> getResult() {
+        return result;
+    }
+}
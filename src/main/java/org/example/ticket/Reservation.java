@@ -0,0 +1,80 @@
+package org.example.ticket;
+
+import org.example.event.Event;
+import org.example.utils.TimingWheel;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class Reservation {
+    public enum Status {
+        HELD,
+        CONFIRMED,
+        CANCELLED,
+        EXPIRED
+    }
+
+    private final long id;
+    private final long customerId;
+    private final Event event;
+    private final int quantity;
+    private final long expiresAtMillis;
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.HELD);
+    TimingWheel.Timeout<Reservation> timeout;
+
+    Reservation(long id, long customerId, Event event, int quantity, long expiresAtMillis) {
+        this.id = id;
+        this.customerId = customerId;
+        this.event = event;
+        this.quantity = quantity;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    boolean transition(Status to) {
+        return status.compareAndSet(Status.HELD, to);
+    }
+
+    void abandon() {
+        status.set(Status.CANCELLED);
+    }
+
+    Event getEvent() {
+        return event;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    public long getEventId() {
+        return event.getId();
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Instant getExpiresAt() {
+        return Instant.ofEpochMilli(expiresAtMillis);
+    }
+
+    public Status getStatus() {
+        return status.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Reservation{" +
+                "id=" + id +
+                ", customerId=" + customerId +
+                ", eventId=" + event.getId() +
+                ", quantity=" + quantity +
+                ", expiresAt=" + getExpiresAt() +
+                ", status=" + status.get() +
+                '}';
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.ticket;
+
+import org.example.customer.CustomerService;
+import org.example.event.Event;
+import org.example.event.EventService;
+import org.example.feed.ChangeFeed;
+import org.example.utils.TimingWheel;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ReservationService implements ReservationServiceInterface {
+    private static final long TICK_MILLIS = 10;
+
+    private final Map<Long, Reservation> reservations;
+    private final TimingWheel<Reservation> wheel;
+    private final AtomicLong sequence = new AtomicLong();
+    private final CustomerService customerService = CustomerService.getInstance();
+    private final EventService eventService = EventService.getInstance();
+    private final TicketService ticketService = TicketService.getInstance();
+    private final ChangeFeed changeFeed = ChangeFeed.getInstance();
+    private static ReservationService INSTANCE;
+
+    private ReservationService() throws InterruptedException {
+        this.reservations = new ConcurrentHashMap<>();
+        this.wheel = new TimingWheel<>(TICK_MILLIS, System.currentTimeMillis());
+        Thread ticker = new Thread(this::tick, "reservation-expiry");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    public static synchronized ReservationService getInstance() throws InterruptedException {
+        if (INSTANCE == null) {
+            INSTANCE = new ReservationService();
+        }
+        return INSTANCE;
+    }
+
+    @Override
+    public Reservation reserve(long customerId, long eventId, int quantity, Duration holdTime) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (holdTime.isNegative() || holdTime.isZero()) {
+            throw new IllegalArgumentException("Hold time must be positive");
+        }
+        customerService.get(customerId);
+        Event event = eventService.get(eventId);
+        if (!event.tryDecreaseNmbTickets(quantity)) {
+            throw new RuntimeException("Not enough tickets left for event with id=" + eventId);
+        }
+        // Holds don't sell tickets, so followers of the feed only learn about them from this record.
+        changeFeed.inventoryChanged(event);
+        long expiresAt = System.currentTimeMillis() + holdTime.toMillis();
+        Reservation reservation = new Reservation(sequence.incrementAndGet(), customerId, event, quantity, expiresAt);
+        reservations.put(reservation.getId(), reservation);
+        reservation.timeout = wheel.schedule(reservation, expiresAt);
+        return reservation;
+    }
+
+    @Override
+    public Reservation get(long id) {
+        Reservation reservation = reservations.get(id);
+        if (reservation == null) {
+            throw new NoSuchElementException("No reservation found with ID " + id);
+        }
+        return reservation;
+    }
+
+    @Override
+    public Ticket[] confirm(long id) throws InterruptedException {
+        Reservation reservation = get(id);
+        if (!reservation.transition(Reservation.Status.CONFIRMED)) {
+            throw new IllegalStateException("Reservation " + id + " is no longer held");
+        }
+        wheel.cancel(reservation.timeout);
+        reservations.remove(id);
+        Ticket[] tickets = null;
+        try {
+            tickets = ticketService.issue(LocalDateTime.now(), reservation.getCustomerId(),
+                    reservation.getEvent(), reservation.getQuantity());
+        } finally {
+            if (tickets == null) {
+                reservation.abandon();
+                reservation.getEvent().increaseNmbTickets(reservation.getQuantity());
+                changeFeed.inventoryChanged(reservation.getEvent());
+            }
+        }
+        if (tickets == null) {
+            throw new RuntimeException("Reservation " + id + " can't be confirmed for customer with id="
+                    + reservation.getCustomerId());
+        }
+        return tickets;
+    }
+
+    @Override
+    public void cancel(long id) {
+        Reservation reservation = get(id);
+        if (!reservation.transition(Reservation.Status.CANCELLED)) {
+            throw new IllegalStateException("Reservation " + id + " is no longer held");
+        }
+        wheel.cancel(reservation.timeout);
+        reservations.remove(id);
+        reservation.getEvent().increaseNmbTickets(reservation.getQuantity());
+        changeFeed.inventoryChanged(reservation.getEvent());
+    }
+
+    // Expired holds are summed per event so each event's inventory is touched once per tick.
+    @Override
+    public int expireDue() {
+        List<Reservation> due = new ArrayList<>();
+        wheel.advance(System.currentTimeMillis(), due::add);
+        if (due.isEmpty()) {
+            return 0;
+        }
+        Map<Event, Integer> released = new HashMap<>();
+        int expired = 0;
+        for (Reservation reservation : due) {
+            if (reservation.transition(Reservation.Status.EXPIRED)) {
+                reservations.remove(reservation.getId());
+                released.merge(reservation.getEvent(), reservation.getQuantity(), Integer::sum);
+                expired++;
+            }
+        }
+        for (Map.Entry<Event, Integer> entry : released.entrySet()) {
+            entry.getKey().increaseNmbTickets(entry.getValue());
+            changeFeed.inventoryChanged(entry.getKey());
+        }
+        return expired;
+    }
+
+    public int pendingHolds() {
+        return wheel.size();
+    }
+
+    private void tick() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(TICK_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            expireDue();
+        }
+    }
+}
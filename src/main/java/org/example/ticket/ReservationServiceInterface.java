@@ -0,0 +1,16 @@
+package org.example.ticket;
+
+import java.time.Duration;
+
+public interface ReservationServiceInterface {
+
+    Reservation reserve(long customerId, long eventId, int quantity, Duration holdTime);
+
+    Reservation get(long id);
+
+    Ticket[] confirm(long id) throws InterruptedException;
+
+    void cancel(long id);
+
+    int expireDue();
+}
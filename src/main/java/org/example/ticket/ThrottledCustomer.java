@@ -0,0 +1,25 @@
+package org.example.ticket;
+
+public class ThrottledCustomer {
+    private final long customerId;
+    private final long estimatedThrottles;
+
+    ThrottledCustomer(long customerId, long estimatedThrottles) {
+        this.customerId = customerId;
+        this.estimatedThrottles = estimatedThrottles;
+    }
+
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    // Never less than the real count, may be more if other customers share its sketch cells.
+    public long getEstimatedThrottles() {
+        return estimatedThrottles;
+    }
+
+    @Override
+    public String toString() {
+        return customerId + ": ~" + estimatedThrottles;
+    }
+}
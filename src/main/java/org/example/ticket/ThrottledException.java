@@ -0,0 +1,11 @@
+package org.example.ticket;
+
+// Thrown when a customer exceeds the purchase rate; shared and stackless so rejecting bots costs no allocation.
+public class ThrottledException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    public static final ThrottledException INSTANCE = new ThrottledException();
+
+    private ThrottledException() {
+        super("Too many purchase attempts, try again later", null, false, false);
+    }
+}
@@ -12,10 +12,10 @@ public class Ticket {
     private final LocalDateTime purchaseDate;
     private final long customerId;
     private final long eventId;
-    private final EventService eventService = EventService.getInstance();
-    private final CustomerService customerService = CustomerService.getInstance();
 
     public Ticket(long id, LocalDateTime purchaseDate, long customerId, long eventId) throws InterruptedException {
+        EventService eventService = EventService.getInstance();
+        CustomerService customerService = CustomerService.getInstance();
         this.id = id;
         if (purchaseDate.isAfter(eventService.get(eventId).getDate())) {
             throw new IllegalArgumentException("Purchase date must be before event date.");
@@ -35,6 +35,14 @@ public class Ticket {
         }
     }
 
+    // Used by TicketService once the purchase has been validated as part of its transaction.
+    Ticket(long id, LocalDateTime purchaseDate, long customerId, Event event) {
+        this.id = id;
+        this.purchaseDate = purchaseDate;
+        this.customerId = customerId;
+        this.eventId = event.getId();
+    }
+
     public long getId() {
         return id;
     }
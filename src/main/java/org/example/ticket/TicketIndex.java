@@ -0,0 +1,46 @@
+package org.example.ticket;
+
+import org.example.utils.LongHashSet;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Ticket IDs grouped by an owner ID, such as the event or the customer. Every change runs inside the
+// map's per-key compute, so a set is never read while it's being modified and empty sets can be dropped.
+final class TicketIndex {
+    private static final long[] NONE = new long[0];
+
+    private final Map<Long, LongHashSet> owners = new ConcurrentHashMap<>();
+
+    void add(long owner, long ticketId) {
+        owners.compute(owner, (key, tickets) -> {
+            LongHashSet set = tickets == null ? new LongHashSet(4) : tickets;
+            set.add(ticketId);
+            return set;
+        });
+    }
+
+    void remove(long owner, long[] ticketIds, int from, int to) {
+        owners.computeIfPresent(owner, (key, tickets) -> {
+            for (int i = from; i < to; i++) {
+                tickets.remove(ticketIds[i]);
+            }
+            return tickets.size() == 0 ? null : tickets;
+        });
+    }
+
+    long[] get(long owner) {
+        long[][] copy = {NONE};
+        owners.computeIfPresent(owner, (key, tickets) -> {
+            long[] ids = new long[tickets.size()];
+            int[] n = new int[1];
+            tickets.forEach(id -> {
+                ids[n[0]++] = id;
+                return true;
+            });
+            copy[0] = ids;
+            return tickets;
+        });
+        return copy[0];
+    }
+}
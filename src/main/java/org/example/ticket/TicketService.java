@@ -1,21 +1,35 @@
 package org.example.ticket;
 
-import org.example.utils.IDService;
+import org.example.customer.Customer;
 import org.example.customer.CustomerService;
+import org.example.event.Event;
 import org.example.event.EventService;
-import org.example.utils.IDServiceParallel;
+import org.example.event.SoldOutException;
+import org.example.event.SoldOutRegistry;
+import org.example.feed.ChangeFeed;
+import org.example.feed.ChangeType;
+import org.example.report.SalesReport;
+import org.example.utils.IdAllocator;
+import org.example.utils.LongLongHashMap;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class TicketService implements TicketServiceInterface {
-    private final HashMap<Long, Ticket> tickets;
-    private static final IDServiceParallel idService;
+    private final Map<Long, Ticket> tickets;
+    private final TicketIndex ticketsByEvent = new TicketIndex();
+    private final TicketIndex ticketsByCustomer = new TicketIndex();
+    private static final IdAllocator idService;
+    // Matches any event or customer when restricting a cancellation; no entity has ID 0.
+    private static final long ANY = 0;
 
     static {
         try {
-            idService = new IDServiceParallel(10000);
+            idService = IdAllocator.forService("tickets", 10000);
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         }
@@ -23,26 +37,184 @@ public class TicketService implements TicketServiceInterface {
 
     private final CustomerService customerService = CustomerService.getInstance();
     private final EventService eventService = EventService.getInstance();
+    private final SoldOutRegistry soldOutRegistry = SoldOutRegistry.getInstance();
+    private final ChangeFeed changeFeed = ChangeFeed.getInstance();
+    private final SalesReport salesReport = SalesReport.getInstance();
+    private final PurchaseLimitEngine purchaseLimits = PurchaseLimitEngine.getInstance();
+    private final PurchaseRateLimiter rateLimiter = PurchaseRateLimiter.getInstance();
     private static TicketService INSTANCE;
 
-    public TicketService(IDServiceParallel idService) throws InterruptedException {
-        this.tickets = new HashMap<>();
+    public TicketService(IdAllocator idService) throws InterruptedException {
+        this.tickets = new ConcurrentHashMap<>();
     }
 
     public static TicketService getInstance() throws InterruptedException {
         if (INSTANCE == null) {
-            INSTANCE = new TicketService(idService);
+            // Registered once the service is fully constructed, so a deletion never reaches a half-built instance.
+            TicketService service = new TicketService(idService);
+            service.eventService.addRemovalListener(service::eventRemoved);
+            INSTANCE = service;
         }
         return INSTANCE;
     }
 
     @Override
     public Ticket add(LocalDateTime purchaseDate, Long customerId, Long eventId) throws InterruptedException {
-        long id = idService.getNew();
-        Ticket ticket = new Ticket(id, purchaseDate, customerId, eventId);
+        // Every attempt counts against the rate, including those for sold-out events.
+        if (!rateLimiter.tryAcquire(customerId)) {
+            throw ThrottledException.INSTANCE;
+        }
+        if (soldOutRegistry.isSoldOut(eventId)) {
+            throw SoldOutException.INSTANCE;
+        }
+        PurchaseTransaction transaction = PurchaseTransaction.current();
+        PurchaseOutcome outcome = purchase(transaction, purchaseDate, customerId, eventService.find(eventId), 1, true);
+        if (outcome != PurchaseOutcome.OK) {
+            throw failure(outcome, customerId, eventId);
+        }
+        Ticket ticket = transaction.ticket(0);
+        transaction.clear();
+        return ticket;
+    }
+
+    // Buys quantity seats of one event for one customer in a single purchase, all or none. The call counts
+    // as one attempt against the rate limit, like a checkout.
+    @Override
+    public Ticket[] addAll(LocalDateTime purchaseDate, long customerId, long eventId, int quantity) throws InterruptedException {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (!rateLimiter.tryAcquire(customerId)) {
+            throw ThrottledException.INSTANCE;
+        }
+        if (soldOutRegistry.isSoldOut(eventId)) {
+            throw SoldOutException.INSTANCE;
+        }
+        PurchaseTransaction transaction = PurchaseTransaction.current();
+        PurchaseOutcome outcome = purchase(transaction, purchaseDate, customerId, eventService.find(eventId), quantity, true);
+        if (outcome != PurchaseOutcome.OK) {
+            throw failure(outcome, customerId, eventId);
+        }
+        Ticket[] issued = transaction.tickets();
+        transaction.clear();
+        return issued;
+    }
+
+    // Creates tickets whose seats have already been taken from the event's inventory.
+    // Returns null if the customer can't take them, with nothing left behind.
+    Ticket[] issue(LocalDateTime purchaseDate, long customerId, Event event, int quantity) throws InterruptedException {
+        PurchaseTransaction transaction = PurchaseTransaction.current();
+        if (purchase(transaction, purchaseDate, customerId, event, quantity, false) != PurchaseOutcome.OK) {
+            return null;
+        }
+        Ticket[] issued = transaction.tickets();
+        transaction.clear();
+        return issued;
+    }
+
+    // Validates everything that can be checked up front, then applies purchase limit, seat, ID and
+    // ticket in that order. Expected failures are reported as outcomes and undone through the transaction.
+    private PurchaseOutcome purchase(PurchaseTransaction transaction, LocalDateTime purchaseDate, long customerId,
+                                     Event event, int quantity, boolean takeSeats) throws InterruptedException {
+        Customer customer = customerService.find(customerId);
+        if (customer == null) {
+            return PurchaseOutcome.UNKNOWN_CUSTOMER;
+        }
+        if (event == null) {
+            return PurchaseOutcome.UNKNOWN_EVENT;
+        }
+        long eventId = event.getId();
+        if (purchaseDate.isAfter(event.getDate())) {
+            return PurchaseOutcome.EVENT_PASSED;
+        }
+        transaction.begin(tickets, idService, purchaseLimits, customerId, event, quantity);
+        if (!purchaseLimits.tryAcquire(customerId, eventId, quantity)) {
+            transaction.rollback();
+            return PurchaseOutcome.LIMIT_REACHED;
+        }
+        transaction.limitTaken(quantity);
+        if (takeSeats) {
+            if (!event.tryDecreaseNmbTickets(quantity)) {
+                transaction.rollback();
+                return PurchaseOutcome.SOLD_OUT;
+            }
+            transaction.seatsTaken(quantity);
+        }
+        // Tickets are indexed before they're stored, so a delete that finds a ticket also finds its index
+        // entries, and a delete that runs before the store can't leave them behind.
+        try {
+            if (quantity == 1) {
+                transaction.idAllocated(idService.getNew());
+            } else {
+                for (long id : idService.getNew(quantity)) {
+                    transaction.idAllocated(id);
+                }
+            }
+            for (int i = 0; i < quantity; i++) {
+                long id = transaction.id(i);
+                Ticket ticket = new Ticket(id, purchaseDate, customerId, event);
+                ticketsByEvent.add(eventId, id);
+                ticketsByCustomer.add(customerId, id);
+                tickets.put(id, ticket);
+                transaction.ticketStored(ticket);
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            unindex(transaction.tickets());
+            transaction.rollback();
+            throw e;
+        }
+        transaction.commit();
+        salesReport.recordSale(event, purchaseDate, quantity);
+        for (int i = 0; i < quantity; i++) {
+            changeFeed.ticketChanged(ChangeType.TICKET_SOLD, transaction.ticket(i));
+        }
+        return PurchaseOutcome.OK;
+    }
+
+    private static RuntimeException failure(PurchaseOutcome outcome, long customerId, long eventId) {
+        switch (outcome) {
+            case SOLD_OUT:
+                return SoldOutException.INSTANCE;
+            case UNKNOWN_CUSTOMER:
+                return new IllegalArgumentException("Customer ID " + customerId + " not found.");
+            case UNKNOWN_EVENT:
+                return new IllegalArgumentException("Event ID " + eventId + " not found.");
+            case EVENT_PASSED:
+                return new IllegalArgumentException("Purchase date must be before event date.");
+            case LIMIT_REACHED:
+                return new RuntimeException("Can't purchase more tickets for event with id=" + eventId);
+            default:
+                return new IllegalStateException("Unexpected purchase outcome " + outcome);
+        }
+    }
+
+    // Re-creates a sold ticket under the ID it had on another node, e.g. when promoting a replica. The
+    // seat is expected to be gone from the restored event's inventory already.
+    @Override
+    public Ticket restore(long id, LocalDateTime purchaseDate, long customerId, long eventId) {
+        Customer customer = customerService.find(customerId);
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer ID " + customerId + " not found.");
+        }
+        Event event = eventService.find(eventId);
+        if (event == null) {
+            throw new IllegalArgumentException("Event ID " + eventId + " not found.");
+        }
+        if (!purchaseLimits.tryAcquire(customerId, eventId, 1)) {
+            throw failure(PurchaseOutcome.LIMIT_REACHED, customerId, eventId);
+        }
+        try {
+            idService.claim(id);
+        } catch (RuntimeException e) {
+            purchaseLimits.release(customerId, eventId, 1);
+            throw e;
+        }
+        Ticket ticket = new Ticket(id, purchaseDate, customerId, event);
+        ticketsByEvent.add(eventId, id);
+        ticketsByCustomer.add(customerId, id);
         tickets.put(id, ticket);
-        customerService.get(customerId).addTicket(eventId, id);
-        eventService.get(eventId).decreaseNmbTickets();
+        salesReport.recordSale(event, purchaseDate, 1);
+        changeFeed.ticketChanged(ChangeType.TICKET_SOLD, ticket);
         return ticket;
     }
 
@@ -57,14 +229,143 @@ public class TicketService implements TicketServiceInterface {
 
     @Override
     public void delete(long id) {
-        if (!tickets.containsKey(id)) {
-            throw new NoSuchElementException("No customer found with ID " + id);
+        if (cancel(new long[]{id}).length == 0) {
+            throw new NoSuchElementException("No ticket found with ID " + id);
         }
-        tickets.remove(id);
-        idService.delete(id);
-        Ticket ticket = tickets.get(id);
-        eventService.get(ticket.getEventId()).increaseNmbTickets();
-        customerService.get(ticket.getCustomerId()).remooveTicket(ticket.getEventId(), id);
+    }
+
+    Ticket[] cancel(long[] ids) {
+        return cancel(ids, ANY, ANY);
+    }
+
+    Ticket[] cancelEvent(long eventId) {
+        return cancel(ticketsByEvent.get(eventId), eventId, ANY);
+    }
+
+    Ticket[] cancelCustomer(long customerId) {
+        return cancel(ticketsByCustomer.get(customerId), ANY, customerId);
+    }
+
+    // A deleted event takes its tickets and its purchase limit with it, so an event that later gets the
+    // same ID starts without index entries or purchase counts. Sales that were already past the event
+    // lookup when it was deleted can still land afterwards; IDs are quarantined before they're reused,
+    // if at all, so those are never attributed to a new event.
+    private void eventRemoved(long eventId) {
+        cancelEvent(eventId);
+        purchaseLimits.resetLimit(eventId);
+    }
+
+    // Refunds every ticket of the list that still exists and returns those. Whoever removes a ticket
+    // from the store owns its refund, so concurrent cancellations never return a seat twice.
+    private Ticket[] cancel(long[] ids, long eventId, long customerId) {
+        Ticket[] removed = detach(ids, eventId, customerId, true);
+        for (Ticket ticket : removed) {
+            salesReport.recordRefund(ticket.getEventId(), ticket.getPurchaseDate());
+            changeFeed.ticketChanged(ChangeType.TICKET_REFUNDED, ticket);
+        }
+        return removed;
+    }
+
+    // Removes the tickets from the store, then gives their seats back with one inventory update per
+    // event, unless they are being archived, and frees the IDs in bulk. Index entries and purchase limit counts are updated once per run
+    // of tickets sharing the event or customer, which for a cancelled event or customer is the whole list.
+    // An event or customer other than ANY restricts the removal to its own tickets, in case an ID was
+    // recycled for someone else's ticket after the list was taken.
+    private Ticket[] detach(long[] ids, long eventId, long customerId, boolean returnSeats) {
+        Ticket[] removed = new Ticket[ids.length];
+        long[] freed = new long[ids.length];
+        int count = 0;
+        for (long id : ids) {
+            Ticket ticket = tickets.get(id);
+            if (ticket != null && (eventId == ANY || ticket.getEventId() == eventId)
+                    && (customerId == ANY || ticket.getCustomerId() == customerId) && tickets.remove(id, ticket)) {
+                freed[count] = id;
+                removed[count++] = ticket;
+            }
+        }
+        if (count < removed.length) {
+            removed = Arrays.copyOf(removed, count);
+        }
+        if (count == 0) {
+            return removed;
+        }
+
+        LongLongHashMap seats = new LongLongHashMap(16);
+        long[] eventIds = new long[16];
+        int events = 0;
+        for (int from = 0, to; from < count; from = to) {
+            long event = removed[from].getEventId();
+            to = from + 1;
+            while (to < count && removed[to].getEventId() == event) {
+                to++;
+            }
+            ticketsByEvent.remove(event, freed, from, to);
+            long returned = seats.get(event, 0);
+            if (returned == 0) {
+                if (events == eventIds.length) {
+                    eventIds = Arrays.copyOf(eventIds, events * 2);
+                }
+                eventIds[events++] = event;
+            }
+            seats.put(event, returned + to - from);
+        }
+        for (int i = 0; returnSeats && i < events; i++) {
+            Event event = eventService.find(eventIds[i]);
+            if (event != null) {
+                event.increaseNmbTickets((int) seats.get(eventIds[i], 0));
+            }
+        }
+
+        for (int from = 0, to; from < count; from = to) {
+            long customer = removed[from].getCustomerId();
+            long event = removed[from].getEventId();
+            to = from + 1;
+            while (to < count && removed[to].getCustomerId() == customer && removed[to].getEventId() == event) {
+                to++;
+            }
+            ticketsByCustomer.remove(customer, freed, from, to);
+            purchaseLimits.release(customer, event, to - from);
+        }
+        idService.delete(freed, count);
+        return removed;
+    }
+
+    public Ticket[] getByEvent(long eventId) {
+        long[] ids = ticketsByEvent.get(eventId);
+        Ticket[] found = new Ticket[ids.length];
+        int count = 0;
+        for (long id : ids) {
+            Ticket ticket = tickets.get(id);
+            if (ticket != null && ticket.getEventId() == eventId) {
+                found[count++] = ticket;
+            }
+        }
+        return count < found.length ? Arrays.copyOf(found, count) : found;
+    }
+
+    // Removes tickets of a passed event once they have been written to an archive. Unlike a cancellation
+    // nothing is refunded: the seats stay taken and the sales report keeps counting the tickets. Index
+    // entries, purchase limit counts and IDs are released as usual.
+    public Ticket[] archive(long eventId, long[] ids) {
+        Ticket[] removed = detach(ids, eventId, ANY, false);
+        for (Ticket ticket : removed) {
+            changeFeed.ticketChanged(ChangeType.TICKET_ARCHIVED, ticket);
+        }
+        return removed;
+    }
+
+    private void unindex(Ticket[] stored) {
+        long[] ids = new long[1];
+        for (Ticket ticket : stored) {
+            ids[0] = ticket.getId();
+            ticketsByEvent.remove(ticket.getEventId(), ids, 0, 1);
+            ticketsByCustomer.remove(ticket.getCustomerId(), ids, 0, 1);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<Ticket> action) {
+        tickets.values().forEach(action);
     }
 
     @Override
@@ -72,12 +373,29 @@ public class TicketService implements TicketServiceInterface {
         return tickets.values().toArray(new Ticket[tickets.size()]);
     }
 
+    // Goes through the same path as a cancellation, so seats and purchase limits are given back, but
+    // publishes one TICKETS_CLEARED instead of a refund per ticket, followed by the new inventory of
+    // every event that got seats back.
     @Override
     public void deleteAll() {
-        for (Long id : tickets.keySet()) {
-            idService.delete(id);
+        Ticket[] removed = detach(tickets.keySet().stream().mapToLong(Long::longValue).toArray(), ANY, ANY, true);
+        salesReport.clear();
+        changeFeed.cleared(ChangeType.TICKETS_CLEARED);
+        LongLongHashMap published = new LongLongHashMap(16);
+        for (Ticket ticket : removed) {
+            long eventId = ticket.getEventId();
+            if (published.get(eventId, 0) == 0) {
+                published.put(eventId, 1);
+                Event event = eventService.find(eventId);
+                if (event != null) {
+                    changeFeed.inventoryChanged(event);
+                }
+            }
         }
-        tickets.clear();
+    }
+
+    public int activeIdCount() {
+        return idService.activeCount();
     }
 
     public Boolean checkTicket(Long ticketId, Long eventId, Long customerId) {
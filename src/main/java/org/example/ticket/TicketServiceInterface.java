@@ -1,16 +1,23 @@
 package org.example.ticket;
 
 import java.time.LocalDateTime;
+import java.util.function.Consumer;
 
 public interface TicketServiceInterface {
 
     Ticket add(LocalDateTime purchaseDate, Long customerId, Long eventId) throws InterruptedException;
 
+    Ticket[] addAll(LocalDateTime purchaseDate, long customerId, long eventId, int quantity) throws InterruptedException;
+
+    Ticket restore(long id, LocalDateTime purchaseDate, long customerId, long eventId);
+
     Ticket get(long id);
 
     void delete(long id);
 
     Ticket[] getAll();
 
+    void forEach(Consumer<Ticket> action);
+
     void deleteAll();
 }
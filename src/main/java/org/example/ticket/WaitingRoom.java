@@ -0,0 +1,173 @@
+package org.example.ticket;
+
+import org.example.event.Event;
+import org.example.event.EventServiceInterface;
+import org.example.utils.TokenBucket;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Buyers for an event wait in a bounded FIFO and are let through to the ticket service
+// at the rate of the event's token bucket, so the purchase path only ever sees a steady trickle.
+public final class WaitingRoom {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final TicketServiceInterface ticketService;
+    private final EventServiceInterface eventService;
+    private final double admitsPerSecond;
+    private final int burst;
+    private final int capacity;
+    private final Map<Long, EventQueue> queues = new ConcurrentHashMap<>();
+    private final ExecutorService purchasers;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    public WaitingRoom(TicketServiceInterface ticketService, EventServiceInterface eventService,
+                       double admitsPerSecond, int burst, int capacity, int purchaseThreads) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.ticketService = ticketService;
+        this.eventService = eventService;
+        this.admitsPerSecond = admitsPerSecond;
+        this.burst = burst;
+        this.capacity = capacity;
+        this.purchasers = Executors.newFixedThreadPool(purchaseThreads);
+        this.dispatcher = new Thread(this::dispatch, "waiting-room-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    public QueuedBuyer enter(long customerId, long eventId) {
+        Event event = eventService.get(eventId);
+        if (event.getNmbTickets() == 0) {
+            throw new RuntimeException("Event with id=" + eventId + " is sold out");
+        }
+        EventQueue queue = queues.computeIfAbsent(eventId, id -> new EventQueue());
+        QueuedBuyer buyer = queue.offer(customerId, eventId);
+        if (buyer == null) {
+            throw new RuntimeException("Waiting room for event with id=" + eventId + " is full");
+        }
+        return buyer;
+    }
+
+    public long getPosition(QueuedBuyer buyer) {
+        if (buyer.isAdmitted() || buyer.getResult().isDone()) {
+            return 0;
+        }
+        EventQueue queue = queues.get(buyer.getEventId());
+        return queue == null ? 0 : Math.max(0, buyer.getSequence() - queue.dequeued.get());
+    }
+
+    public Duration getEstimatedWait(QueuedBuyer buyer) {
+        long position = getPosition(buyer);
+        return Duration.ofNanos((long) (position / admitsPerSecond * 1_000_000_000d));
+    }
+
+    public int getQueueLength(long eventId) {
+        EventQueue queue = queues.get(eventId);
+        return queue == null ? 0 : queue.buyers.size();
+    }
+
+    // Stops the dispatcher before shedding, so no buyer is admitted and shed at the same time.
+    public void close() {
+        running = false;
+        dispatcher.interrupt();
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        purchasers.shutdown();
+        for (EventQueue queue : queues.values()) {
+            queue.shed(new RuntimeException("Waiting room closed"));
+        }
+    }
+
+    private void dispatch() {
+        while (running) {
+            boolean admittedAny = false;
+            for (Map.Entry<Long, EventQueue> entry : queues.entrySet()) {
+                admittedAny |= admit(entry.getKey(), entry.getValue());
+            }
+            if (!admittedAny) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private boolean admit(long eventId, EventQueue queue) {
+        if (queue.buyers.isEmpty()) {
+            return false;
+        }
+        Event event;
+        try {
+            event = eventService.get(eventId);
+        } catch (RuntimeException e) {
+            queue.shed(e);
+            queues.remove(eventId, queue);
+            return false;
+        }
+        if (event.getNmbTickets() == 0) {
+            queue.shed(new RuntimeException("Event with id=" + eventId + " is sold out"));
+            return false;
+        }
+        boolean admitted = false;
+        while (!queue.buyers.isEmpty() && queue.bucket.tryAcquire()) {
+            QueuedBuyer buyer = queue.poll();
+            buyer.admitted();
+            purchasers.execute(() -> purchase(buyer));
+            admitted = true;
+        }
+        return admitted;
+    }
+
+    private void purchase(QueuedBuyer buyer) {
+        try {
+            Ticket ticket = ticketService.add(LocalDateTime.now(), buyer.getCustomerId(), buyer.getEventId());
+            buyer.getResult().complete(ticket);
+        } catch (Exception e) {
+            buyer.getResult().completeExceptionally(e);
+        }
+    }
+
+    private class EventQueue {
+        private final ArrayBlockingQueue<QueuedBuyer> buyers = new ArrayBlockingQueue<>(capacity);
+        private final TokenBucket bucket = new TokenBucket(admitsPerSecond, burst);
+        private long enqueued;
+        private final AtomicLong dequeued = new AtomicLong();
+
+        private synchronized QueuedBuyer offer(long customerId, long eventId) {
+            QueuedBuyer buyer = new QueuedBuyer(customerId, eventId, enqueued + 1);
+            if (!buyers.offer(buyer)) {
+                return null;
+            }
+            enqueued++;
+            return buyer;
+        }
+
+        private QueuedBuyer poll() {
+            QueuedBuyer buyer = buyers.poll();
+            if (buyer != null) {
+                dequeued.incrementAndGet();
+            }
+            return buyer;
+        }
+
+        private void shed(RuntimeException reason) {
+            QueuedBuyer buyer;
+            while ((buyer = buyers.poll()) != null) {
+                dequeued.incrementAndGet();
+                buyer.getResult().completeExceptionally(reason);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.utils;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Each thread leases a block of consecutive IDs from a shared counter and hands them out without
+// further coordination. IDs start at IDServiceParallel.LOWER_BOUND and stay dense, which keeps the
+// sold-out registry compact. Unused rest of a dead thread's block and deleted IDs are never reused.
+public class BlockIdAllocator implements IdAllocator {
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private final int blockSize;
+    private final AtomicLong next = new AtomicLong(IDServiceParallel.LOWER_BOUND);
+    private final StripedLongSet active = new StripedLongSet();
+    // Per thread: {next ID, end of block}.
+    private final ThreadLocal<long[]> lease = ThreadLocal.withInitial(() -> new long[2]);
+
+    public BlockIdAllocator(int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public long getNew() {
+        long[] block = lease.get();
+        long id;
+        do {
+            if (block[0] == block[1]) {
+                block[0] = next.getAndAdd(blockSize);
+                block[1] = block[0] + blockSize;
+            }
+            id = block[0]++;
+        } while (!active.add(id));
+        return id;
+    }
+
+    // Requests larger than what's left of the current block get a run of their own.
+    @Override
+    public long[] getNew(int count) {
+        long[] block = lease.get();
+        long first;
+        if (block[1] - block[0] >= count) {
+            first = block[0];
+            block[0] += count;
+        } else {
+            first = next.getAndAdd(count);
+        }
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = active.add(first + i) ? first + i : getNew();
+        }
+        return ids;
+    }
+
+    @Override
+    public void delete(long id) {
+        if (!active.remove(id)) {
+            throw new NoSuchElementException("ID " + id + " not managed by BlockIdAllocator");
+        }
+    }
+
+    @Override
+    public void claim(long id) {
+        if (!active.add(id)) {
+            throw new IllegalArgumentException("ID " + id + " is already in use");
+        }
+    }
+
+    @Override
+    public int activeCount() {
+        return active.size();
+    }
+}
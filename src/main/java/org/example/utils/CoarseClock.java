@@ -0,0 +1,48 @@
+package org.example.utils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+// Wall clock that is re-read at most every RESOLUTION_MILLIS. Validation only needs to know whether a
+// date lies in the future or a birthday is 18 years back, so it can share one LocalDateTime per tick
+// instead of building a new one for every check. Both checks err on the lenient side by at most
+// one resolution step, so a value that passes against the exact clock also passes here.
+public final class CoarseClock {
+    private static final long RESOLUTION_MILLIS = 100;
+    private static final int ADULT_AGE = 18;
+
+    private static volatile Reading reading = new Reading(System.currentTimeMillis());
+
+    private CoarseClock() {
+    }
+
+    public static LocalDateTime now() {
+        return current().now;
+    }
+
+    public static LocalDateTime adultCutoff() {
+        return current().adultCutoff;
+    }
+
+    private static Reading current() {
+        Reading current = reading;
+        long millis = System.currentTimeMillis();
+        if (millis - current.millis >= RESOLUTION_MILLIS || millis < current.millis) {
+            current = new Reading(millis);
+            reading = current;
+        }
+        return current;
+    }
+
+    private static final class Reading {
+        private final long millis;
+        private final LocalDateTime now;
+        private final LocalDateTime adultCutoff;
+
+        private Reading(long millis) {
+            this.millis = millis;
+            this.now = LocalDateTime.now();
+            this.adultCutoff = now.plus(RESOLUTION_MILLIS, ChronoUnit.MILLIS).minusYears(ADULT_AGE);
+        }
+    }
+}
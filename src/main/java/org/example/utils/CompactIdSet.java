@@ -0,0 +1,148 @@
+package org.example.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Roaring-style set of non-negative longs. IDs are grouped by their upper bits into 65536-wide
+// containers; a container is a sorted char array while it holds up to 4096 IDs and a 1024-word
+// bitmap above that, so memory stays around two bytes per live ID either way and empty ranges cost
+// nothing. Not thread-safe.
+public class CompactIdSet {
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private final Map<Long, Container> containers = new HashMap<>();
+    private long size;
+
+    public boolean add(long id) {
+        Container container = containers.computeIfAbsent(id >>> 16, key -> new Container());
+        if (!container.add((char) id)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    public boolean remove(long id) {
+        Container container = containers.get(id >>> 16);
+        if (container == null || !container.remove((char) id)) {
+            return false;
+        }
+        if (container.cardinality == 0) {
+            containers.remove(id >>> 16);
+        }
+        size--;
+        return true;
+    }
+
+    public boolean contains(long id) {
+        Container container = containers.get(id >>> 16);
+        return container != null && container.contains((char) id);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public void clear() {
+        containers.clear();
+        size = 0;
+    }
+
+    // Approximate heap use of the containers' payload.
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Container container : containers.values()) {
+            bytes += container.bitmap != null ? (long) BITMAP_WORDS * Long.BYTES : (long) container.array.length * Character.BYTES;
+        }
+        return bytes;
+    }
+
+    private static final class Container {
+        private char[] array = new char[4];
+        private long[] bitmap;
+        private int cardinality;
+
+        private boolean add(char low) {
+            if (bitmap != null) {
+                long mask = 1L << low;
+                if ((bitmap[low >>> 6] & mask) != 0) {
+                    return false;
+                }
+                bitmap[low >>> 6] |= mask;
+                cardinality++;
+                return true;
+            }
+            int index = Arrays.binarySearch(array, 0, cardinality, low);
+            if (index >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                toBitmap();
+                return add(low);
+            }
+            index = -index - 1;
+            if (cardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_LIMIT, array.length * 2));
+            }
+            System.arraycopy(array, index, array, index + 1, cardinality - index);
+            array[index] = low;
+            cardinality++;
+            return true;
+        }
+
+        private boolean remove(char low) {
+            if (bitmap != null) {
+                long mask = 1L << low;
+                if ((bitmap[low >>> 6] & mask) == 0) {
+                    return false;
+                }
+                bitmap[low >>> 6] &= ~mask;
+                // Switch back only well below the limit so a container at the edge doesn't flip on every call.
+                if (--cardinality < ARRAY_LIMIT / 2) {
+                    toArray();
+                }
+                return true;
+            }
+            int index = Arrays.binarySearch(array, 0, cardinality, low);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(array, index + 1, array, index, cardinality - index - 1);
+            cardinality--;
+            if (cardinality < array.length / 4 && array.length > 4) {
+                array = Arrays.copyOf(array, array.length / 2);
+            }
+            return true;
+        }
+
+        private boolean contains(char low) {
+            if (bitmap != null) {
+                return (bitmap[low >>> 6] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(array, 0, cardinality, low) >= 0;
+        }
+
+        private void toBitmap() {
+            bitmap = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                bitmap[array[i] >>> 6] |= 1L << array[i];
+            }
+            array = null;
+        }
+
+        private void toArray() {
+            array = new char[Integer.highestOneBit(cardinality) << 1];
+            int i = 0;
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                long bits = bitmap[word];
+                while (bits != 0) {
+                    array[i++] = (char) ((word << 6) + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            bitmap = null;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.utils;
+
+import java.time.LocalDateTime;
+
+// Single-pass checks for customer and event fields. None of them allocate.
+public final class FieldValidator {
+
+    private FieldValidator() {
+    }
+
+    // One '@' after a non-empty local part, a domain of non-empty dot-separated labels
+    // with at least one dot, and a top-level label made of letters only.
+    public static boolean isValidEmail(CharSequence email) {
+        int length = email.length();
+        int at = -1;
+        int dots = 0;
+        int labelStart = -1;
+        boolean labelLetters = false;
+        for (int i = 0; i < length; i++) {
+            char c = email.charAt(i);
+            if (Character.isWhitespace(c)) {
+                return false;
+            }
+            if (c == '@') {
+                if (at >= 0 || i == 0) {
+                    return false;
+                }
+                at = i;
+                labelStart = i + 1;
+                labelLetters = true;
+            } else if (at >= 0) {
+                if (c == '.') {
+                    if (i == labelStart) {
+                        return false;
+                    }
+                    dots++;
+                    labelStart = i + 1;
+                    labelLetters = true;
+                } else if (!Character.isLetter(c)) {
+                    labelLetters = false;
+                }
+            }
+        }
+        return at >= 0 && dots > 0 && labelStart < length && labelLetters;
+    }
+
+    public static boolean isAdult(LocalDateTime birthday) {
+        return birthday.isBefore(CoarseClock.adultCutoff());
+    }
+
+    public static boolean isInFuture(LocalDateTime date) {
+        return date.isAfter(CoarseClock.now());
+    }
+}
@@ -1,23 +1,19 @@
 package org.example.utils;
 
-import java.util.HashSet;
 import java.util.NoSuchElementException;
-import java.util.Set;
 
 public class IDService {
-    private final Set<Long> ids;
+    private final CompactIdSet ids;
     private final PrimeNumberGenerator generator;
 
     public IDService() {
-        this.ids = new HashSet<>();
+        this.ids = new CompactIdSet();
         this.generator = new PrimeNumberGenerator(1_000_000_000L);
     }
 
+    // The generator only moves upwards, so a prime is never issued twice and only live IDs are tracked.
     public long getNew() {
-        long prime;
-        do {
-            prime = generator.nextPrime();
-        } while (ids.contains(prime));
+        long prime = generator.nextPrime();
         ids.add(prime);
         return prime;
     }
@@ -27,4 +23,4 @@ public class IDService {
             throw new NoSuchElementException("ID " + id + " not managed by IDService");
         }
     }
-}
\ No newline at end of file
+}
@@ -1,57 +1,336 @@
 package org.example.utils;
 
-import org.example.utils.PrimeNumberGeneratorThread;
-
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.NoSuchElementException;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Deleted IDs wait out a quarantine before they're handed out again, so a client still holding an
+// old ticket or event ID doesn't suddenly see it refer to something else. Fresh primes, quarantined
+// and recycled IDs all live in primitive FIFOs and the active IDs in a CompactIdSet, so memory
+// follows the number of live IDs rather than everything ever issued.
+//
+// Refills are sized from an EWMA of the rate fresh IDs are handed out at: the pool keeps
+// headroomSeconds worth of them in stock, plus whatever goes out while a refill is generated, and
+// drops back to the floors when it sits idle. The estimate rises faster than it decays, so the
+// stock built up for one on-sale is still there for the next. The constructor only generates a
+// first batch; the rest of initialNeeded is a reserve generated in the background on first use, so
+// an idle shop never pays for it. Setting headroomSeconds to 0 keeps fixed thresholds and fills
+// initialNeeded up front as before.
+public class IDServiceParallel implements IdAllocator {
+    public static final long LOWER_BOUND = 1_000_000_000L;
+    public static final long DEFAULT_QUARANTINE_MILLIS = Long.getLong("eva.ids.quarantineMillis", 60_000L);
+    public static final double DEFAULT_HEADROOM_SECONDS =
+            Double.parseDouble(System.getProperty("eva.ids.headroomSeconds", "2"));
+    private static final int MIN_LOW_WATER = 100;
+    private static final int MIN_REFILL = 100;
+    private static final int MAX_REFILL = 1 << 20;
+    private static final long SAMPLE_MILLIS = 100;
+    private static final double RATE_RISE_MILLIS = 2_000;
+    private static final double RATE_DECAY_MILLIS = 5_000;
 
-public class IDServiceParallel {
-    private final Set<Long> available = ConcurrentHashMap.newKeySet();
-    private final Set<Long> active = ConcurrentHashMap.newKeySet();
-    private static final long LOWER_BOUND = 1_000_000_000L;
-    private static final int REPLENISH_THRESHOLD = 100;
-    private static final int REPLENISH_AMOUNT = 100;
+    private final LongQueue fresh = new LongQueue(MIN_REFILL * 2);
+    private final LongQueue recycled = new LongQueue(16);
+    private final LongQueue quarantinedIds = new LongQueue(16);
+    private final LongQueue quarantinedUntil = new LongQueue(16);
+    private final CompactIdSet active = new CompactIdSet();
+    private final long quarantineMillis;
+    private final Object generatorLock = new Object();
+    private final AtomicBoolean replenishing = new AtomicBoolean();
+    private final double headroomSeconds;
+    private long nextLowerBound = LOWER_BOUND;
+    // Tuning state, guarded by the pool's monitor. Rates are per second.
+    private double allocationRate;
+    private double generationRate;
+    private long sampleStart;
+    private long sampled;
+    private long reserve;
+    private int lowWaterMark = MIN_LOW_WATER;
+    private int refillBatch = MIN_REFILL;
+    private long refills;
+    private long stalls;
+    private long stallNanos;
 
     public IDServiceParallel(long initialNeeded) throws InterruptedException {
-        PrimeNumberGeneratorThread thread = new PrimeNumberGeneratorThread(LOWER_BOUND, initialNeeded);
-        available.addAll(thread.getBucket());
+        this(initialNeeded, DEFAULT_QUARANTINE_MILLIS);
+    }
+
+    public IDServiceParallel(long initialNeeded, long quarantineMillis) throws InterruptedException {
+        this(initialNeeded, quarantineMillis, DEFAULT_HEADROOM_SECONDS);
+    }
+
+    public IDServiceParallel(long initialNeeded, long quarantineMillis, double headroomSeconds) throws InterruptedException {
+        if (quarantineMillis < 0) {
+            throw new IllegalArgumentException("Quarantine must not be negative");
+        }
+        if (headroomSeconds < 0) {
+            throw new IllegalArgumentException("Headroom must not be negative");
+        }
+        this.quarantineMillis = quarantineMillis;
+        this.headroomSeconds = headroomSeconds;
+        if (headroomSeconds == 0) {
+            generate(initialNeeded);
+        } else {
+            generate(Math.min(initialNeeded, MIN_REFILL));
+            synchronized (this) {
+                reserve = initialNeeded;
+                sampleStart = System.currentTimeMillis();
+                retune();
+            }
+        }
     }
 
+    @Override
     public long getNew() throws InterruptedException {
         synchronized (this) {
-            if (available.isEmpty()) {
-                replenish(REPLENISH_AMOUNT);
+            long now = System.currentTimeMillis();
+            release(now);
+            if (recycled.isEmpty() && fresh.isEmpty()) {
+                stall(1);
             }
-            Long prime = available.iterator().next();
-            available.remove(prime);
-            active.add(prime);
-            if (available.size() < REPLENISH_THRESHOLD) {
-                replenish(REPLENISH_AMOUNT);
+            long id = take();
+            observe(now);
+            return id;
+        }
+    }
+
+    // Hands out count IDs under a single lock acquisition.
+    @Override
+    public long[] getNew(int count) throws InterruptedException {
+        long[] ids = new long[count];
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            release(now);
+            // A request larger than the whole stock is served on demand and doesn't count as demand
+            // the headroom should cover.
+            boolean onDemand = recycled.size() + fresh.size() < count;
+            if (onDemand) {
+                stall(count);
+            }
+            long before = sampled;
+            for (int i = 0; i < count; i++) {
+                ids[i] = take();
             }
-            return prime;
+            if (onDemand) {
+                sampled = before;
+            }
+            observe(now);
         }
+        return ids;
     }
 
+    @Override
     public void delete(long id) {
         synchronized (this) {
             if (!active.remove(id)) {
                 throw new NoSuchElementException("ID " + id + " not managed by IDServiceParallel");
             }
-            available.add(id);
+            if (quarantineMillis == 0) {
+                recycled.add(id);
+            } else {
+                quarantinedIds.add(id);
+                quarantinedUntil.add(System.currentTimeMillis() + quarantineMillis);
+            }
+        }
+    }
+
+    // Releases count IDs under a single lock acquisition, all with the same quarantine deadline.
+    @Override
+    public void delete(long[] ids, int count) {
+        synchronized (this) {
+            long until = System.currentTimeMillis() + quarantineMillis;
+            for (int i = 0; i < count; i++) {
+                if (!active.remove(ids[i])) {
+                    throw new NoSuchElementException("ID " + ids[i] + " not managed by IDServiceParallel");
+                }
+                if (quarantineMillis == 0) {
+                    recycled.add(ids[i]);
+                } else {
+                    quarantinedIds.add(ids[i]);
+                    quarantinedUntil.add(until);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void claim(long id) {
+        if (!active.add(id)) {
+            throw new IllegalArgumentException("ID " + id + " is already in use");
+        }
+    }
+
+    @Override
+    public synchronized int activeCount() {
+        return (int) active.size();
+    }
+
+    public synchronized int quarantinedCount() {
+        return quarantinedIds.size();
+    }
+
+    public synchronized int recycledCount() {
+        return recycled.size();
+    }
+
+    public synchronized int freshCount() {
+        return fresh.size();
+    }
+
+    // Fresh IDs handed out per second, as estimated by the EWMA the refills are sized from.
+    public synchronized double allocationRate() {
+        return allocationRate;
+    }
+
+    // Primes found per second by recent generator runs, refills and stalls alike.
+    public synchronized double generationRate() {
+        return generationRate;
+    }
+
+    // A refill starts once fewer IDs than this are available.
+    public synchronized int lowWaterMark() {
+        return lowWaterMark;
+    }
+
+    public synchronized int refillBatch() {
+        return refillBatch;
+    }
+
+    // Background refills started so far.
+    public synchronized long refillCount() {
+        return refills;
+    }
+
+    // Calls that found the pool empty and had to wait for primes, and how long they waited in total.
+    public synchronized long stallCount() {
+        return stalls;
+    }
+
+    public synchronized long stallNanos() {
+        return stallNanos;
+    }
+
+    // Heap held by the bookkeeping structures, for comparing against the number of live IDs.
+    public synchronized long footprintBytes() {
+        return active.memoryBytes() + fresh.capacityBytes() + recycled.capacityBytes()
+                + quarantinedIds.capacityBytes() + quarantinedUntil.capacityBytes();
+    }
+
+    // Recycled IDs go first so fresh primes are only spent when nothing can be reused. IDs that were
+    // claimed in the meantime are skipped.
+    private long take() {
+        long id;
+        do {
+            if (recycled.isEmpty()) {
+                id = fresh.poll();
+                sampled++;
+                if (reserve > 0) {
+                    reserve--;
+                }
+            } else {
+                id = recycled.poll();
+            }
+        } while (!active.add(id));
+        return id;
+    }
+
+    // Deletions are queued in time order, so only the head of the quarantine ever needs checking.
+    private void release(long now) {
+        while (!quarantinedIds.isEmpty() && quarantinedUntil.peek() <= now) {
+            quarantinedUntil.poll();
+            recycled.add(quarantinedIds.poll());
+        }
+    }
+
+    // Generates on the caller's thread, under the pool's monitor, until count IDs are available.
+    private void stall(int count) throws InterruptedException {
+        long start = System.nanoTime();
+        while (recycled.size() + fresh.size() < count) {
+            generate(Math.max(MIN_REFILL, count - recycled.size() - fresh.size()));
+        }
+        stalls++;
+        stallNanos += System.nanoTime() - start;
+    }
+
+    // Folds each sample of fresh IDs taken over at least SAMPLE_MILLIS into the rate, weighted by how
+    // long it lasted. A call after a long quiet spell therefore sees the rate drop to about what it
+    // measured over that spell. Recycled IDs don't count, as they never need generating.
+    private void observe(long now) {
+        long elapsed = now - sampleStart;
+        if (elapsed >= SAMPLE_MILLIS) {
+            double rate = sampled * 1000.0 / elapsed;
+            double alpha = 1 - Math.exp(-elapsed / (rate > allocationRate ? RATE_RISE_MILLIS : RATE_DECAY_MILLIS));
+            allocationRate += alpha * (rate - allocationRate);
+            sampled = 0;
+            sampleStart = now;
+            if (headroomSeconds > 0) {
+                retune();
+            }
         }
+        if (headroomSeconds == 0) {
+            // The fixed rule: one batch once the fresh IDs drop below the low-water mark.
+            if (fresh.size() < lowWaterMark) {
+                replenish(refillBatch);
+            }
+            return;
+        }
+        long target = Math.max(lowWaterMark, reserve);
+        int available = recycled.size() + fresh.size();
+        if (available < target) {
+            replenish(target - available + refillBatch);
+        }
+    }
+
+    // The low-water mark covers headroomSeconds at the current rate plus what is handed out while a
+    // refill is generated. A refill tops the stock up to the low-water mark, or what's left of the
+    // reserve if that's more, plus one batch.
+    private void retune() {
+        refillBatch = (int) Math.max(MIN_REFILL, Math.min(MAX_REFILL, allocationRate * headroomSeconds));
+        double refillSeconds = generationRate > 0 ? refillBatch / generationRate : 0;
+        lowWaterMark = (int) Math.max(MIN_LOW_WATER,
+                Math.min(2L * MAX_REFILL, allocationRate * (headroomSeconds + refillSeconds)));
     }
 
+    // Large refills are generated and published in chunks, so callers that stall meanwhile only wait
+    // for the chunk in progress and the first IDs become available early.
     private void replenish(long amount) {
+        if (!replenishing.compareAndSet(false, true)) {
+            return;
+        }
+        refills++;
         new Thread(() -> {
-            PrimeNumberGeneratorThread refillThread = new PrimeNumberGeneratorThread(LOWER_BOUND, amount);
             try {
-                available.addAll(refillThread.getBucket());
+                for (long remaining = amount; remaining > 0; remaining -= MIN_REFILL) {
+                    generate(Math.min(remaining, MIN_REFILL));
+                }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
+            } finally {
+                replenishing.set(false);
             }
         }).start();
     }
-}
\ No newline at end of file
+
+    // Each batch continues after the largest prime generated so far, so refills never repeat IDs. The
+    // generator lock is let go before taking the pool's monitor, which getNew may already hold while
+    // waiting for a synchronous refill.
+    private void generate(long amount) throws InterruptedException {
+        long[] primes;
+        long elapsed;
+        synchronized (generatorLock) {
+            long start = System.nanoTime();
+            primes = new PrimeNumberGeneratorThread(nextLowerBound, amount).getPrimes();
+            elapsed = System.nanoTime() - start;
+            if (primes.length > 0) {
+                nextLowerBound = primes[primes.length - 1] + 1;
+            }
+        }
+        synchronized (this) {
+            for (long prime : primes) {
+                fresh.add(prime);
+            }
+            if (primes.length > 0) {
+                double rate = primes.length * 1e9 / Math.max(1, elapsed);
+                generationRate = generationRate == 0 ? rate : (generationRate + rate) / 2;
+            }
+        }
+    }
+}
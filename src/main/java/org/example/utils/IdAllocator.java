@@ -0,0 +1,55 @@
+package org.example.utils;
+
+import org.example.lease.LeasedIdAllocator;
+import org.example.lease.RemoteLeaseCoordinator;
+
+import java.net.InetSocketAddress;
+
+// Hands out unique IDs for one service. Which strategy a service uses is read from the system
+// property eva.ids.<service> ("prime", "snowflake", "block" or "leased"), defaulting to the prime
+// pool. "leased" takes ranges from the coordinator at eva.ids.coordinator (host:port), so several
+// nodes never hand out the same ID.
+public interface IdAllocator {
+    long getNew() throws InterruptedException;
+
+    long[] getNew(int count) throws InterruptedException;
+
+    void delete(long id);
+
+    // Releases the first count IDs of the array, e.g. after a mass cancellation.
+    default void delete(long[] ids, int count) {
+        for (int i = 0; i < count; i++) {
+            delete(ids[i]);
+        }
+    }
+
+    int activeCount();
+
+    // Marks an ID issued elsewhere, e.g. by a replication primary, as live so it is never handed out here.
+    void claim(long id);
+
+    static IdAllocator forService(String service, long initialNeeded) throws InterruptedException {
+        return create(System.getProperty("eva.ids." + service, "prime"), initialNeeded);
+    }
+
+    static IdAllocator create(String strategy, long initialNeeded) throws InterruptedException {
+        switch (strategy) {
+            case "prime":
+                return new IDServiceParallel(initialNeeded);
+            case "snowflake":
+                return new SnowflakeIdAllocator(Integer.getInteger("eva.ids.node", 0));
+            case "block":
+                return new BlockIdAllocator(BlockIdAllocator.DEFAULT_BLOCK_SIZE);
+            case "leased": {
+                String coordinator = System.getProperty("eva.ids.coordinator", "localhost:7070");
+                int colon = coordinator.lastIndexOf(':');
+                InetSocketAddress address = new InetSocketAddress(coordinator.substring(0, colon),
+                        Integer.parseInt(coordinator.substring(colon + 1)));
+                return new LeasedIdAllocator(new RemoteLeaseCoordinator(address, 1000),
+                        "pid-" + ProcessHandle.current().pid(), BlockIdAllocator.DEFAULT_BLOCK_SIZE);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown ID strategy: " + strategy);
+        }
+    }
+}
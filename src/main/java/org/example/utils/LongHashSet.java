@@ -0,0 +1,121 @@
+package org.example.utils;
+
+import java.util.function.LongPredicate;
+
+// Open-addressing set of longs without boxing. Removal shifts later entries back instead of
+// leaving tombstones, so the table never degrades. Not thread-safe.
+public class LongHashSet {
+    private static final long FREE = 0;
+
+    private long[] keys;
+    private int size;
+    private boolean hasFreeKey;
+
+    public LongHashSet(int expectedSize) {
+        this.keys = new long[Integer.highestOneBit(Math.max(2, expectedSize * 2 - 1)) << 1];
+    }
+
+    public boolean add(long key) {
+        if (key == FREE) {
+            if (hasFreeKey) {
+                return false;
+            }
+            hasFreeKey = true;
+            size++;
+            return true;
+        }
+        int mask = keys.length - 1;
+        for (int i = LongLongHashMap.index(key, mask); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) {
+                return false;
+            }
+            if (current == FREE) {
+                keys[i] = key;
+                if (++size * 2 > keys.length) {
+                    rehash(keys.length << 1);
+                }
+                return true;
+            }
+        }
+    }
+
+    public boolean remove(long key) {
+        if (key == FREE) {
+            if (!hasFreeKey) {
+                return false;
+            }
+            hasFreeKey = false;
+            size--;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int i = LongLongHashMap.index(key, mask);
+        while (keys[i] != key) {
+            if (keys[i] == FREE) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        // Pull every following entry of the probe run that may move into the hole.
+        int hole = i;
+        for (int j = (hole + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+            int home = LongLongHashMap.index(keys[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                hole = j;
+            }
+        }
+        keys[hole] = FREE;
+        size--;
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == FREE) {
+            return hasFreeKey;
+        }
+        int mask = keys.length - 1;
+        for (int i = LongLongHashMap.index(key, mask); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) {
+                return true;
+            }
+            if (current == FREE) {
+                return false;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Visits every key until the action returns false; returns false if it was stopped early.
+    public boolean forEach(LongPredicate action) {
+        if (hasFreeKey && !action.test(FREE)) {
+            return false;
+        }
+        for (long key : keys) {
+            if (key != FREE && !action.test(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        keys = new long[capacity];
+        int mask = capacity - 1;
+        for (long key : oldKeys) {
+            if (key != FREE) {
+                int i = LongLongHashMap.index(key, mask);
+                while (keys[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+            }
+        }
+    }
+}
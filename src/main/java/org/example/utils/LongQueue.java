@@ -0,0 +1,57 @@
+package org.example.utils;
+
+import java.util.NoSuchElementException;
+
+// Growable FIFO of longs in a circular primitive array. Not thread-safe.
+public class LongQueue {
+    private long[] elements;
+    private int head;
+    private int size;
+
+    public LongQueue(int initialCapacity) {
+        this.elements = new long[Integer.highestOneBit(Math.max(2, initialCapacity - 1)) << 1];
+    }
+
+    public void add(long value) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    public long peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        return elements[head];
+    }
+
+    public long poll() {
+        long value = peek();
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long capacityBytes() {
+        return (long) elements.length * Long.BYTES;
+    }
+
+    private void grow() {
+        long[] grown = new long[elements.length << 1];
+        for (int i = 0; i < size; i++) {
+            grown[i] = elements[(head + i) & (elements.length - 1)];
+        }
+        elements = grown;
+        head = 0;
+    }
+}
@@ -1,30 +1,27 @@
 package org.example.utils;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
-
 public class PrimeNumberGeneratorThread extends Thread {
-    private final Set<Long> bucket = Collections.synchronizedSet(new HashSet<>());
+    private final long[] primes;
     private final long lowerBound;
-    private final long needed;
+    private int found;
 
     public PrimeNumberGeneratorThread(long lowerBound, long needed) {
         this.lowerBound = lowerBound;
-        this.needed = needed;
+        this.primes = new long[(int) needed];
         start(); // Start the thread immediately
     }
 
     @Override
     public void run() {
         PrimeNumberGenerator generator = new PrimeNumberGenerator(lowerBound);
-        for (int i = 0; i < needed && !Thread.currentThread().isInterrupted(); i++) {
-            bucket.add(generator.nextPrime());
+        while (found < primes.length && !Thread.currentThread().isInterrupted()) {
+            primes[found++] = generator.nextPrime();
         }
     }
 
-    public Set<Long> getBucket() throws InterruptedException {
+    // The primes in ascending order; shorter than requested if the thread was interrupted.
+    public long[] getPrimes() throws InterruptedException {
         join(); // Wait for thread to complete
-        return bucket;
+        return found == primes.length ? primes : java.util.Arrays.copyOf(primes, found);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package org.example.utils;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 41 bits of milliseconds since EPOCH_MILLIS, 10 bits of node and a 12 bit sequence per millisecond.
+// The last millisecond and sequence share one AtomicLong so allocation is a single CAS. If the wall
+// clock steps back the previous millisecond keeps being used, so IDs stay increasing. Deleted IDs are
+// never reused.
+public class SnowflakeIdAllocator implements IdAllocator {
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+    private final AtomicLong state = new AtomicLong();
+    private final StripedLongSet active = new StripedLongSet();
+
+    public SnowflakeIdAllocator(int node) {
+        if (node < 0 || node >= 1 << NODE_BITS) {
+            throw new IllegalArgumentException("Node must be between 0 and " + ((1 << NODE_BITS) - 1));
+        }
+        this.node = node;
+    }
+
+    @Override
+    public long getNew() {
+        long id;
+        do {
+            id = next();
+        } while (!active.add(id));
+        return id;
+    }
+
+    @Override
+    public long[] getNew(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = getNew();
+        }
+        return ids;
+    }
+
+    @Override
+    public void delete(long id) {
+        if (!active.remove(id)) {
+            throw new NoSuchElementException("ID " + id + " not managed by SnowflakeIdAllocator");
+        }
+    }
+
+    @Override
+    public void claim(long id) {
+        if (!active.add(id)) {
+            throw new IllegalArgumentException("ID " + id + " is already in use");
+        }
+    }
+
+    @Override
+    public int activeCount() {
+        return active.size();
+    }
+
+    private long next() {
+        while (true) {
+            long current = state.get();
+            long lastMillis = current >>> SEQUENCE_BITS;
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long updated;
+            if (now > lastMillis) {
+                updated = now << SEQUENCE_BITS;
+            } else if ((current & SEQUENCE_MASK) == SEQUENCE_MASK) {
+                // Sequence exhausted for this millisecond, wait for the clock to move on.
+                Thread.onSpinWait();
+                continue;
+            } else {
+                updated = current + 1;
+            }
+            if (state.compareAndSet(current, updated)) {
+                return (updated >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                        | node << SEQUENCE_BITS | (updated & SEQUENCE_MASK);
+            }
+        }
+    }
+}
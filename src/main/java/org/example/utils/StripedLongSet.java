@@ -0,0 +1,49 @@
+package org.example.utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// LongHashSet split into independently locked stripes, so concurrent allocators don't serialize on
+// tracking which IDs are live. Zero is not a valid element.
+public class StripedLongSet {
+    private static final int STRIPES = 64;
+
+    private final LongHashSet[] stripes = new LongHashSet[STRIPES];
+    private final LongAdder size = new LongAdder();
+
+    public StripedLongSet() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new LongHashSet(64);
+        }
+    }
+
+    public boolean add(long value) {
+        LongHashSet stripe = stripe(value);
+        synchronized (stripe) {
+            if (!stripe.add(value)) {
+                return false;
+            }
+        }
+        size.increment();
+        return true;
+    }
+
+    public boolean remove(long value) {
+        LongHashSet stripe = stripe(value);
+        synchronized (stripe) {
+            if (!stripe.remove(value)) {
+                return false;
+            }
+        }
+        size.decrement();
+        return true;
+    }
+
+    public int size() {
+        return size.intValue();
+    }
+
+    private LongHashSet stripe(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h >>> 58)];
+    }
+}